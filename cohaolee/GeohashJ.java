@@ -1,249 +0,0 @@
-package com.lz.framework.map.geohash;
-
-
-import java.util.HashMap;
-import java.util.Map;
-
-/**
- * Created by liqing on 2017/3/21.
- *
- * GeohashJ.java
- * GeohashJ library for Java
- * ported from David Troy's GeohashJ library for Javascript
- * - http://github.com/davetroy/geohash-js/tree/master //(c) 2008 David Troy
- * (c) 2008 Tom Carden
- * Distributed under the MIT License
- * 原理介绍：https://en.wikipedia.org/wiki/Geohash; http://www.cnblogs.com/LBSer/p/3310455.html
- */
-public class GeohashJ {
-
-    //获取mark？
-    public static int BITS[] = {16, 8, 4, 2, 1};
-
-    public static String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
-    public static Map<Character, Integer> BASE32_MAP = new HashMap<Character, Integer>();
-
-    public static int RIGHT = 0;
-    public static int LEFT = 1;
-    public static int TOP = 2;
-    public static int BOTTOM = 3;
-
-    //奇数位是纬度，偶数位是经度
-    public static int EVEN = 0; //偶数位，经度
-    public static int ODD = 1; //奇数位，纬度
-
-    public static String[][] NEIGHBORS; //相邻
-    public static String[][] BORDERS; //边界
-
-    static {
-        for (int i = 0; i < 32; i++) {
-            BASE32_MAP.put(BASE32.charAt(i), i);
-        }
-
-        //用于计算
-        NEIGHBORS = new String[4][2];
-        BORDERS = new String[4][2];
-
-        NEIGHBORS[BOTTOM][EVEN] = "bc01fg45238967deuvhjyznpkmstqrwx";
-        NEIGHBORS[TOP][EVEN] = "238967debc01fg45kmstqrwxuvhjyznp";
-        NEIGHBORS[LEFT][EVEN] = "p0r21436x8zb9dcf5h7kjnmqesgutwvy";
-        NEIGHBORS[RIGHT][EVEN] = "14365h7k9dcfesgujnmqp0r2twvyx8zb";
-
-        BORDERS[BOTTOM][EVEN] = "bcfguvyz";
-        BORDERS[TOP][EVEN] = "0145hjnp";
-        BORDERS[LEFT][EVEN] = "prxz";
-        BORDERS[RIGHT][EVEN] = "028b";
-
-        NEIGHBORS[BOTTOM][ODD] = NEIGHBORS[LEFT][EVEN];
-        NEIGHBORS[TOP][ODD] = NEIGHBORS[RIGHT][EVEN];
-        NEIGHBORS[LEFT][ODD] = NEIGHBORS[BOTTOM][EVEN];
-        NEIGHBORS[RIGHT][ODD] = NEIGHBORS[TOP][EVEN];
-
-        BORDERS[BOTTOM][ODD] = BORDERS[LEFT][EVEN];
-        BORDERS[TOP][ODD] = BORDERS[RIGHT][EVEN];
-        BORDERS[LEFT][ODD] = BORDERS[BOTTOM][EVEN];
-        BORDERS[RIGHT][ODD] = BORDERS[TOP][EVEN];
-    }
-
-    private static void refine_interval(double[] interval, int cd, int mask) {
-        if ((cd & mask) > 0) {
-            interval[0] = (interval[0] + interval[1]) / 2.0;
-        } else {
-            interval[1] = (interval[0] + interval[1]) / 2.0;
-        }
-    }
-
-    /**
-     * 计算指定方位相邻节点
-     *
-     * @param srcHash
-     * @param dir 方位
-     * @return
-     */
-    public static String calculateAdjacent(String srcHash, int dir) {
-        srcHash = srcHash.toLowerCase();
-        char lastChr = srcHash.charAt(srcHash.length() - 1);
-        int type = (srcHash.length() % 2) == 1 ? ODD : EVEN;
-        String base = srcHash.substring(0, srcHash.length() - 1);
-        if (BORDERS[dir][type].indexOf(lastChr) != -1) {
-            base = calculateAdjacent(base, dir);
-        }
-        return base + BASE32.charAt(NEIGHBORS[dir][type].indexOf(lastChr));
-    }
-
-
-    /**
-     * 获取geohash 相邻8个节点
-     *
-     * @param geohash
-     * @return 0 本身
-     * 1 Top
-     * 2 Bottom
-     * 3 Right
-     * 4 Left
-     * 5 TopLeft
-     * 6 TopRight
-     * 7 BottomRight
-     * 8 BottomLeft
-     */
-    public static String[] getGeoHashExpand(String geohash) {
-        try {
-            String geohashTop = calculateAdjacent(geohash, TOP);
-            String geohashBottom = calculateAdjacent(geohash, BOTTOM);
-            String geohashRight = calculateAdjacent(geohash, RIGHT);
-            String geohashLeft = calculateAdjacent(geohash, LEFT);
-
-            String geohashTopLeft = calculateAdjacent(geohashLeft, TOP);
-            String geohashTopRight = calculateAdjacent(geohashRight, TOP);
-            String geohashBottomRight = calculateAdjacent(geohashRight, BOTTOM);
-            String geohashBottomLeft = calculateAdjacent(geohashLeft, BOTTOM);
-
-            String[] expand = {geohash, geohashTop, geohashBottom, geohashRight, geohashLeft, geohashTopLeft,
-                    geohashTopRight, geohashBottomRight, geohashBottomLeft};
-            return expand;
-        } catch (Exception e) {
-            //logger.error("GeoHash Error",e);
-            return null;
-        }
-    }
-
-
-    /**
-     * 将geohash解码为
-     *
-     * @param geohash
-     * @return
-     */
-//    public static double[][] decode(String geohash) {
-//        boolean is_even = true;
-//        double[] lat = new double[3];
-//        double[] lon = new double[3];
-//
-//        //维度
-//        lat[0] = -90.0;
-//        lat[1] = 90.0;
-//
-//        //经度
-//        lon[0] = -180.0;
-//        lon[1] = 180.0;
-//
-//        double lat_err = 90.0;
-//        double lon_err = 180.0;
-//
-//        for (int i = 0; i < geohash.length(); i++) {
-//            char c = geohash.charAt(i);
-//            int cd = BASE32.indexOf(c);//字符在base32编码位置，可考虑增加hashmap实现优化性能
-//            for (int j = 0; j < BITS.length; j++) {
-//                int mask = BITS[j];
-//                if (is_even) {
-//                    lon_err /= 2.0;
-//                    refine_interval(lon, cd, mask);
-//                } else {
-//                    lat_err /= 2.0;
-//                    refine_interval(lat, cd, mask);
-//                }
-//                is_even = !is_even;
-//            }
-//        }
-//        lat[2] = (lat[0] + lat[1]) / 2.0;
-//        lon[2] = (lon[0] + lon[1]) / 2.0;
-//
-//        return new double[][]{lat, lon};
-//    }
-    public static double[] decode(String geohash) {
-        boolean even = true;
-        double[] lat = {-90.0, 90.0};
-        double[] lon = {-180.0, 180.0};
-
-        for (int i = 0; i < geohash.length(); i++) {
-            char c = geohash.charAt(i);
-            int cd = BASE32.indexOf(c);
-            for (int j = 0; j < 5; j++) {
-                int mask = BITS[j];
-                if (even) {
-                    refine_interval(lon, cd, mask);
-                } else {
-                    refine_interval(lat, cd, mask);
-                }
-                even = !even;
-            }
-        }
-        return new double[]{(lat[0] + lat[1]) / 2, (lon[0] + lon[1]) / 2};
-    }
-
-
-    /**
-     * 将经纬度编码为geohash
-     *
-     * @param latitude
-     * @param longitude
-     * @return
-     */
-    public static String encode(double latitude, double longitude) {
-        boolean is_even = true;
-        int i = 0;
-        double lat[] = new double[3];
-        double lon[] = new double[3];
-        int bit = 0;
-        int ch = 0;
-        // 精度12位，5位的编码能表示10平方千米范围的矩形区域，而6位编码能表示更精细的区域（约0.34平方千米）
-        // 当geohash base32编码长度为8时，精度在19米左右，而当编码长度为9时，精度在2米左右
-        int precision = 12;
-        String geohash = ""; //可以考虑用StringBuilder，new StringBuilder(precision);
-
-        lat[0] = -90.0;
-        lat[1] = 90.0;
-        lon[0] = -180.0;
-        lon[1] = 180.0;
-
-        while (geohash.length() < precision) {
-            if (is_even) {
-                double mid = (lon[0] + lon[1]) / 2.0;
-                if (longitude > mid) {
-                    ch |= BITS[bit];
-                    lon[0] = mid;
-                } else {
-                    lon[1] = mid;
-                }
-            } else {
-                double mid = (lat[0] + lat[1]) / 2.0;
-                if (latitude > mid) {
-                    ch |= BITS[bit];
-                    lat[0] = mid;
-                } else {
-                    lat[1] = mid;
-                }
-            }
-            is_even = !is_even;
-            if (bit < 4) {
-                bit++;
-            } else {
-                geohash += BASE32.charAt(ch);
-                bit = 0;
-                ch = 0;
-            }
-        }
-        return geohash;
-    }
-
-}
@@ -22,18 +22,14 @@
 
 package com.lz.framework.map.geohash;
 
-import java.util.Arrays;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
 
 /**
- * Utilities for encoding and decoding <a href="http://en.wikipedia.org/wiki/Geohash">geohashes</a>.
- * <p>
- * This class isn't used by any other part of Spatial4j; it's included largely for convenience of
- * software using Spatial4j. There are other open-source libraries that have more comprehensive
- * geohash utilities but providing this one avoids an additional dependency for what's a small
- * amount of code.  <em>If you're using Spatial4j just for this class, consider alternatives.</em>
- * <p>
- * This code originally came from <a href="https://issues.apache.org/jira/browse/LUCENE-1512">
- * Apache Lucene, LUCENE-1512</a>.
+ * Lon-lat ordered geohash helpers for the map framework. Encoding, decoding and neighbor
+ * calculation delegate to Spatial4j's {@link org.locationtech.spatial4j.io.GeohashUtils}, which
+ * computes neighbors arithmetically on the geohash bits; this replaces the former Geohash and
+ * GeohashJ classes and their recursive neighbor/border table lookups.
  */
 public class GeohashUtils {
 
@@ -41,50 +37,20 @@ public class GeohashUtils {
     public static final char[] BASE_32 = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'b', 'c', 'd', 'e', 'f',
             'g', 'h', 'j', 'k', 'm', 'n', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z'};//note: this is sorted
 
-    public static final int[] BASE_32_IDX;//sparse array of indexes from '0' to 'z'
-
-    public static final int MAX_PRECISION = 24;//DWS: I forget what level results in needless more precision but it's about this
-    public static final int[] BITS = {16, 8, 4, 2, 1}; //二进制 2^4(10000) 2^3 2^2 2^1 2^0  之和31（0-31）
+    public static final int MAX_PRECISION = org.locationtech.spatial4j.io.GeohashUtils.MAX_PRECISION;
 
     /**
      * 方位
      */
     public enum Direction {
-        Top(0), Right(1), Bottom(2), Left(3);
-
-        private int value;
-
-        Direction(int value) {
-            this.value = value;
-        }
-    }
-
-    public static final String[][] Neighbors = {
-            {
-                    "p0r21436x8zb9dcf5h7kjnmqesgutwvy", // Top
-                    "bc01fg45238967deuvhjyznpkmstqrwx", // Right
-                    "14365h7k9dcfesgujnmqp0r2twvyx8zb", // Bottom
-                    "238967debc01fg45kmstqrwxuvhjyznp", // Left
-            },
-            {
-                    "bc01fg45238967deuvhjyznpkmstqrwx", // Top
-                    "p0r21436x8zb9dcf5h7kjnmqesgutwvy", // Right
-                    "238967debc01fg45kmstqrwxuvhjyznp", // Bottom
-                    "14365h7k9dcfesgujnmqp0r2twvyx8zb", // Left
-            }
-    };
+        Top(0, 1), Right(1, 0), Bottom(0, -1), Left(-1, 0);
 
-    public static final String[][] Borders = {
-            {"prxz", "bcfguvyz", "028b", "0145hjnp"}, // Top，Right，Bottom，Left
-            {"bcfguvyz", "prxz", "0145hjnp", "028b"}  // Top，Right，Bottom，Left
-    };
+        private final int dx;
+        private final int dy;
 
-    static {
-        BASE_32_IDX = new int[BASE_32[BASE_32.length - 1] - BASE_32[0] + 1];
-        assert BASE_32_IDX.length < 100;//reasonable length
-        Arrays.fill(BASE_32_IDX, -500);//ascii空白处填充 -500；
-        for (int i = 0; i < BASE_32.length; i++) {
-            BASE_32_IDX[BASE_32[i] - BASE_32[0]] = i;//ascii编码
+        Direction(int dx, int dy) {
+            this.dx = dx;
+            this.dy = dy;
         }
     }
 
@@ -104,47 +70,7 @@ public class GeohashUtils {
     }
 
     public static String encode(double longitude, double latitude, int precision) {
-        double[] latInterval = {-90.0, 90.0};
-        double[] lngInterval = {-180.0, 180.0};
-
-        final StringBuilder geohash = new StringBuilder(precision);
-        boolean isEven = true;
-
-        int bit = 0;
-        int ch = 0;
-
-        while (geohash.length() < precision) {
-            double mid = 0.0;
-            if (isEven) { //偶数 经度
-                mid = (lngInterval[0] + lngInterval[1]) / 2D;
-                if (longitude > mid) {
-                    ch |= BITS[bit];
-                    lngInterval[0] = mid;
-                } else {
-                    lngInterval[1] = mid;
-                }
-            } else {//奇数 维度
-                mid = (latInterval[0] + latInterval[1]) / 2D;
-                if (latitude > mid) {
-                    ch |= BITS[bit];
-                    latInterval[0] = mid;
-                } else {
-                    latInterval[1] = mid;
-                }
-            }
-
-            isEven = !isEven;
-
-            if (bit < 4) {//计算合并出了一位base32，5位2进制一位32编码
-                bit++;
-            } else {
-                geohash.append(BASE_32[ch]);
-                bit = 0;
-                ch = 0;
-            }
-        }
-
-        return geohash.toString();
+        return org.locationtech.spatial4j.io.GeohashUtils.encodeLatLon(latitude, longitude, precision);
     }
 
     /**
@@ -152,106 +78,65 @@ public class GeohashUtils {
      * Returns {longitude, latitude}
      */
     public static double[] decode(String geohash) {
-        double minY = -90, maxY = 90, minX = -180, maxX = 180;
-        boolean isEven = true;
-
-        for (int i = 0; i < geohash.length(); i++) {
-            char c = geohash.charAt(i);
-
-            //转换小写，避免使用 toLowerCase()
-            if (c >= 'A' && c <= 'Z')
-                c -= ('A' - 'a');
-
-            //获取base32位字符索引位置
-            final int cd = BASE_32_IDX[c - BASE_32[0]];
-
-            for (int mask : BITS) {
-                if (isEven) {//经度
-                    if ((cd & mask) != 0) {
-                        minX = (minX + maxX) / 2D;
-                    } else {
-                        maxX = (minX + maxX) / 2D;
-                    }
-                } else {//维度
-                    if ((cd & mask) != 0) {
-                        minY = (minY + maxY) / 2D;
-                    } else {
-                        maxY = (minY + maxY) / 2D;
-                    }
-                }
-                isEven = !isEven;
-            }
-
-        }
-
-        double longitude = (minX + maxX) / 2D;
-        double latitude = (minY + maxY) / 2D;
-        return new double[]{longitude, latitude};
+        Point center = org.locationtech.spatial4j.io.GeohashUtils.decode(geohash, SpatialContext.GEO);
+        return new double[]{center.getX(), center.getY()};
     }
 
     /**
-     * 计算相邻节点
+     * 计算相邻节点 (at most 12 characters)
      *
      * @param srcHash
      * @param direction 方位
-     * @return 返回指定方位的相邻节点编码
+     * @return 返回指定方位的相邻节点编码, or "" if beyond a pole
      */
     public static String calculateAdjacent(String srcHash, Direction direction) {
         if (srcHash == null || "".equals(srcHash)) {
             return ""; //该方位没有相邻节点
         }
-
-        char lastChr = 0;
-        int isEven = 0; //0经度或1维度，最后一位是维度还是经度
-        int dir = 0;
-        String nHash = null; //获取除最后一位的所有编码
-
-        srcHash = srcHash.toLowerCase();
-
-        lastChr = srcHash.charAt(srcHash.length() - 1);
-        isEven = srcHash.length() % 2; //（待确认Bug:算法在srcHash奇数编码时，反对角线换位），原因：多了一位经度导致，peano曲线构建问题？
-        dir = direction.value;
-        nHash = srcHash.substring(0, srcHash.length() - 1);
-
-        //是否包含最后一个geohash字符
-        if (Borders[isEven][dir].indexOf(lastChr) != -1) {
-            nHash = calculateAdjacent(nHash, direction);//包含继续计算
-            if ("".equals(nHash)) {
-                return nHash;
-            }
-        }
-
-        return nHash + BASE_32[Neighbors[isEven][dir].indexOf(lastChr)];
+        int precision = srcHash.length();
+        long adjacent = org.locationtech.spatial4j.io.GeohashUtils.adjacent(
+                org.locationtech.spatial4j.io.GeohashUtils.toLong(srcHash), precision, direction.dx, direction.dy);
+        return adjacent == -1 ? "" : org.locationtech.spatial4j.io.GeohashUtils.toGeohash(adjacent, precision);
     }
 
     /**
-     * 获取geohash 相邻节点的九宫格
+     * 获取geohash 相邻节点的九宫格 (at most 12 characters)
      *
      * @param geohash
-     * @return 返回九宫格
+     * @return 返回九宫格; "" for cells beyond a pole
      * 0 TopLeft     Top        TopRight
      * 1 Left        本身        Right
-     * 2 BottomLeft BottomRight  Bottom
+     * 2 BottomLeft  Bottom     BottomRight
      */
     public static String[][] getSudoku(String geohash) {
-        String top = calculateAdjacent(geohash, Direction.Top);
-        String bottom = calculateAdjacent(geohash, Direction.Bottom);
-        String right = calculateAdjacent(geohash, Direction.Right);
-        String left = calculateAdjacent(geohash, Direction.Left);
-
-        String topLeft = calculateAdjacent(left, Direction.Top);
-        String topRight = calculateAdjacent(right, Direction.Top);
-        String bottomRight = calculateAdjacent(right, Direction.Bottom);
-        String bottomLeft = calculateAdjacent(left, Direction.Bottom);
-
-        String[][] sudoku = {
-                {topLeft, top, topRight}
-                , {left, geohash, right}
-                , {bottomLeft, bottom, bottomRight}
-        };
+        String[] cells = org.locationtech.spatial4j.io.GeohashUtils.expand(geohash);
+        String[][] sudoku = new String[3][3];
+        for (int i = 0; i < cells.length; i++) {
+            sudoku[i / 3][i % 3] = cells[i] == null ? "" : cells[i];
+        }
         return sudoku;
     }
 
+    /**
+     * 获取geohash 相邻8个节点 (at most 12 characters)
+     *
+     * @param geohash
+     * @return 0 本身
+     * 1 Top
+     * 2 Bottom
+     * 3 Right
+     * 4 Left
+     * 5 TopLeft
+     * 6 TopRight
+     * 7 BottomRight
+     * 8 BottomLeft
+     */
+    public static String[] getGeoHashExpand(String geohash) {
+        String[][] sudoku = getSudoku(geohash);
+        return new String[]{sudoku[1][1], sudoku[0][1], sudoku[2][1], sudoku[1][2], sudoku[1][0],
+                sudoku[0][0], sudoku[0][2], sudoku[2][2], sudoku[2][0]};
+    }
+
     private static final double EARTH_RADIUS = 6371000;//赤道半径(单位m)
 
     /**
@@ -283,7 +168,7 @@ public class GeohashUtils {
 
 
     public static double[] lookupDegreesSizeForHashLen(int hashLen) {
-        return new double[]{hashLenToLatHeight[hashLen], hashLenToLonWidth[hashLen]};
+        return org.locationtech.spatial4j.io.GeohashUtils.lookupDegreesSizeForHashLen(hashLen);
     }
 
     /**
@@ -291,32 +176,7 @@ public class GeohashUtils {
      * Return the shortest geohash length that will have a width &amp; height &gt;= specified arguments.
      */
     public static int lookupHashLenForWidthHeight(double lonErr, double latErr) {
-        //loop through hash length arrays from beginning till we find one.
-        for (int len = 1; len < MAX_PRECISION; len++) {
-            double latHeight = hashLenToLatHeight[len];
-            double lonWidth = hashLenToLonWidth[len];
-            if (latHeight < latErr && lonWidth < lonErr)
-                return len;
-        }
-        return MAX_PRECISION;
-    }
-
-    /**
-     * See the table at http://en.wikipedia.org/wiki/Geohash
-     */
-    private static final double[] hashLenToLatHeight, hashLenToLonWidth;
-
-    static {
-        hashLenToLatHeight = new double[MAX_PRECISION + 1]; //25个元素
-        hashLenToLonWidth = new double[MAX_PRECISION + 1];
-        hashLenToLatHeight[0] = 90 * 2;
-        hashLenToLonWidth[0] = 180 * 2;
-        boolean even = false;
-        for (int i = 1; i <= MAX_PRECISION; i++) {
-            hashLenToLatHeight[i] = hashLenToLatHeight[i - 1] / (even ? 8 : 4);
-            hashLenToLonWidth[i] = hashLenToLonWidth[i - 1] / (even ? 4 : 8);
-            even = !even;
-        }
+        return org.locationtech.spatial4j.io.GeohashUtils.lookupHashLenForWidthHeight(lonErr, latErr);
     }
 
 }
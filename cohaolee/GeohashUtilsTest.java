@@ -11,22 +11,15 @@ import java.util.Arrays;
 public class GeohashUtilsTest {
     @Test
     public void encode() throws Exception {
-        String encode = Geohash.encode(29.52508228572224, 106.50849558413029);
-        String encode1 = GeohashUtils.encode(106.50849558413029, 29.52508228572224);
+        String encode = GeohashUtils.encode(106.50849558413029, 29.52508228572224);
         Assert.assertEquals("wm5xzwvh5f62", encode);
-        Assert.assertEquals(encode, encode1);
     } 
 
     @Test
     public void decode() throws Exception {
-        double[] var1 = Geohash.decode("wm5xzwvh5f62");
-        double[] var2 = GeohashUtils.decode("wm5xzwvh5f62");
-        Assert.assertEquals(var1[0], var2[0], 0.00000001d);
-        Assert.assertEquals(var1[1], var2[1], 0.00000001d);
-        System.out.println(var1[0]);
-        System.out.println(var2[0]);
-        System.out.println(var1[1]);
-        System.out.println(var2[1]);
+        double[] lonLat = GeohashUtils.decode("wm5xzwvh5f62");
+        Assert.assertEquals(106.50849558413029, lonLat[0], 0.000001d);
+        Assert.assertEquals(29.52508228572224, lonLat[1], 0.000001d);
     }
 
     @Test
@@ -41,57 +34,24 @@ public class GeohashUtilsTest {
 
     @Test
     public void calculateAdjacent() throws Exception {
-//        String s = GeohashUtils.Borders[0][3];
-//        int[] BASE_32_IDX = GeohashUtils.BASE_32_IDX;
-//        char[] BASE_32 = GeohashUtils.BASE_32;
-//
-//        System.out.println(s);
-//        for (int i = 0; i < s.length(); i++) {
-//            char c = s.charAt(i);
-//
-//            //获取base32位字符索引位置
-//            final int cd = BASE_32_IDX[c - BASE_32[0]];
-//
-//            System.out.println(cd);
-//        }
-
-//        String k8 = Geohash.calculateAdjacent("wx4g0b", Geohash.Direction.Left);
-//        String s = Geohash.calculateAdjacent("wx4g0b", Geohash.Direction.Right);
-//        String s1 = Geohash.calculateAdjacent("wx4g0b", Geohash.Direction.Top);
-//        String s2 = Geohash.calculateAdjacent("wx4g0b", Geohash.Direction.Bottom);
-//        System.out.println("左 " + k8);
-//        System.out.println("右 " + s);
-//        System.out.println("上 " + s1);
-//        System.out.println("下 " + s2);
-
-
-        String k8 = GeohashUtils.calculateAdjacent("3", GeohashUtils.Direction.Left);
-        String s = GeohashUtils.calculateAdjacent("0f", GeohashUtils.Direction.Right);
-        String s1 = GeohashUtils.calculateAdjacent("0f", GeohashUtils.Direction.Top);
-        String s2 = GeohashUtils.calculateAdjacent("0f", GeohashUtils.Direction.Bottom);
-        System.out.println("左 " + k8);
-        System.out.println("右 " + s);
-        System.out.println("上 " + s1);
-        System.out.println("下 " + s2);
-//        Assert.assertEquals("hx", k8);
+        Assert.assertEquals("wx4g0c", GeohashUtils.calculateAdjacent("wx4g0b", GeohashUtils.Direction.Top));
+        Assert.assertEquals("wx4g10", GeohashUtils.calculateAdjacent("wx4g0b", GeohashUtils.Direction.Right));
+        Assert.assertEquals("wx4fbz", GeohashUtils.calculateAdjacent("wx4g0b", GeohashUtils.Direction.Bottom));
+        Assert.assertEquals("wx4g08", GeohashUtils.calculateAdjacent("wx4g0b", GeohashUtils.Direction.Left));
+        //wraps the dateline; nothing beyond the poles
+        Assert.assertEquals("p", GeohashUtils.calculateAdjacent("0", GeohashUtils.Direction.Left));
+        Assert.assertEquals("", GeohashUtils.calculateAdjacent("0", GeohashUtils.Direction.Bottom));
     }
 
     @Test
     public void getSudokuTest() throws Exception{
         //http://geohash.gofreerange.com/ 查看空间编码，奇数编码，偶数编码
-        //peano曲线走向不同（下标偶数按经度x轴方向，下标奇数按维度y轴方向）
-
         String[][] sudoku = GeohashUtils.getSudoku("00bh2");
-        StringBuilder sb = new StringBuilder();
-
-        for (int i = 0; i < sudoku.length ; i++) {
-            for (int j = 0; j < sudoku[0].length; j++) {
-                sb.append(sudoku[i][j]);
-                sb.append(" ");
-            }
-            sb.append("\n");
-        }
-        System.out.println(sb);
+        Assert.assertEquals("00bh2", sudoku[1][1]);
+        Assert.assertEquals(GeohashUtils.calculateAdjacent("00bh2", GeohashUtils.Direction.Top), sudoku[0][1]);
+        Assert.assertEquals(GeohashUtils.calculateAdjacent("00bh2", GeohashUtils.Direction.Bottom), sudoku[2][1]);
+        Assert.assertEquals(GeohashUtils.calculateAdjacent("00bh2", GeohashUtils.Direction.Right), sudoku[1][2]);
+        Assert.assertEquals(GeohashUtils.calculateAdjacent("00bh2", GeohashUtils.Direction.Left), sudoku[1][0]);
     }
 
     @Test
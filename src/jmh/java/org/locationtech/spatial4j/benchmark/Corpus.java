@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.benchmark;
+
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.shape.Shape;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the WKT test resources (one shape per line; '#' comments) that the benchmarks run against.
+ */
+final class Corpus {
+
+  /** The corpora benchmarks may be parameterized on; each is a resource on the test classpath. */
+  static final String SAMPLES = "samples.txt", FIJI = "fiji.wkt.txt", RUSSIA = "russia.wkt.txt";
+
+  private Corpus() {
+  }
+
+  static JtsSpatialContext newGeoContext() {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    factory.geo = true;
+    factory.normWrapLongitude = true;
+    return factory.newSpatialContext();
+  }
+
+  static List<String> readWkt(String resource) throws IOException {
+    InputStream in = Corpus.class.getResourceAsStream("/" + resource);
+    if (in == null)
+      throw new IllegalArgumentException("No such resource: " + resource);
+    List<String> result = new ArrayList<>();
+    try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        line = line.trim();
+        if (line.startsWith("#") || line.isEmpty())
+          continue;
+        result.add(line);
+      }
+    }
+    return result;
+  }
+
+  static List<Shape> readShapes(JtsSpatialContext ctx, String resource) throws IOException, ParseException {
+    List<Shape> shapes = new ArrayList<>();
+    for (String wkt : readWkt(resource)) {
+      shapes.add(ctx.getFormats().getWktReader().read(wkt));
+    }
+    return shapes;
+  }
+}
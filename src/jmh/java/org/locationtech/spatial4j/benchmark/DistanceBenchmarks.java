@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.benchmark;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.SpatialContextFactory;
+import org.locationtech.spatial4j.distance.DistanceCalculator;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.distance.PreparedDistance;
+import org.locationtech.spatial4j.io.GeohashUtils;
+import org.locationtech.spatial4j.shape.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-to-point distance and geohash encoding over random points. Scores are per point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmarks {
+
+  static final int NUM_POINTS = 4096;
+
+  /** The maximum distance in degrees of the points from the origin; small is typical of radius queries. */
+  @Param({"1", "180"})
+  public double spreadDEG;
+
+  @Param({"12"})
+  public int geohashLen;
+
+  @Param({"haversine", "lawOfCosines", "vincentySphere", "fastHaversine", "equirectangular", "cartesian"})
+  public String distCalc;
+
+  private DistanceCalculator calc;
+  private Point origin;
+  private double[] out;
+
+  private double originLatRAD, originLonRAD;
+  private double[] latsRAD, lonsRAD;
+  private double[] latsDEG, lonsDEG;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    double originLat = 40.7, originLon = -74.0;
+    Map<String, String> args = new HashMap<>();
+    args.put("geo", Boolean.toString(!distCalc.equals("cartesian")));
+    args.put("distCalculator", distCalc);
+    SpatialContext ctx = SpatialContextFactory.makeSpatialContext(args, getClass().getClassLoader());
+    calc = ctx.getDistCalc();
+    origin = ctx.makePoint(originLon, originLat);
+    out = new double[NUM_POINTS];
+    originLatRAD = DistanceUtils.toRadians(originLat);
+    originLonRAD = DistanceUtils.toRadians(originLon);
+    latsRAD = new double[NUM_POINTS];
+    lonsRAD = new double[NUM_POINTS];
+    latsDEG = new double[NUM_POINTS];
+    lonsDEG = new double[NUM_POINTS];
+    for (int i = 0; i < NUM_POINTS; i++) {
+      double lat = originLat + (random.nextDouble() * 2 - 1) * spreadDEG;
+      double lon = originLon + (random.nextDouble() * 2 - 1) * spreadDEG;
+      lat = Math.max(-90, Math.min(90, lat));
+      lon = DistanceUtils.normLonDEG(lon);
+      latsDEG[i] = lat;
+      lonsDEG[i] = lon;
+      latsRAD[i] = DistanceUtils.toRadians(lat);
+      lonsRAD[i] = DistanceUtils.toRadians(lon);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public void distHaversineRAD(Blackhole bh) {
+    for (int i = 0; i < NUM_POINTS; i++) {
+      bh.consume(DistanceUtils.distHaversineRAD(originLatRAD, originLonRAD, latsRAD[i], lonsRAD[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public void distVincentyRAD(Blackhole bh) {
+    for (int i = 0; i < NUM_POINTS; i++) {
+      bh.consume(DistanceUtils.distVincentyRAD(originLatRAD, originLonRAD, latsRAD[i], lonsRAD[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public void calcDistance(Blackhole bh) {
+    for (int i = 0; i < NUM_POINTS; i++) {
+      bh.consume(calc.distance(origin, lonsDEG[i], latsDEG[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public double[] calcDistances() {
+    calc.distances(origin, lonsDEG, latsDEG, out, 0, NUM_POINTS);
+    return out;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public void calcWithin(Blackhole bh) {
+    final double withinDEG = spreadDEG / 2;
+    for (int i = 0; i < NUM_POINTS; i++) {
+      bh.consume(calc.within(origin, lonsDEG[i], latsDEG[i], withinDEG));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public void preparedDistance(Blackhole bh) {
+    PreparedDistance prepared = calc.prepare(origin);
+    for (int i = 0; i < NUM_POINTS; i++) {
+      bh.consume(prepared.distance(lonsDEG[i], latsDEG[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public void preparedWithin(Blackhole bh) {
+    final double withinDEG = spreadDEG / 2;
+    PreparedDistance prepared = calc.prepare(origin);
+    for (int i = 0; i < NUM_POINTS; i++) {
+      bh.consume(prepared.within(lonsDEG[i], latsDEG[i], withinDEG));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public void geohashEncodeLatLon(Blackhole bh) {
+    for (int i = 0; i < NUM_POINTS; i++) {
+      bh.consume(GeohashUtils.encodeLatLon(latsDEG[i], lonsDEG[i], geohashLen));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_POINTS)
+  public void geohashEncodeLatLonLong(Blackhole bh) {
+    for (int i = 0; i < NUM_POINTS; i++) {
+      bh.consume(GeohashUtils.encodeLatLonLong(latsDEG[i], lonsDEG[i], geohashLen));
+    }
+  }
+}
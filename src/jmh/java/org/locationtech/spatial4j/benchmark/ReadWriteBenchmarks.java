@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.benchmark;
+
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.exception.InvalidShapeException;
+import org.locationtech.spatial4j.io.BinaryCodec;
+import org.locationtech.spatial4j.io.BinaryShapeView;
+import org.locationtech.spatial4j.io.GeoJSONReader;
+import org.locationtech.spatial4j.io.ShapeIO;
+import org.locationtech.spatial4j.io.ShapeReader;
+import org.locationtech.spatial4j.io.WKTReader;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing each shape of a corpus in the supported formats. Each invocation handles the
+ * whole corpus, so scores are per corpus pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadWriteBenchmarks {
+
+  @Param({Corpus.SAMPLES, Corpus.FIJI, Corpus.RUSSIA})
+  public String corpus;
+
+  private JtsSpatialContext ctx;
+  private BinaryCodec binaryCodec;
+  private WKTReader wktReader;
+  private ShapeReader geoJsonReader;
+  private ShapeReader polyReader;
+
+  private Shape[] shapes;
+  private String[] wkt;
+  private String[] geoJson;
+  private String geoJsonFeatures;// a FeatureCollection of geoJson
+  private ForkJoinPool pool;
+  private String[] poly;
+  private byte[][] binary;
+  private ByteBuffer binaryWithHeaders;
+  private BinaryShapeView binaryShapeView;
+  private Rectangle query;
+
+  @Setup
+  public void setup() throws Exception {
+    ctx = Corpus.newGeoContext();
+    binaryCodec = ctx.getBinaryCodec();
+    wktReader = (WKTReader) ctx.getFormats().getWktReader();
+    geoJsonReader = ctx.getFormats().getGeoJsonReader();
+    polyReader = ctx.getFormats().getReader(ShapeIO.POLY);
+
+    List<Shape> shapeList = Corpus.readShapes(ctx, corpus);
+    int n = shapeList.size();
+    shapes = shapeList.toArray(new Shape[n]);
+    List<String> wktList = new ArrayList<>(n);
+    List<String> geoJsonList = new ArrayList<>(n);
+    List<String> polyList = new ArrayList<>(n);
+    binary = new byte[n][];
+    for (int i = 0; i < n; i++) {
+      Shape shape = shapes[i];
+      addIfReadable(wktList, wktReader, ctx.getFormats().getWktWriter().toString(shape));
+      addIfReadable(geoJsonList, geoJsonReader, ctx.getFormats().getGeoJsonWriter().toString(shape));
+      addIfReadable(polyList, polyReader, ctx.getFormats().getWriter(ShapeIO.POLY).toString(shape));
+      binary[i] = toBytes(shape);
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dataOutput = new DataOutputStream(baos);
+    for (Shape shape : shapes) {
+      binaryCodec.writeShapeWithHeader(dataOutput, shape);
+    }
+    binaryWithHeaders = ByteBuffer.wrap(baos.toByteArray());
+    binaryShapeView = new BinaryShapeView(binaryCodec);
+    // a corner of the corpus' extent, so that some shapes intersect, some are disjoint and some within
+    Rectangle extent = ctx.makeCollection(shapeList).getBoundingBox();
+    query = ctx.makeRectangle(extent.getMinX(), extent.getMinX() + extent.getWidth() / 3,
+        extent.getMinY(), extent.getMinY() + extent.getHeight() / 3);
+    wkt = wktList.toArray(new String[wktList.size()]);
+    geoJson = geoJsonList.toArray(new String[geoJsonList.size()]);
+    poly = polyList.toArray(new String[polyList.size()]);
+    StringBuilder features = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+    for (int i = 0; i < geoJson.length; i++) {
+      if (i > 0) {
+        features.append(',');
+      }
+      features.append("{\"type\":\"Feature\",\"id\":").append(i).append(",\"geometry\":").append(geoJson[i])
+          .append(",\"properties\":{\"name\":\"").append(i).append("\"}}");
+    }
+    geoJsonFeatures = features.append("]}").toString();
+    pool = new ForkJoinPool();
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Lossy formats (e.g. Polyshape's 1e5 precision) may produce invalid geometries when read back;
+   * those are left out of the corpus for that format.
+   */
+  private static void addIfReadable(List<String> list, ShapeReader reader, String str) throws IOException {
+    try {
+      reader.read(new StringReader(str));
+    } catch (ParseException | InvalidShapeException e) {
+      return;
+    }
+    list.add(str);
+  }
+
+  private byte[] toBytes(Shape shape) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    binaryCodec.writeShape(new DataOutputStream(baos), shape);
+    return baos.toByteArray();
+  }
+
+  @Benchmark
+  public void wktParse(Blackhole bh) throws Exception {
+    for (String s : wkt) {
+      bh.consume(wktReader.parse(s));
+    }
+  }
+
+  @Benchmark
+  public void geoJsonRead(Blackhole bh) throws Exception {
+    for (String s : geoJson) {
+      bh.consume(geoJsonReader.read(new StringReader(s)));
+    }
+  }
+
+  @Benchmark
+  public long geoJsonReadFeatures(final Blackhole bh) throws Exception {
+    return readFeatures(bh, null);
+  }
+
+  @Benchmark
+  public long geoJsonReadFeaturesParallel(final Blackhole bh) throws Exception {
+    return readFeatures(bh, pool);
+  }
+
+  private long readFeatures(final Blackhole bh, ForkJoinPool pool) throws Exception {
+    return ((GeoJSONReader) geoJsonReader).readFeatures(new StringReader(geoJsonFeatures),
+        new GeoJSONReader.FeatureHandler() {
+          @Override
+          public boolean feature(GeoJSONReader.Feature feature) {
+            bh.consume(feature);
+            return true;
+          }
+        }, pool);
+  }
+
+  @Benchmark
+  public void polyshapeRead(Blackhole bh) throws Exception {
+    for (String s : poly) {
+      bh.consume(polyReader.read(new StringReader(s)));
+    }
+  }
+
+  @Benchmark
+  public void binaryReadShape(Blackhole bh) throws Exception {
+    for (byte[] bytes : binary) {
+      bh.consume(binaryCodec.readShape(new DataInputStream(new ByteArrayInputStream(bytes))));
+    }
+  }
+
+  @Benchmark
+  public void binaryReadShapeByteBuffer(Blackhole bh) {
+    for (byte[] bytes : binary) {
+      bh.consume(binaryCodec.readShape(ByteBuffer.wrap(bytes)));
+    }
+  }
+
+  /** Decodes each shape to relate it to a query rectangle. */
+  @Benchmark
+  public int binaryReadShapeRelate() {
+    int intersects = 0;
+    ByteBuffer byteBuffer = binaryWithHeaders.duplicate();
+    while (byteBuffer.hasRemaining()) {
+      if (binaryCodec.readShape(byteBuffer).relate(query).intersects())
+        intersects++;
+    }
+    return intersects;
+  }
+
+  /** Relates each shape to a query rectangle via a {@link BinaryShapeView}, decoding only if the header can't tell. */
+  @Benchmark
+  public int binaryShapeViewRelate() {
+    int intersects = 0;
+    ByteBuffer byteBuffer = binaryWithHeaders.duplicate();
+    while (byteBuffer.hasRemaining()) {
+      if (binaryShapeView.reset(byteBuffer).relate(query).intersects())
+        intersects++;
+      int length = byteBuffer.getInt(byteBuffer.position() + BinaryCodec.HEADER_SIZE - 4);//from the header
+      byteBuffer.position(byteBuffer.position() + BinaryCodec.HEADER_SIZE + length);
+    }
+    return intersects;
+  }
+
+  @Benchmark
+  public int binaryWriteShape() throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    for (Shape shape : shapes) {
+      binaryCodec.writeShape(out, shape);
+    }
+    return baos.size();
+  }
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.benchmark;
+
+import org.locationtech.spatial4j.SpatialJoin;
+import org.locationtech.spatial4j.SpatialPredicate;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.shape.Circle;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.jts.JtsGeometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relating the corpus' shapes against a fixed set of random query rectangles (or points, or circles) near them.
+ * Scores are per query rectangle (or point, or circle), which is related to every applicable shape in the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelateBenchmarks {
+
+  static final int NUM_RECTS = 1024;
+
+  @Param({Corpus.SAMPLES, Corpus.FIJI, Corpus.RUSSIA})
+  public String corpus;
+
+  /**
+   * How the geometries are indexed up front: not at all, {@link JtsGeometry#index()}, or that and
+   * {@link JtsGeometry#indexPointGrid()}.
+   */
+  @Param({"none", "prepared", "pointGrid"})
+  public String index;
+
+  private JtsGeometry[] geoms;
+  private Circle[] circles;
+  private Rectangle[] rects;
+  private Point[] points;
+  private Circle[] queryCircles;
+
+  @Setup
+  public void setup() throws Exception {
+    JtsSpatialContext ctx = Corpus.newGeoContext();
+    List<JtsGeometry> geomList = new ArrayList<>();
+    List<Circle> circleList = new ArrayList<>();
+    for (Shape shape : Corpus.readShapes(ctx, corpus)) {
+      if (shape instanceof JtsGeometry && shape.hasArea()) {
+        JtsGeometry geom = (JtsGeometry) shape;
+        if (!index.equals("none"))
+          geom.index();
+        if (index.equals("pointGrid"))
+          geom.indexPointGrid();
+        geomList.add(geom);
+      }
+      Rectangle bbox = shape.getBoundingBox();
+      double radius = Math.max(0.1, Math.min(bbox.getWidth(), bbox.getHeight()) / 2);
+      circleList.add(ctx.makeCircle(bbox.getCenter(), Math.min(radius, 45)));
+    }
+    geoms = geomList.toArray(new JtsGeometry[geomList.size()]);
+    circles = circleList.toArray(new Circle[circleList.size()]);
+
+    //random rectangles around the bounding boxes; a mix of all relationships
+    Random random = new Random(0);
+    rects = new Rectangle[NUM_RECTS];
+    points = new Point[NUM_RECTS];
+    queryCircles = new Circle[NUM_RECTS];
+    for (int i = 0; i < NUM_RECTS; i++) {
+      Shape near = circleList.get(i % circleList.size());
+      Rectangle bbox = near.getBoundingBox();
+      double w = Math.max(bbox.getWidth(), 0.01);
+      double h = Math.max(bbox.getHeight(), 0.01);
+      double x = bbox.getMinX() + (random.nextDouble() * 1.5 - 0.25) * w;
+      double y = bbox.getMinY() + (random.nextDouble() * 1.5 - 0.25) * h;
+      double rw = random.nextDouble() * w / 2;
+      double rh = random.nextDouble() * h / 2;
+      rects[i] = ctx.makeRectangle(
+          clampX(x), clampX(x + rw), clampY(y), clampY(y + rh));
+      points[i] = ctx.makePoint(clampX(x), clampY(y));
+      queryCircles[i] = ctx.makeCircle(points[i], Math.max(rw, rh));
+    }
+  }
+
+  private static double clampX(double x) {
+    return Math.max(-180, Math.min(180, x));
+  }
+
+  private static double clampY(double y) {
+    return Math.max(-90, Math.min(90, y));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECTS)
+  public void jtsGeometryRelateRect(Blackhole bh) {
+    for (JtsGeometry geom : geoms) {
+      for (Rectangle rect : rects) {
+        bh.consume(geom.relate(rect));
+      }
+    }
+  }
+
+  /** Like {@link #jtsGeometryRelateRect(Blackhole)} via the bulk API, which is parallel for a large corpus. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECTS)
+  public void jtsGeometryEvaluateAllRect(Blackhole bh) {
+    List<JtsGeometry> geomList = Arrays.asList(geoms);
+    BitSet out = new BitSet(geoms.length);
+    for (Rectangle rect : rects) {
+      SpatialPredicate.Intersects.evaluateAll(rect, geomList, out);
+      bh.consume(out.cardinality());
+    }
+  }
+
+  /** Every rectangle against every point; compare to {@link #rectPointJoin()}. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECTS)
+  public int rectPointNestedLoop() {
+    int count = 0;
+    for (Rectangle rect : rects) {
+      for (Point point : points) {
+        if (SpatialPredicate.Intersects.evaluate(rect, point))
+          count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECTS)
+  public int[] rectPointJoin() {
+    return SpatialJoin.join(Arrays.asList(rects), Arrays.asList(points), SpatialPredicate.Intersects);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECTS)
+  public void jtsGeometryRelatePoint(Blackhole bh) {
+    for (JtsGeometry geom : geoms) {
+      for (Point point : points) {
+        bh.consume(geom.relate(point));
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECTS)
+  public void jtsGeometryRelateCircle(Blackhole bh) {
+    for (JtsGeometry geom : geoms) {
+      for (Circle circle : queryCircles) {
+        bh.consume(geom.relate(circle));
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECTS)
+  public void geoCircleRelateRect(Blackhole bh) {
+    for (Circle circle : circles) {
+      for (Rectangle rect : rects) {
+        bh.consume(circle.relate(rect));
+      }
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j;
+
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.impl.BBoxIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Joins two lists of shapes on a {@link SpatialPredicate}: finds each pair of a shape and a query shape for which
+ * {@link SpatialPredicate#evaluate(Shape, Shape)} is true, without relating every pair. The bounding boxes of both
+ * lists are packed into Sort-Tile-Recursive R-Trees ({@link BBoxIndex}). Each partition of the shapes' tree is
+ * joined to the query shapes' tree with a plane sweep, yielding the candidate pairs with intersecting bounding
+ * boxes, which are then evaluated. Partitions are processed in parallel for large inputs. Bounding boxes crossing
+ * the dateline are split in two, yet each pair is found once.
+ * <p>
+ * The predicate must be false for shapes with disjoint bounding boxes, which all of the built-in ones are except
+ * {@link SpatialPredicate#IsDisjointTo}. The shapes must be safe to relate from multiple threads, as the built-in
+ * ones are.
+ */
+public class SpatialJoin {
+
+  private SpatialJoin() {
+  }
+
+  /**
+   * Joins the shapes to the query shapes on the predicate, in parallel on a shared {@link ForkJoinPool} if there
+   * are at least {@link SpatialPredicate#PARALLEL_THRESHOLD} of them in total.
+   *
+   * @return the pairs of indexes as consecutive ints: the shape's in {@code shapes}, then the query shape's in
+   * {@code queryShapes}. Sorted by the former then the latter.
+   */
+  public static int[] join(List<? extends Shape> shapes, List<? extends Shape> queryShapes,
+                           SpatialPredicate predicate) {
+    return join(shapes, queryShapes, predicate,
+        shapes.size() + queryShapes.size() >= SpatialPredicate.PARALLEL_THRESHOLD
+            ? SpatialPredicate.getSharedPool() : null);
+  }
+
+  /**
+   * Like {@link #join(List, List, SpatialPredicate)} but with the given pool, or on the calling thread if null.
+   */
+  public static int[] join(List<? extends Shape> shapes, List<? extends Shape> queryShapes,
+                           SpatialPredicate predicate, ForkJoinPool pool) {
+    if (predicate.resultIfBBoxesDisjoint() != Boolean.FALSE)
+      throw new IllegalArgumentException("Can't join on " + predicate
+          + " since it might be true for shapes with disjoint bounding boxes");
+    if (!(shapes instanceof RandomAccess))
+      shapes = new ArrayList<>(shapes);
+    if (!(queryShapes instanceof RandomAccess))
+      queryShapes = new ArrayList<>(queryShapes);
+
+    final BBoxIndex index = new BBoxIndex(shapes);
+    final BBoxIndex queryIndex = new BBoxIndex(queryShapes);
+    final int numPartitions = index.getNumPartitions();
+    final long[][] results = new long[numPartitions][];
+    final int grainSize = pool == null ? numPartitions : Math.max(1, numPartitions / (pool.getParallelism() * 8));
+    final JoinTask task = new JoinTask(predicate, shapes, queryShapes, index, queryIndex,
+        0, numPartitions, results, grainSize);
+    if (pool == null)
+      task.compute();
+    else
+      pool.invoke(task);
+
+    // Merge; each pair is the shape index in the high bits, so this sorts them
+    int numPairs = 0;
+    for (long[] partitionResult : results)
+      numPairs += partitionResult.length;
+    final long[] pairs = new long[numPairs];
+    numPairs = 0;
+    for (long[] partitionResult : results) {
+      System.arraycopy(partitionResult, 0, pairs, numPairs, partitionResult.length);
+      numPairs += partitionResult.length;
+    }
+    Arrays.sort(pairs);
+    final int[] result = new int[numPairs * 2];
+    for (int i = 0; i < numPairs; i++) {
+      result[i * 2] = (int) (pairs[i] >>> 32);
+      result[i * 2 + 1] = (int) pairs[i];
+    }
+    return result;
+  }
+
+  private static class JoinTask extends RecursiveAction implements BBoxIndex.PairCollector {
+    private final SpatialPredicate predicate;
+    private final List<? extends Shape> shapes, queryShapes;
+    private final BBoxIndex index, queryIndex;
+    private final int from, to;
+    private final long[][] results;
+    private final int grainSize;
+
+    // the pairs of the current partition
+    private long[] pairs;
+    private int numPairs;
+
+    JoinTask(SpatialPredicate predicate, List<? extends Shape> shapes, List<? extends Shape> queryShapes,
+             BBoxIndex index, BBoxIndex queryIndex, int from, int to, long[][] results, int grainSize) {
+      this.predicate = predicate;
+      this.shapes = shapes;
+      this.queryShapes = queryShapes;
+      this.index = index;
+      this.queryIndex = queryIndex;
+      this.from = from;
+      this.to = to;
+      this.results = results;
+      this.grainSize = grainSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > grainSize) {
+        final int mid = from + (to - from) / 2;
+        invokeAll(
+            new JoinTask(predicate, shapes, queryShapes, index, queryIndex, from, mid, results, grainSize),
+            new JoinTask(predicate, shapes, queryShapes, index, queryIndex, mid, to, results, grainSize));
+        return;
+      }
+      pairs = new long[16];
+      for (int partition = from; partition < to; partition++) {
+        numPairs = 0;
+        index.joinPartition(partition, queryIndex, this);
+        results[partition] = Arrays.copyOf(pairs, numPairs);
+      }
+    }
+
+    /** A candidate; evaluate it. */
+    @Override
+    public void collect(int id, int otherId) {
+      if (!predicate.evaluate(shapes.get(id), queryShapes.get(otherId)))
+        return;
+      if (numPairs == pairs.length)
+        pairs = Arrays.copyOf(pairs, numPairs * 2);
+      pairs[numPairs++] = ((long) id << 32) | otherId;
+    }
+  }
+}
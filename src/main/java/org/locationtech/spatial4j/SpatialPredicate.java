@@ -25,10 +25,14 @@ import org.locationtech.spatial4j.shape.SpatialRelation;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A predicate that compares a stored geometry to a supplied geometry. It's enum-like. For more
@@ -169,6 +173,130 @@ public abstract class SpatialPredicate implements Serializable {
    */
   public abstract boolean evaluate(Shape indexedShape, Shape queryShape);
 
+  /**
+   * Candidate lists at least this long are split across threads by
+   * {@link #evaluateAll(Shape, List, BitSet)}.
+   */
+  public static final int PARALLEL_THRESHOLD = 1024;
+
+  /**
+   * The pool for {@link #evaluateAll(Shape, List, BitSet)}, which is also the default of
+   * {@link org.locationtech.spatial4j.shape.jts.JtsShapeFactory#getParallelPool()}. It's sized to the number of
+   * processors and created on first use. Its threads are daemons.
+   */
+  public static ForkJoinPool getSharedPool() {
+    return SharedPool.POOL;
+  }
+
+  private static class SharedPool {
+    static final ForkJoinPool POOL = new ForkJoinPool();
+  }
+
+  /**
+   * Evaluates this predicate for each of the indexed shapes against one query shape, setting bit {@code i} of
+   * {@code out} if {@link #evaluate(Shape, Shape)} is true for {@code indexedShapes.get(i)}, and clearing it
+   * otherwise. The query's bounding box is computed once, and for the predicates here, candidates with a
+   * disjoint bounding box are decided from that alone. Lists of at least {@link #PARALLEL_THRESHOLD} shapes
+   * are split across a shared {@link ForkJoinPool} sized to the number of processors.
+   * <p>
+   * The shapes must be safe to relate from multiple threads, as the built-in ones are. The query shape is
+   * related to every candidate, so prepare it if it has a notion of that; for example a JtsGeometry's
+   * {@code index()} lets the candidate JtsGeometries use its prepared geometry.
+   */
+  public void evaluateAll(Shape queryShape, List<? extends Shape> indexedShapes, BitSet out) {
+    evaluateAll(queryShape, indexedShapes, out,
+        indexedShapes.size() >= PARALLEL_THRESHOLD ? getSharedPool() : null);
+  }
+
+  /**
+   * Like {@link #evaluateAll(Shape, List, BitSet)} but with the given pool, or on the calling thread if null.
+   */
+  public void evaluateAll(Shape queryShape, List<? extends Shape> indexedShapes, BitSet out, ForkJoinPool pool) {
+    if (!(indexedShapes instanceof RandomAccess))
+      indexedShapes = new ArrayList<>(indexedShapes);
+    final int size = indexedShapes.size();
+    final long[] words = new long[(size + 63) >>> 6];//each task owns whole words
+    final EvaluateTask task = new EvaluateTask(this, queryShape, queryShape.getBoundingBox(), indexedShapes,
+        0, size, words, pool == null ? size : grainSize(size, pool.getParallelism()));
+    if (pool == null)
+      task.compute();
+    else
+      pool.invoke(task);
+    out.clear(0, size);
+    out.or(BitSet.valueOf(words));
+  }
+
+  /** Enough tasks for load balancing, but not so many as to add much overhead; a multiple of 64. */
+  private static int grainSize(int size, int parallelism) {
+    final int grain = size / (parallelism * 8);
+    return Math.max(64, (grain + 63) & ~63);
+  }
+
+  /**
+   * The result of {@link #evaluate(Shape, Shape)} if the shapes' bounding boxes are disjoint, or null if it might
+   * depend on the shapes.
+   */
+  Boolean resultIfBBoxesDisjoint() {
+    if (this == IsDisjointTo)
+      return Boolean.TRUE;
+    if (is(this, BBoxIntersects, BBoxWithin, Contains, Intersects, IsEqualTo, IsWithin, Overlaps))
+      return Boolean.FALSE;
+    return null;//a subclass elsewhere
+  }
+
+  private static class EvaluateTask extends RecursiveAction {
+    private final SpatialPredicate predicate;
+    private final Shape queryShape;
+    private final Rectangle queryBBox;
+    private final List<? extends Shape> indexedShapes;
+    private final int from, to;
+    private final long[] words;
+    private final int grainSize;
+
+    EvaluateTask(SpatialPredicate predicate, Shape queryShape, Rectangle queryBBox,
+                 List<? extends Shape> indexedShapes, int from, int to, long[] words, int grainSize) {
+      this.predicate = predicate;
+      this.queryShape = queryShape;
+      this.queryBBox = queryBBox;
+      this.indexedShapes = indexedShapes;
+      this.from = from;
+      this.to = to;
+      this.words = words;
+      this.grainSize = grainSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= grainSize) {
+        evaluateRange();
+        return;
+      }
+      // from is a multiple of 64, and so is mid; it's less than to since there's more than 64
+      final int mid = from + (((to - from) / 2 + 63) & ~63);
+      invokeAll(
+          new EvaluateTask(predicate, queryShape, queryBBox, indexedShapes, from, mid, words, grainSize),
+          new EvaluateTask(predicate, queryShape, queryBBox, indexedShapes, mid, to, words, grainSize));
+    }
+
+    private void evaluateRange() {
+      final Boolean resultIfDisjoint = queryBBox.isEmpty() ? null : predicate.resultIfBBoxesDisjoint();
+      for (int i = from; i < to; i++) {
+        final Shape indexedShape = indexedShapes.get(i);
+        boolean result;
+        if (resultIfDisjoint != null && isBBoxDisjoint(indexedShape.getBoundingBox()))
+          result = resultIfDisjoint;
+        else
+          result = predicate.evaluate(indexedShape, queryShape);
+        if (result)
+          words[i >>> 6] |= 1L << i;
+      }
+    }
+
+    private boolean isBBoxDisjoint(Rectangle bbox) {
+      return !bbox.isEmpty() && !bbox.relate(queryBBox).intersects();
+    }
+  }
+
   public String getName() {
     return name;
   }
@@ -38,8 +38,13 @@ import java.util.*;
  * <DT>shapeFactoryClass</DT>
  * <DD>Java class of the {@link ShapeFactory}.</DD>
  * <DT>distCalculator</DT>
- * <DD>haversine | lawOfCosines | vincentySphere | cartesian | cartesian^2
- * -- see {@link DistanceCalculator}</DD>
+ * <DD>haversine | lawOfCosines | vincentySphere | fastHaversine | equirectangular | cartesian | cartesian^2
+ * -- see {@link DistanceCalculator}. fastHaversine and equirectangular are approximations
+ * -- see {@link GeodesicSphereDistCalc.FastHaversine} &amp; {@link GeodesicSphereDistCalc.Equirectangular}.
+ * Note that the calculator is used for every distance in the context, not just explicit distance calls: e.g.
+ * whether a point is in a circle, and the bounding box of a circle. So the approximation error applies to all of
+ * them. equirectangular is only accurate for distances of a few degrees away from the poles (it uses haversine
+ * beyond 3 degrees), so it suits contexts with only small circles in populated latitudes.</DD>
  * <DT>worldBounds</DT>
  * <DD>{@code ENVELOPE(xMin, xMax, yMax, yMin)} -- see {@link SpatialContext#getWorldBounds()}</DD>
  * <DT>normWrapLongitude</DT>
@@ -143,6 +148,8 @@ public class SpatialContextFactory {
         Object o;
         if (field.getType() == Boolean.TYPE) {
           o = Boolean.valueOf(str);
+        } else if (field.getType() == Integer.TYPE) {
+          o = Integer.valueOf(str);
         } else if (field.getType() == Class.class) {
           try {
             o = classLoader.loadClass(str);
@@ -174,6 +181,10 @@ public class SpatialContextFactory {
       distCalc = new GeodesicSphereDistCalc.LawOfCosines();
     } else if (calcStr.equalsIgnoreCase("vincentySphere")) {
       distCalc = new GeodesicSphereDistCalc.Vincenty();
+    } else if (calcStr.equalsIgnoreCase("fastHaversine")) {
+      distCalc = new GeodesicSphereDistCalc.FastHaversine();
+    } else if (calcStr.equalsIgnoreCase("equirectangular")) {
+      distCalc = new GeodesicSphereDistCalc.Equirectangular();
     } else if (calcStr.equalsIgnoreCase("cartesian")) {
       distCalc = new CartesianDistCalc();
     } else if (calcStr.equalsIgnoreCase("cartesian^2")) {
@@ -20,8 +20,10 @@ import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.PrecisionModel;
 import com.vividsolutions.jts.geom.impl.CoordinateArraySequenceFactory;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
 
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * See {@link SpatialContextFactory#makeSpatialContext(java.util.Map, ClassLoader)}.
@@ -37,13 +39,32 @@ import java.util.Map;
  *  -- see {@link ValidationRule}</DD>
  * <DT>autoIndex</DT>
  * <DD>true|false(default) -- see {@link JtsShapeFactory#isAutoIndex()}</DD>
+ * <DT>autoIndexPointGrid</DT>
+ * <DD>true|false(default) -- see {@link JtsShapeFactory#isAutoIndexPointGrid()}</DD>
+ * <DT>autoIndexThreshold</DT>
+ * <DD>0(default, disabled) or the number of relate calls after which a geometry is prepared
+ *  -- see {@link JtsShapeFactory#getAutoIndexThreshold()}</DD>
+ * <DT>autoIndexCacheSize</DT>
+ * <DD>1000(default) -- the maximum number of adaptively prepared geometries
+ *  -- see {@link org.locationtech.spatial4j.shape.jts.PreparedGeometryCache}</DD>
  * <DT>allowMultiOverlap</DT>
  * <DD>true|false(default) -- see {@link JtsSpatialContext#isAllowMultiOverlap()}</DD>
+ * <DT>parallelThreshold</DT>
+ * <DD>0(default, disabled) or the number of vertices from which a geometry's union and dateline cutting run in
+ *  parallel -- see {@link JtsShapeFactory#getParallelThreshold()}</DD>
  * <DT>precisionModel</DT>
  * <DD>floating(default) | floating_single | fixed
  *  -- see {@link com.vividsolutions.jts.geom.PrecisionModel}.
  * If {@code fixed} then you must also provide {@code precisionScale}
  *  -- see {@link com.vividsolutions.jts.geom.PrecisionModel#getScale()}</DD>
+ * <DT>binaryCodecDelta</DT>
+ * <DD>true|false(default) -- whether {@link JtsBinaryCodec} writes geometries compactly as rounded deltas instead
+ *  of WKB; requires a {@code fixed} precisionModel. Both are read either way.</DD>
+ * <DT>coordinateSequence</DT>
+ * <DD>array(default) | packed
+ *  -- the {@link CoordinateSequenceFactory}; {@code packed} stores each geometry's coordinates in one
+ * {@code double[]} instead of a {@link com.vividsolutions.jts.geom.Coordinate} per vertex
+ *  -- see {@link PackedCoordinateSequenceFactory}.</DD>
  * <DT>useJtsPoint, useJtsLineString, useJtsMulti</DT>
  * <DD>All default to true. See corresponding methods on {@link JtsShapeFactory}.</DD>
  * </DL>
@@ -56,13 +77,19 @@ public class JtsSpatialContextFactory extends SpatialContextFactory {
   public PrecisionModel precisionModel = defaultPrecisionModel;
   public int srid = 0;
   public CoordinateSequenceFactory coordinateSequenceFactory = CoordinateArraySequenceFactory.instance();
+  public boolean binaryCodecDelta = false;//requires a fixed precisionModel
 
   //ignored if geo=false
   public DatelineRule datelineRule = DatelineRule.width180;
 
   public ValidationRule validationRule = ValidationRule.error;
   public boolean autoIndex = false;
+  public boolean autoIndexPointGrid = false;
+  public int autoIndexThreshold = 0;//disabled
+  public int autoIndexCacheSize = 1000;//ignored if autoIndexThreshold is disabled
   public boolean allowMultiOverlap = false;//ignored if geo=false
+  public int parallelThreshold = 0;//disabled
+  public ForkJoinPool parallelPool = null;//null means SpatialPredicate.getSharedPool(); not settable by init()
 
   //kinda advanced options:
   public boolean useJtsPoint = true;
@@ -97,11 +124,27 @@ public class JtsSpatialContextFactory extends SpatialContextFactory {
     initField("datelineRule");
     initField("validationRule");
     initField("autoIndex");
+    initField("autoIndexPointGrid");
+    initField("autoIndexThreshold");
+    initField("autoIndexCacheSize");
     initField("allowMultiOverlap");
+    initField("parallelThreshold");
+    initField("binaryCodecDelta");
     initField("useJtsPoint");
     initField("useJtsLineString");
     initField("useJtsMulti");
 
+    String csStr = args.get("coordinateSequence");
+    if (csStr != null) {
+      if (csStr.equals("array")) {
+        coordinateSequenceFactory = CoordinateArraySequenceFactory.instance();
+      } else if (csStr.equals("packed")) {
+        coordinateSequenceFactory = PackedCoordinateSequenceFactory.DOUBLE_FACTORY;
+      } else {
+        throw new RuntimeException("Unknown coordinateSequence: "+csStr);
+      }
+    }
+
     String scaleStr = args.get("precisionScale");
     String modelStr = args.get("precisionModel");
 
@@ -19,11 +19,50 @@ public abstract class AbstractDistanceCalculator implements DistanceCalculator {
     return distance(from, to.getX(), to.getY());
   }
 
+  @Override
+  public void distances(Point from, double[] xs, double[] ys, double[] out, int off, int len) {
+    final int end = off + len;
+    for (int i = off; i < end; i++) {
+      out[i] = distance(from, xs[i], ys[i]);
+    }
+  }
+
   @Override
   public boolean within(Point from, double toX, double toY, double distance) {
     return distance(from, toX, toY) <= distance;
   }
 
+  @Override
+  public PreparedDistance prepare(Point from) {
+    return new DelegatingPreparedDistance(this, from);
+  }
+
+  /** Calls back to the calculator; for calculators with nothing to compute ahead of time. */
+  protected static class DelegatingPreparedDistance implements PreparedDistance {
+    protected final DistanceCalculator calc;
+    protected final Point from;
+
+    public DelegatingPreparedDistance(DistanceCalculator calc, Point from) {
+      this.calc = calc;
+      this.from = from;
+    }
+
+    @Override
+    public Point getFrom() {
+      return from;
+    }
+
+    @Override
+    public double distance(double toX, double toY) {
+      return calc.distance(from, toX, toY);
+    }
+
+    @Override
+    public boolean within(double toX, double toY, double distance) {
+      return calc.within(from, toX, toY, distance);
+    }
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName();
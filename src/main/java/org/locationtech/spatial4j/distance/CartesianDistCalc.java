@@ -47,6 +47,45 @@ public class CartesianDistCalc extends AbstractDistanceCalculator {
     return Math.sqrt(xSquaredPlusYSquared);
   }
 
+  @Override
+  public void distances(Point from, double[] xs, double[] ys, double[] out, int off, int len) {
+    final double fromX = from.getX();
+    final double fromY = from.getY();
+    final int end = off + len;
+    if (squared) {
+      for (int i = off; i < end; i++) {
+        out[i] = distanceSquared(fromX, fromY, xs[i], ys[i]);
+      }
+    } else {
+      for (int i = off; i < end; i++) {
+        out[i] = Math.sqrt(distanceSquared(fromX, fromY, xs[i], ys[i]));
+      }
+    }
+  }
+
+  @Override
+  public PreparedDistance prepare(final Point from) {
+    final double fromX = from.getX();
+    final double fromY = from.getY();
+    return new PreparedDistance() {
+      @Override
+      public Point getFrom() {
+        return from;
+      }
+
+      @Override
+      public double distance(double toX, double toY) {
+        double xSquaredPlusYSquared = distanceSquared(fromX, fromY, toX, toY);
+        return squared ? xSquaredPlusYSquared : Math.sqrt(xSquaredPlusYSquared);
+      }
+
+      @Override
+      public boolean within(double toX, double toY, double distance) {
+        return distanceSquared(fromX, fromY, toX, toY) <= distance*distance;
+      }
+    };
+  }
+
   private static double distanceSquared(double fromX, double fromY, double toX, double toY) {
     double deltaX = fromX - toX;
     double deltaY = fromY - toY;
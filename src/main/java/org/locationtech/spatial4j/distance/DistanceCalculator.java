@@ -26,9 +26,24 @@ public interface DistanceCalculator {
   /** The distance between <code>from</code> and <code>Point(toX,toY)</code>. */
   public double distance(Point from, double toX, double toY);
 
+  /**
+   * The distances between <code>from</code> and each <code>Point(xs[i],ys[i])</code>, written to
+   * <code>out[i]</code> for <code>i</code> from <code>off</code> (inclusive) to <code>off+len</code>
+   * (exclusive).  Each result is the same as what {@link #distance(Point, double, double)} returns,
+   * but implementations compute whatever depends only on <code>from</code> once for the batch.
+   * Useful when sorting many points by distance.
+   */
+  public void distances(Point from, double[] xs, double[] ys, double[] out, int off, int len);
+
   /** Returns true if the distance between from and to is &lt;= distance. */
   public boolean within(Point from, double toX, double toY, double distance);
 
+  /**
+   * Prepares to compute distances from <code>from</code> to many points, computing whatever depends only on
+   * <code>from</code> once.
+   */
+  public PreparedDistance prepare(Point from);
+
   /**
    * Calculates where a destination point is given an origin (<code>from</code>)
    * distance, and bearing (given in degrees -- 0-360).  If reuse is given, then
@@ -472,6 +472,115 @@ public class DistanceUtils {
     return Math.atan2(Math.sqrt(a*a+b*b),c);
   }
 
+  /**
+   * An approximation of {@link #distHaversineRAD(double, double, double, double)} using polynomials instead of
+   * {@link Math#sin(double)}, {@link Math#cos(double)} and {@link Math#atan2(double, double)}. The relative error
+   * is less than 1e-4 (0.01%) for any pair of points, and less than 1e-7 unless they are nearly antipodal, where
+   * the haversine formula is poorly conditioned.
+   * <p>
+   * The arguments are in radians, and the result is in radians.
+   */
+  public static double distHaversineFastRAD(double lat1, double lon1, double lat2, double lon2) {
+    if (lat1 == lat2 && lon1 == lon2)
+      return 0.0;
+    return haversineFastRAD(lat1, cosFastRAD(lat1), lat2, lon2 - lon1);
+  }
+
+  /** The haversine formula given the cosine of lat1; lon2 and lon1 are given as their difference. */
+  static double haversineFastRAD(double lat1, double cosLat1, double lat2, double dLon) {
+    double hsinX = sinSquaredFastRAD(dLon * 0.5);
+    double hsinY = sinSquaredFastRAD((lat2 - lat1) * 0.5);
+    double h = hsinY + cosLat1 * cosFastRAD(lat2) * hsinX;
+    if (h > 1)
+      h = 1;
+    // 2 * atan2(sqrt(h), sqrt(1 - h)) is twice the angle whose sine is sqrt(h) & cosine is sqrt(1 - h)
+    double sin = Math.sqrt(h);
+    double cos = Math.sqrt(1 - h);
+    if (sin <= cos)
+      return 2 * asinFastRAD(sin, cos);
+    return Math.PI - 2 * asinFastRAD(cos, sin);
+  }
+
+  /** The square of the sine of any angle. */
+  private static double sinSquaredFastRAD(double x) {
+    x = Math.abs(x);//sin^2 is even, and periodic every PI
+    if (x > Math.PI)
+      x -= Math.PI * Math.rint(x / Math.PI);
+    if (x > DEG_90_AS_RADS)
+      x = Math.PI - x;
+    double sin = sinFastRAD(x);
+    return sin * sin;
+  }
+
+  /** The cosine of a latitude (-PI/2 to PI/2); the relative error is less than 1e-9. */
+  static double cosFastRAD(double lat) {
+    return sinFastRAD(DEG_90_AS_RADS - Math.abs(lat));
+  }
+
+  /**
+   * The sine of an angle from -PI/2 to PI/2, by its Taylor series to the 13th power. The relative error is less
+   * than 1e-9.
+   */
+  private static double sinFastRAD(double x) {
+    double x2 = x * x;
+    return x * (1 + x2 * (-1 / 6.0 + x2 * (1 / 120.0 + x2 * (-1 / 5040.0 + x2 * (1 / 362880.0
+        + x2 * (-1 / 39916800.0 + x2 * (1 / 6227020800.0)))))));
+  }
+
+  /**
+   * The angle whose sine is {@code sin} and cosine is {@code cos}, which must be from 0 to 45 degrees
+   * ({@code sin <= cos}). Its half's sine is at most sin(PI/8), for which the Taylor series of asin converges fast.
+   */
+  private static double asinFastRAD(double sin, double cos) {
+    double x = sin / Math.sqrt(2 * (1 + cos));//the sine of half the angle
+    double x2 = x * x;
+    return 2 * x * (1 + x2 * (1 / 6.0 + x2 * (3 / 40.0 + x2 * (5 / 112.0 + x2 * (35 / 1152.0
+        + x2 * (63 / 2816.0 + x2 * (231 / 13312.0)))))));
+  }
+
+  private static final int COS_TABLE_SIZE = 1024;
+  private static final double COS_TABLE_SCALE = COS_TABLE_SIZE / DEG_90_AS_RADS;
+  private static final double[] COS_TABLE = new double[COS_TABLE_SIZE + 2];//cos of 0 to 90 degrees, & one past
+  static {
+    for (int i = 0; i < COS_TABLE.length; i++)
+      COS_TABLE[i] = Math.cos(i / COS_TABLE_SCALE);
+  }
+
+  /**
+   * An approximation of the great circle distance that treats the points as on a plane, scaling the longitude
+   * difference by the cosine of the mean latitude, which is looked up in a table. It's only for short distances
+   * away from the poles: for points between latitudes -80 and 80, the relative error is less than 0.1% if they
+   * are less than 1 degree apart, and less than 1% if less than 3 degrees apart. Beyond 3 degrees, where the
+   * error would grow quickly (the planar distance can even exceed PI), this returns
+   * {@link #distHaversineRAD(double, double, double, double)} instead.
+   * <p>
+   * The arguments are in radians, and the result is in radians.
+   */
+  public static double distEquirectangularRAD(double lat1, double lon1, double lat2, double lon2) {
+    double dLon = lon2 - lon1;
+    if (dLon > Math.PI)//the shorter way around
+      dLon -= 2 * Math.PI;
+    else if (dLon < -Math.PI)
+      dLon += 2 * Math.PI;
+    double x = dLon * cosTableRAD((lat1 + lat2) * 0.5);
+    double y = lat2 - lat1;
+    double distSq = x * x + y * y;
+    if (distSq > EQUIRECTANGULAR_MAX_RAD * EQUIRECTANGULAR_MAX_RAD)
+      return distHaversineRAD(lat1, lon1, lat2, lon2);
+    return Math.sqrt(distSq);
+  }
+
+  /** Beyond this, {@link #distEquirectangularRAD(double, double, double, double)} isn't planar. */
+  private static final double EQUIRECTANGULAR_MAX_RAD = 3 * DEGREES_TO_RADIANS;
+
+  /** The cosine of a latitude (-PI/2 to PI/2) by linear interpolation in a table. */
+  private static double cosTableRAD(double lat) {
+    double pos = Math.min(Math.abs(lat), DEG_90_AS_RADS) * COS_TABLE_SCALE;
+    int i = (int) pos;
+    double frac = pos - i;
+    return COS_TABLE[i] + (COS_TABLE[i + 1] - COS_TABLE[i]) * frac;
+  }
+
   /**
    * Converts a distance in the units of the radius to degrees (360 degrees are
    * in a circle). A spherical earth model is assumed.
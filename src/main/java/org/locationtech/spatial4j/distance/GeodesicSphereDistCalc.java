@@ -83,8 +83,79 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
     return toDegrees(distanceLatLonRAD(toRadians(from.getY()), toRadians(from.getX()), toRadians(toY), toRadians(toX)));
   }
 
+  @Override
+  public final void distances(Point from, double[] xs, double[] ys, double[] out, int off, int len) {
+    final PreparedDistance prepared = prepare(from);
+    final int end = off + len;
+    for (int i = off; i < end; i++) {
+      out[i] = prepared.distance(xs[i], ys[i]);
+    }
+  }
+
+  @Override
+  public abstract PreparedSphereDistance prepare(Point from);
+
   protected abstract double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2);
 
+  /**
+   * Distances from an origin whose latitude's sine &amp; cosine are computed once. Subclasses mirror their
+   * calculator's formula exactly (same results), and compare {@link #within(double, double, double)} against a
+   * bound on an intermediate value of it, computed once per distance, skipping the final inverse trigonometry.
+   */
+  protected abstract static class PreparedSphereDistance implements PreparedDistance {
+    protected final Point from;
+    protected final double lat1, lon1;
+    protected final double sinLat1, cosLat1;
+    private double boundDistDEG = Double.NaN;//the distance bound is for
+    private double bound;
+
+    protected PreparedSphereDistance(Point from) {
+      this.from = from;
+      this.lat1 = toRadians(from.getY());
+      this.lon1 = toRadians(from.getX());
+      this.sinLat1 = Math.sin(lat1);
+      this.cosLat1 = Math.cos(lat1);
+    }
+
+    @Override
+    public Point getFrom() {
+      return from;
+    }
+
+    @Override
+    public final double distance(double toX, double toY) {
+      double lat2 = toRadians(toY);
+      double lon2 = toRadians(toX);
+      if (lat1 == lat2 && lon1 == lon2)
+        return 0.0;
+      return toDegrees(distanceRAD(lat2, lon2));
+    }
+
+    @Override
+    public final boolean within(double toX, double toY, double distance) {
+      if (!(distance >= 0))
+        return false;
+      double lat2 = toRadians(toY);
+      double lon2 = toRadians(toX);
+      if (lat1 == lat2 && lon1 == lon2)
+        return true;
+      if (distance != boundDistDEG) {
+        bound = bound(toRadians(distance));
+        boundDistDEG = distance;
+      }
+      return isWithin(lat2, lon2, bound);
+    }
+
+    /** The distance to a point in radians that isn't the origin. */
+    protected abstract double distanceRAD(double lat2, double lon2);
+
+    /** The bound passed to {@link #isWithin(double, double, double)} for a distance &gt;= 0. */
+    protected abstract double bound(double distRAD);
+
+    /** If the distance to a point in radians that isn't the origin is within the distance of the bound. */
+    protected abstract boolean isWithin(double lat2, double lon2, double bound);
+  }
+
   public static class Haversine extends GeodesicSphereDistCalc {
 
     @Override
@@ -92,6 +163,41 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
       return DistanceUtils.distHaversineRAD(lat1,lon1,lat2,lon2);
     }
 
+    // Mirrors DistanceUtils.distHaversineRAD exactly (same results), with cos(lat1) hoisted.
+    // within() compares the haversine h (the square of half the chord length) to that of the distance.
+    @Override
+    public PreparedSphereDistance prepare(Point from) {
+      return new PreparedSphereDistance(from) {
+        @Override
+        protected double distanceRAD(double lat2, double lon2) {
+          double h = h(lat2, lon2);
+          if (h > 1)
+            h = 1;
+          return 2 * Math.atan2(Math.sqrt(h), Math.sqrt(1 - h));
+        }
+
+        @Override
+        protected double bound(double distRAD) {
+          if (distRAD >= Math.PI)
+            return Double.POSITIVE_INFINITY;
+          double hsin = Math.sin(distRAD * 0.5);
+          return hsin * hsin;
+        }
+
+        @Override
+        protected boolean isWithin(double lat2, double lon2, double bound) {
+          return h(lat2, lon2) <= bound;
+        }
+
+        private double h(double lat2, double lon2) {
+          double hsinX = Math.sin((lon1 - lon2) * 0.5);
+          double hsinY = Math.sin((lat1 - lat2) * 0.5);
+          return hsinY * hsinY +
+                  (cosLat1 * Math.cos(lat2) * hsinX * hsinX);
+        }
+      };
+    }
+
   }
 
   public static class LawOfCosines extends GeodesicSphereDistCalc {
@@ -101,6 +207,39 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
       return DistanceUtils.distLawOfCosinesRAD(lat1, lon1, lat2, lon2);
     }
 
+    // Mirrors DistanceUtils.distLawOfCosinesRAD exactly (same results), with sin & cos of lat1 hoisted.
+    // within() compares the cosine of the distance instead.
+    @Override
+    public PreparedSphereDistance prepare(Point from) {
+      return new PreparedSphereDistance(from) {
+        @Override
+        protected double distanceRAD(double lat2, double lon2) {
+          double cosB = cosB(lat2, lon2);
+          if (cosB < -1.0)
+            return Math.PI;
+          else if (cosB >= 1.0)
+            return 0;
+          else
+            return Math.acos(cosB);
+        }
+
+        @Override
+        protected double bound(double distRAD) {
+          return distRAD >= Math.PI ? Double.NEGATIVE_INFINITY : Math.cos(distRAD);
+        }
+
+        @Override
+        protected boolean isWithin(double lat2, double lon2, double bound) {
+          return cosB(lat2, lon2) >= bound;
+        }
+
+        private double cosB(double lat2, double lon2) {
+          return (sinLat1 * Math.sin(lat2))
+                  + (cosLat1 * Math.cos(lat2) * Math.cos(lon2 - lon1));
+        }
+      };
+    }
+
   }
 
   public static class Vincenty extends GeodesicSphereDistCalc {
@@ -109,5 +248,129 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
     protected double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2) {
       return DistanceUtils.distVincentyRAD(lat1, lon1, lat2, lon2);
     }
+
+    // Mirrors DistanceUtils.distVincentyRAD exactly (same results), with sin & cos of lat1 hoisted.
+    // within() compares the squared tangent of the distance instead, which is as precise as atan2 near 0.
+    @Override
+    public PreparedSphereDistance prepare(Point from) {
+      return new PreparedSphereDistance(from) {
+        @Override
+        protected double distanceRAD(double lat2, double lon2) {
+          double cosLat2 = Math.cos(lat2);
+          double sinLat2 = Math.sin(lat2);
+          double dLon = lon2 - lon1;
+          double cosDLon = Math.cos(dLon);
+          double sinDLon = Math.sin(dLon);
+
+          double a = cosLat2 * sinDLon;
+          double b = cosLat1*sinLat2 - sinLat1*cosLat2*cosDLon;
+          double c = sinLat1*sinLat2 + cosLat1*cosLat2*cosDLon;
+
+          return Math.atan2(Math.sqrt(a*a+b*b),c);
+        }
+
+        // tan^2 of the distance if <= 90 degrees, else -tan^2 of its supplement
+        @Override
+        protected double bound(double distRAD) {
+          if (distRAD >= Math.PI)
+            return Double.NEGATIVE_INFINITY;
+          if (distRAD <= Math.PI / 2) {
+            double tan = Math.tan(distRAD);
+            return tan * tan;
+          }
+          double tan = Math.tan(Math.PI - distRAD);
+          return -(tan * tan);
+        }
+
+        @Override
+        protected boolean isWithin(double lat2, double lon2, double bound) {
+          if (bound == Double.NEGATIVE_INFINITY)
+            return true;
+          double cosLat2 = Math.cos(lat2);
+          double sinLat2 = Math.sin(lat2);
+          double dLon = lon2 - lon1;
+          double cosDLon = Math.cos(dLon);
+          double sinDLon = Math.sin(dLon);
+
+          double a = cosLat2 * sinDLon;
+          double b = cosLat1*sinLat2 - sinLat1*cosLat2*cosDLon;
+          double c = sinLat1*sinLat2 + cosLat1*cosLat2*cosDLon;
+
+          // atan2(sqrt(a*a+b*b), c) <= distRAD
+          if (bound >= 0)
+            return c > 0 && a*a+b*b <= c*c*bound;
+          return c >= 0 || a*a+b*b >= c*c*-bound;
+        }
+      };
+    }
+  }
+
+  /**
+   * An approximation of {@link Haversine} that's several times faster, for ranking and coarse filtering.
+   *
+   * @see DistanceUtils#distHaversineFastRAD(double, double, double, double) for the error.
+   */
+  public static class FastHaversine extends GeodesicSphereDistCalc {
+
+    @Override
+    protected double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2) {
+      return DistanceUtils.distHaversineFastRAD(lat1, lon1, lat2, lon2);
+    }
+
+    // Mirrors DistanceUtils.distHaversineFastRAD exactly (same results), with cos(lat1) hoisted.
+    @Override
+    public PreparedSphereDistance prepare(Point from) {
+      return new PreparedSphereDistance(from) {
+        final double cosLat1Fast = DistanceUtils.cosFastRAD(lat1);
+
+        @Override
+        protected double distanceRAD(double lat2, double lon2) {
+          return DistanceUtils.haversineFastRAD(lat1, cosLat1Fast, lat2, lon2 - lon1);
+        }
+
+        @Override
+        protected double bound(double distRAD) {
+          return distRAD;
+        }
+
+        @Override
+        protected boolean isWithin(double lat2, double lon2, double bound) {
+          return distanceRAD(lat2, lon2) <= bound;
+        }
+      };
+    }
+  }
+
+  /**
+   * An approximation for short distances away from the poles that treats the points as on a plane; the fastest.
+   *
+   * @see DistanceUtils#distEquirectangularRAD(double, double, double, double) for the error.
+   */
+  public static class Equirectangular extends GeodesicSphereDistCalc {
+
+    @Override
+    protected double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2) {
+      return DistanceUtils.distEquirectangularRAD(lat1, lon1, lat2, lon2);
+    }
+
+    @Override
+    public PreparedSphereDistance prepare(Point from) {
+      return new PreparedSphereDistance(from) {
+        @Override
+        protected double distanceRAD(double lat2, double lon2) {
+          return DistanceUtils.distEquirectangularRAD(lat1, lon1, lat2, lon2);
+        }
+
+        @Override
+        protected double bound(double distRAD) {
+          return distRAD;
+        }
+
+        @Override
+        protected boolean isWithin(double lat2, double lon2, double bound) {
+          return distanceRAD(lat2, lon2) <= bound;
+        }
+      };
+    }
   }
 }
@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.distance;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.impl.RectangleImpl;
+import org.locationtech.spatial4j.shape.impl.StrPacker;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An in-memory index of points for finding the k nearest to a given point, by the context's
+ * {@link DistanceCalculator}. The points are packed into a static R-Tree with the Sort-Tile-Recursive (STR)
+ * algorithm, which is searched best-first. Once k points have been found, subtrees outside of
+ * {@link DistanceCalculator#calcBoxByDistFromPt(Point, double, SpatialContext, Rectangle)} of the k-th distance are
+ * pruned; that box accounts for the dateline and the poles when geodetic. Points are identified by their index
+ * as given. It's immutable and thus thread-safe.
+ */
+public class PointIndex {
+
+  static final int NODE_CAPACITY = StrPacker.NODE_CAPACITY;
+
+  private final SpatialContext ctx;
+  private final DistanceCalculator calc;
+  private final boolean squared;//distances are squared; the box needs the square root
+
+  // The points in leaf order
+  private final double[] xs, ys;
+  private final int[] ids;
+
+  // Each level of nodes is stored in flat arrays, from the parents of the points (level 0) up to the root.
+  /** Per level, 4 doubles per node: minX, maxX, minY, maxY. */
+  private final double[][] levelBounds;
+  /** Per level, 2 ints per node: the range of its children in the level below, or of the points for level 0. */
+  private final int[][] levelChildren;
+
+  /** Indexes the points; their ids are their indexes in the list. */
+  public PointIndex(SpatialContext ctx, List<? extends Point> points) {
+    this(ctx, xsOf(points), ysOf(points));
+  }
+
+  /**
+   * Indexes the points given as coordinate arrays of equal length; their ids are their indexes in the arrays. The
+   * arrays are not retained.
+   */
+  public PointIndex(SpatialContext ctx, double[] xs, double[] ys) {
+    if (xs.length != ys.length)
+      throw new IllegalArgumentException("xs and ys lengths differ: " + xs.length + " != " + ys.length);
+    this.ctx = ctx;
+    this.calc = ctx.getDistCalc();
+    this.squared = calc.equals(CartesianDistCalc.INSTANCE_SQUARED);
+    final int size = xs.length;
+    final double[] pointBounds = new double[size * 4];
+    for (int i = 0; i < size; i++) {
+      if (Double.isNaN(xs[i]) || Double.isNaN(ys[i]))
+        throw new IllegalArgumentException("Point " + i + " is empty");
+      StrPacker.setBounds(pointBounds, i, xs[i], xs[i], ys[i], ys[i]);
+    }
+    // Points, in STR order
+    int[] order = StrPacker.strOrder(pointBounds, size);
+    this.xs = new double[size];
+    this.ys = new double[size];
+    this.ids = order;
+    for (int i = 0; i < size; i++) {
+      this.xs[i] = xs[order[i]];
+      this.ys[i] = ys[order[i]];
+    }
+
+    // Group each level's consecutive nodes (or points) into parents, then put the parents in STR order
+    double[] pointsInOrder = new double[size * 4];
+    for (int i = 0; i < size; i++)
+      StrPacker.setBounds(pointsInOrder, i, this.xs[i], this.xs[i], this.ys[i], this.ys[i]);
+    StrPacker.Levels levels = StrPacker.packParents(pointsInOrder, size);
+    this.levelBounds = levels.bounds;
+    this.levelChildren = levels.children;
+  }
+
+  private static double[] xsOf(List<? extends Point> points) {
+    double[] xs = new double[points.size()];
+    for (int i = 0; i < xs.length; i++)
+      xs[i] = points.get(i).getX();
+    return xs;
+  }
+
+  private static double[] ysOf(List<? extends Point> points) {
+    double[] ys = new double[points.size()];
+    for (int i = 0; i < ys.length; i++)
+      ys[i] = points.get(i).getY();
+    return ys;
+  }
+
+  public SpatialContext getContext() {
+    return ctx;
+  }
+
+  /** The number of points. */
+  public int size() {
+    return ids.length;
+  }
+
+  /** Calls {@link #nearest(Point, int, double[])} without distances. */
+  public int[] nearest(Point from, int k) {
+    return nearest(from, k, null);
+  }
+
+  /**
+   * Finds the {@code k} points nearest to {@code from} (or all of them if there are fewer), returning their ids
+   * ordered by distance then id.
+   *
+   * @param distances if not null, receives the distances of the results, in the same order
+   */
+  public int[] nearest(Point from, int k, double[] distances) {
+    k = Math.min(k, ids.length);
+    if (k <= 0)
+      return new int[0];
+    final boolean geo = ctx.isGeo();
+    final double fromX = from.getX(), fromY = from.getY();
+    // The best k so far, as a max-heap on (distance, id)
+    final double[] resultDists = new double[k];
+    final int[] resultIds = new int[k];
+    int numResults = 0;
+    // Nodes to visit, as a min-heap on an estimate of the distance (a lower bound if not geo)
+    NodeQueue queue = new NodeQueue();
+    queue.add(0, levelBounds.length - 1, 0);
+    Rectangle box = null;//within the k-th distance, once there are k results
+    while (queue.size > 0) {
+      final double estimate = queue.priorities[0];
+      final int level = queue.levels[0], node = queue.nodes[0];
+      queue.removeTop();
+      if (numResults == k && !geo && estimate > resultDists[0])
+        break;//the estimate is a lower bound; nothing remaining is closer
+      final double[] bounds = levelBounds[level];
+      if (box != null && !intersects(box, bounds, node, geo))
+        continue;
+      final int[] children = levelChildren[level];
+      final int from0 = children[node * 2], to = children[node * 2 + 1];
+      if (level == 0) {
+        boolean changed = false;
+        for (int i = from0; i < to; i++) {
+          final double dist = calc.distance(from, xs[i], ys[i]);
+          if (numResults < k) {
+            resultDists[numResults] = dist;
+            resultIds[numResults] = ids[i];
+            siftUp(resultDists, resultIds, numResults++);
+            changed = numResults == k;
+          } else if (isBefore(dist, ids[i], resultDists[0], resultIds[0])) {
+            resultDists[0] = dist;
+            resultIds[0] = ids[i];
+            siftDown(resultDists, resultIds, 0, k);
+            changed = true;
+          }
+        }
+        if (changed) {
+          // padded slightly so that rounding in computing the box can't exclude an equally near point
+          final double boxDist = (squared ? Math.sqrt(resultDists[0]) : resultDists[0]) * (1 + 1e-9);
+          if (box == null)
+            box = new RectangleImpl(fromX, fromX, fromY, fromY, ctx);
+          box = calc.calcBoxByDistFromPt(from, boxDist, ctx, box);
+        }
+      } else {
+        final double[] childBounds = levelBounds[level - 1];
+        for (int c = from0; c < to; c++) {
+          if (box != null && !intersects(box, childBounds, c, geo))
+            continue;
+          queue.add(estimateDistance(from, childBounds, c, geo), level - 1, c);
+        }
+      }
+    }
+
+    // Sort ascending by removing the max repeatedly
+    for (int size = k - 1; size > 0; size--) {
+      swap(resultDists, resultIds, 0, size);
+      siftDown(resultDists, resultIds, 0, size);
+    }
+    if (distances != null)
+      System.arraycopy(resultDists, 0, distances, 0, k);
+    return resultIds;
+  }
+
+  /**
+   * The distance to the point in the node's bounds nearest to {@code from} as if on a plane (with wrap-around
+   * if geo). On a sphere it's not necessarily the nearest point, but it's a good estimate for ordering.
+   */
+  private double estimateDistance(Point from, double[] bounds, int node, boolean geo) {
+    final double minX = bounds[node * 4], maxX = bounds[node * 4 + 1];
+    final double y = Math.max(bounds[node * 4 + 2], Math.min(bounds[node * 4 + 3], from.getY()));
+    double x = from.getX();
+    if (x < minX || x > maxX) {
+      if (geo) {// whichever edge is nearer, going either way around
+        x = wrapDistance(x, minX) <= wrapDistance(x, maxX) ? minX : maxX;
+      } else {
+        x = x < minX ? minX : maxX;
+      }
+    }
+    return calc.distance(from, x, y);
+  }
+
+  private static double wrapDistance(double x1, double x2) {
+    final double d = Math.abs(x1 - x2);
+    return Math.min(d, 360 - d);
+  }
+
+  /** Whether the box intersects the node's bounds; the box might cross the dateline. */
+  private static boolean intersects(Rectangle box, double[] bounds, int node, boolean geo) {
+    final double minX = bounds[node * 4], maxX = bounds[node * 4 + 1];
+    if (bounds[node * 4 + 2] > box.getMaxY() || bounds[node * 4 + 3] < box.getMinY())
+      return false;
+    if (box.getCrossesDateLine())
+      return maxX >= box.getMinX() || minX <= box.getMaxX();
+    if (minX <= box.getMaxX() && maxX >= box.getMinX())
+      return true;
+    // -180 and 180 are the same
+    return geo && (box.getMaxX() == 180 && minX == -180 || box.getMinX() == -180 && maxX == 180);
+  }
+
+  private static boolean isBefore(double dist, int id, double otherDist, int otherId) {
+    return dist < otherDist || dist == otherDist && id < otherId;
+  }
+
+  private static void siftUp(double[] dists, int[] ids, int i) {
+    while (i > 0) {
+      final int parent = (i - 1) / 2;
+      if (!isBefore(dists[parent], ids[parent], dists[i], ids[i]))
+        return;
+      swap(dists, ids, i, parent);
+      i = parent;
+    }
+  }
+
+  private static void siftDown(double[] dists, int[] ids, int i, int size) {
+    while (true) {
+      int largest = i;
+      final int left = i * 2 + 1, right = left + 1;
+      if (left < size && isBefore(dists[largest], ids[largest], dists[left], ids[left]))
+        largest = left;
+      if (right < size && isBefore(dists[largest], ids[largest], dists[right], ids[right]))
+        largest = right;
+      if (largest == i)
+        return;
+      swap(dists, ids, i, largest);
+      i = largest;
+    }
+  }
+
+  private static void swap(double[] dists, int[] ids, int a, int b) {
+    final double dist = dists[a];
+    dists[a] = dists[b];
+    dists[b] = dist;
+    final int id = ids[a];
+    ids[a] = ids[b];
+    ids[b] = id;
+  }
+
+  /** A min-heap of nodes by priority. */
+  private static final class NodeQueue {
+    double[] priorities = new double[64];
+    int[] levels = new int[64];
+    int[] nodes = new int[64];
+    int size;
+
+    void add(double priority, int level, int node) {
+      if (size == priorities.length) {
+        priorities = Arrays.copyOf(priorities, size * 2);
+        levels = Arrays.copyOf(levels, size * 2);
+        nodes = Arrays.copyOf(nodes, size * 2);
+      }
+      int i = size++;
+      while (i > 0) {
+        final int parent = (i - 1) / 2;
+        if (priorities[parent] <= priority)
+          break;
+        set(i, priorities[parent], levels[parent], nodes[parent]);
+        i = parent;
+      }
+      set(i, priority, level, node);
+    }
+
+    void removeTop() {
+      final int last = --size;
+      final double priority = priorities[last];
+      final int level = levels[last], node = nodes[last];
+      int i = 0;
+      while (true) {
+        int child = i * 2 + 1;
+        if (child >= size)
+          break;
+        if (child + 1 < size && priorities[child + 1] < priorities[child])
+          child++;
+        if (priority <= priorities[child])
+          break;
+        set(i, priorities[child], levels[child], nodes[child]);
+        i = child;
+      }
+      if (size > 0)
+        set(i, priority, level, node);
+    }
+
+    private void set(int i, double priority, int level, int node) {
+      priorities[i] = priority;
+      levels[i] = level;
+      nodes[i] = node;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.distance;
+
+import org.locationtech.spatial4j.shape.Point;
+
+/**
+ * Distances from one origin point, as returned by {@link DistanceCalculator#prepare(Point)}. Whatever depends only on
+ * the origin (e.g. the trigonometry of its latitude) is computed once, which pays off when a query varies the
+ * other point many times. Instances are not thread-safe; prepare one per thread.
+ */
+public interface PreparedDistance {
+
+  /** The origin; the <code>from</code> point given to {@link DistanceCalculator#prepare(Point)}. */
+  public Point getFrom();
+
+  /**
+   * The distance to <code>Point(toX,toY)</code>; the same as what
+   * {@link DistanceCalculator#distance(Point, double, double)} returns.
+   */
+  public double distance(double toX, double toY);
+
+  /**
+   * Returns true if the distance to <code>Point(toX,toY)</code> is &lt;= distance. Implementations may compare
+   * without computing the distance itself, so the result may differ from that of
+   * {@link DistanceCalculator#within(Point, double, double, double)} for points within rounding error of the
+   * distance.
+   */
+  public boolean within(double toX, double toY, double distance);
+
+}
@@ -16,10 +16,15 @@ import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeCollection;
+import org.locationtech.spatial4j.shape.impl.BufferedLineString;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
+import java.io.DataInputStream;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -27,6 +32,14 @@ import java.util.ArrayList;
  * Binary (WKB). The initial release is simple but it could get more optimized to use fewer bytes or
  * to write &amp; read pre-computed index structures.
  * <p>
+ * Shapes can also be read from a {@link ByteBuffer} (e.g. a memory-mapped file), which must have the
+ * default big-endian byte order. {@link BinaryShapeView} is a reusable view of a shape in a buffer
+ * that decodes no more than it needs to.
+ * <p>
+ * {@link #writeShapeWithHeader(DataOutput, Shape)} prefixes the shape with a fixed-size header holding its
+ * bounding box, so that a {@link BinaryShapeView} can often relate it to another shape without decoding it.
+ * {@code readShape} reads shapes with or without a header.
+ * <p>
  * Immutable and thread-safe.
  */
 public class BinaryCodec {
@@ -36,7 +49,16 @@ public class BinaryCodec {
       TYPE_RECT = 2,
       TYPE_CIRCLE = 3,
       TYPE_COLL = 4,
-      TYPE_GEOM = 5;
+      TYPE_GEOM = 5,
+      TYPE_HEADER = 6;//a header, then any shape; see writeShapeWithHeader
+
+  protected static final byte HEADER_VERSION = 1;
+
+  /**
+   * The size in bytes of the header written by {@link #writeShapeWithHeader(DataOutput, Shape)}: the
+   * type and version bytes, the bounding box as 4 doubles, the number of points, and the shape's length.
+   */
+  public static final int HEADER_SIZE = 1 + 1 + 4 * 8 + 4 + 4;
 
   //TODO support BufferedLineString
 
@@ -55,22 +77,128 @@ public class BinaryCodec {
     return s;
   }
 
+  /**
+   * Reads a shape from the buffer at its position, advancing it past the shape.
+   *
+   * @throws java.nio.BufferUnderflowException if the shape is truncated
+   */
+  public Shape readShape(ByteBuffer byteBuffer) {
+    byte type = byteBuffer.get();
+    Shape s = readShapeByTypeIfSupported(byteBuffer, type);
+    if (s == null)
+      throw new IllegalArgumentException("Unsupported shape byte "+type);
+    return s;
+  }
+
   public void writeShape(DataOutput dataOutput, Shape s) throws IOException {
     boolean written = writeShapeByTypeIfSupported(dataOutput, s);
     if (!written)
       throw new IllegalArgumentException("Unsupported shape "+s.getClass());
   }
 
+  /**
+   * Writes the shape after a header of {@link #HEADER_SIZE} bytes holding its bounding box (as read
+   * back), the number of points (see {@link #numPoints(Shape)}) and the length of what follows, which
+   * is the shape as written by {@link #writeShape(DataOutput, Shape)}.
+   */
+  public void writeShapeWithHeader(DataOutput dataOutput, Shape s) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    writeShape(new DataOutputStream(baos), s);
+    byte[] body = baos.toByteArray();
+    Rectangle bbox = boundingBoxAsRead(s, body);
+    dataOutput.writeByte(TYPE_HEADER);
+    dataOutput.writeByte(HEADER_VERSION);
+    //always doubles, even if dims are written as floats
+    if (bbox.isEmpty()) {
+      for (int i = 0; i < 4; i++)
+        dataOutput.writeDouble(Double.NaN);
+    } else {
+      dataOutput.writeDouble(bbox.getMinX());
+      dataOutput.writeDouble(bbox.getMaxX());
+      dataOutput.writeDouble(bbox.getMinY());
+      dataOutput.writeDouble(bbox.getMaxY());
+    }
+    dataOutput.writeInt(numPoints(s));
+    dataOutput.writeInt(body.length);
+    dataOutput.write(body);
+  }
+
+  /**
+   * The bounding box of the shape written as {@code body}, which might differ slightly from the shape's if
+   * writing loses precision.
+   */
+  protected Rectangle boundingBoxAsRead(Shape s, byte[] body) {
+    return s.getBoundingBox();
+  }
+
+  /**
+   * The number of points (vertices) in the shape, as an indication of its complexity, or -1 if it isn't
+   * defined by points (e.g. a rectangle or circle).
+   */
+  protected int numPoints(Shape s) {
+    if (s instanceof Point) {
+      return 1;
+    } else if (s instanceof BufferedLineString) {
+      return ((BufferedLineString) s).getPoints().size();
+    } else if (s instanceof ShapeCollection) {
+      int sum = 0;
+      for (Shape shape : ((ShapeCollection<?>) s).getShapes()) {
+        int n = numPoints(shape);
+        if (n < 0)
+          return -1;
+        sum += n;
+      }
+      return sum;
+    }
+    return -1;
+  }
+
   protected Shape readShapeByTypeIfSupported(DataInput dataInput, byte type) throws IOException {
     switch (type) {
       case TYPE_POINT: return readPoint(dataInput);
       case TYPE_RECT: return readRect(dataInput);
       case TYPE_CIRCLE: return readCircle(dataInput);
       case TYPE_COLL: return readCollection(dataInput);
+      case TYPE_HEADER:
+        checkHeaderVersion(dataInput.readByte());
+        for (int i = 0; i < 4; i++)
+          dataInput.readDouble();
+        dataInput.readInt();//numPoints
+        dataInput.readInt();//length
+        return readShape(dataInput);
       default: return null;
     }
   }
 
+  protected static void checkHeaderVersion(byte version) {
+    if (version != HEADER_VERSION)
+      throw new IllegalArgumentException("Unsupported header version "+version);
+  }
+
+  /**
+   * Reads the shape of the given type from the buffer. Types not handled here are read with
+   * {@link #readShapeByTypeIfSupported(DataInput, byte)} over the buffer, so subclasses needn't
+   * override this unless it's to avoid that indirection.
+   */
+  protected Shape readShapeByTypeIfSupported(ByteBuffer byteBuffer, byte type) {
+    switch (type) {
+      case TYPE_POINT: return readPoint(byteBuffer, null);
+      case TYPE_RECT: return readRect(byteBuffer, null);
+      case TYPE_CIRCLE: return readCircle(byteBuffer, null);
+      case TYPE_COLL: return readCollection(byteBuffer);
+      case TYPE_HEADER:
+        checkHeaderVersion(byteBuffer.get());
+        byteBuffer.position(byteBuffer.position() + HEADER_SIZE - 2);
+        return readShape(byteBuffer);
+      default:
+        try {
+          return readShapeByTypeIfSupported(new ByteBufferDataInput(byteBuffer), type);
+        } catch (IOException e) {
+          throw new InvalidShapeException(e.toString(), e);//ByteBufferDataInput doesn't throw this
+        }
+    }
+  }
+
   /** Note: writes the type byte even if not supported */
   protected boolean writeShapeByTypeIfSupported(DataOutput dataOutput, Shape s) throws IOException {
     byte type = typeForShape(s);
@@ -109,6 +237,10 @@ public class BinaryCodec {
     return dataInput.readDouble();
   }
 
+  protected double readDim(ByteBuffer byteBuffer) {
+    return byteBuffer.getDouble();
+  }
+
   protected void writeDim(DataOutput dataOutput, double v) throws IOException {
     dataOutput.writeDouble(v);
   }
@@ -117,6 +249,16 @@ public class BinaryCodec {
     return ctx.makePoint(readDim(dataInput), readDim(dataInput));
   }
 
+  /** Reads a point into {@code reuse} if not null, otherwise into a new point. */
+  public Point readPoint(ByteBuffer byteBuffer, Point reuse) {
+    double x = readDim(byteBuffer);
+    double y = readDim(byteBuffer);
+    if (reuse == null)
+      return ctx.getShapeFactory().pointXY(x, y);
+    reuse.reset(x, y);
+    return reuse;
+  }
+
   public void writePoint(DataOutput dataOutput, Point pt) throws IOException {
     writeDim(dataOutput, pt.getX());
     writeDim(dataOutput, pt.getY());
@@ -126,6 +268,18 @@ public class BinaryCodec {
     return ctx.makeRectangle(readDim(dataInput), readDim(dataInput), readDim(dataInput), readDim(dataInput));
   }
 
+  /** Reads a rectangle into {@code reuse} if not null, otherwise into a new rectangle. */
+  public Rectangle readRect(ByteBuffer byteBuffer, Rectangle reuse) {
+    double minX = readDim(byteBuffer);
+    double maxX = readDim(byteBuffer);
+    double minY = readDim(byteBuffer);
+    double maxY = readDim(byteBuffer);
+    if (reuse == null || reuse.isEmpty())//can't reset an empty one
+      return ctx.getShapeFactory().rect(minX, maxX, minY, maxY);
+    reuse.reset(minX, maxX, minY, maxY);
+    return reuse;
+  }
+
   public void writeRect(DataOutput dataOutput, Rectangle r) throws IOException {
     writeDim(dataOutput, r.getMinX());
     writeDim(dataOutput, r.getMaxX());
@@ -137,6 +291,17 @@ public class BinaryCodec {
     return ctx.makeCircle(readPoint(dataInput), readDim(dataInput));
   }
 
+  /** Reads a circle into {@code reuse} if not null, otherwise into a new circle. */
+  public Circle readCircle(ByteBuffer byteBuffer, Circle reuse) {
+    double x = readDim(byteBuffer);
+    double y = readDim(byteBuffer);
+    double radius = readDim(byteBuffer);
+    if (reuse == null)
+      return ctx.getShapeFactory().circle(x, y, radius);
+    reuse.reset(x, y, radius);
+    return reuse;
+  }
+
   public void writeCircle(DataOutput dataOutput, Circle c) throws IOException {
     writePoint(dataOutput, c.getCenter());
     writeDim(dataOutput, c.getRadius());
@@ -159,6 +324,23 @@ public class BinaryCodec {
     return ctx.makeCollection(shapes);
   }
 
+  public ShapeCollection readCollection(ByteBuffer byteBuffer) {
+    byte type = byteBuffer.get();
+    int size = byteBuffer.getInt();
+    ArrayList<Shape> shapes = new ArrayList<Shape>(size);
+    for (int i = 0; i < size; i++) {
+      if (type == 0) {
+        shapes.add(readShape(byteBuffer));
+      } else {
+        Shape s = readShapeByTypeIfSupported(byteBuffer, type);
+        if (s == null)
+          throw new InvalidShapeException("Unsupported shape byte "+type);
+        shapes.add(s);
+      }
+    }
+    return ctx.getShapeFactory().multiShape(shapes);
+  }
+
   public void writeCollection(DataOutput dataOutput, ShapeCollection col) throws IOException {
     byte type = (byte) 0;//TODO add type to ShapeCollection
     dataOutput.writeByte(type);
@@ -175,4 +357,105 @@ public class BinaryCodec {
     }
   }
 
+  /** {@link DataInput} over a {@link ByteBuffer}, advancing its position. */
+  private static class ByteBufferDataInput implements DataInput {
+    private final ByteBuffer byteBuffer;
+
+    ByteBufferDataInput(ByteBuffer byteBuffer) {
+      this.byteBuffer = byteBuffer;
+    }
+
+    @Override
+    public void readFully(byte[] b) {
+      byteBuffer.get(b);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) {
+      byteBuffer.get(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+      n = Math.min(n, byteBuffer.remaining());
+      byteBuffer.position(byteBuffer.position() + n);
+      return n;
+    }
+
+    @Override
+    public boolean readBoolean() {
+      return byteBuffer.get() != 0;
+    }
+
+    @Override
+    public byte readByte() {
+      return byteBuffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() {
+      return byteBuffer.get() & 0xFF;
+    }
+
+    @Override
+    public short readShort() {
+      return byteBuffer.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() {
+      return byteBuffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() {
+      return byteBuffer.getChar();
+    }
+
+    @Override
+    public int readInt() {
+      return byteBuffer.getInt();
+    }
+
+    @Override
+    public long readLong() {
+      return byteBuffer.getLong();
+    }
+
+    @Override
+    public float readFloat() {
+      return byteBuffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() {
+      return byteBuffer.getDouble();
+    }
+
+    /** Like {@link DataInputStream#readLine()}: bytes as chars up to "\n", "\r" or "\r\n"; null if none remain. */
+    @Override
+    public String readLine() {
+      if (!byteBuffer.hasRemaining())
+        return null;
+      StringBuilder line = new StringBuilder();
+      while (byteBuffer.hasRemaining()) {
+        int c = byteBuffer.get() & 0xFF;
+        if (c == '\n')
+          break;
+        if (c == '\r') {
+          if (byteBuffer.hasRemaining() && byteBuffer.get(byteBuffer.position()) == '\n')
+            byteBuffer.get();
+          break;
+        }
+        line.append((char) c);
+      }
+      return line.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+      return DataInputStream.readUTF(this);
+    }
+  }
+
 }
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Circle;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+import org.locationtech.spatial4j.shape.impl.RectangleImpl;
+
+import java.io.DataOutput;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Shape} view of a shape written by {@link BinaryCodec} in a {@link ByteBuffer}, such as a
+ * slice of a memory-mapped file. It's a flyweight: {@link #reset(ByteBuffer)} points it at another
+ * shape without allocating, and nothing is decoded until needed. Points, rectangles and circles are
+ * decoded into instances owned by the view that are overwritten on the next reset; other shapes are
+ * decoded in full at most once per reset.
+ * <p>
+ * If the shape was written with {@link BinaryCodec#writeShapeWithHeader(DataOutput, Shape)}, the bounding box
+ * comes from the header, and {@link #relate(Shape)} answers {@link SpatialRelation#DISJOINT} or
+ * {@link SpatialRelation#WITHIN} from it when it can, without decoding the shape. Thus a
+ * {@link org.locationtech.spatial4j.SpatialPredicate} evaluated on a view only decodes candidates near the
+ * query shape's edge.
+ * <p>
+ * Reading leaves the buffer's position unchanged. Like the buffer itself, a view is not thread-safe.
+ */
+public class BinaryShapeView implements Shape {
+
+  protected final BinaryCodec codec;
+
+  private ByteBuffer byteBuffer;
+  private int offset;
+  private int shapeOffset;//after the header, if any
+  private byte type;//of the shape after the header, if any
+  private boolean hasHeader;
+  private boolean headerBBoxEmpty;
+  private int numPoints;
+
+  // Reused across resets
+  private Point point;
+  private Rectangle rect;
+  private Circle circle;
+  private Rectangle headerBBox;
+
+  private Shape shape;//lazily decoded; might be one of the above
+
+  public BinaryShapeView(BinaryCodec codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * Views the shape at the buffer's position. The buffer's contents there must not change while
+   * this view is used.
+   */
+  public BinaryShapeView reset(ByteBuffer byteBuffer) {
+    this.byteBuffer = byteBuffer;
+    this.offset = byteBuffer.position();
+    this.shape = null;
+    byte type = byteBuffer.get(offset);
+    hasHeader = type == BinaryCodec.TYPE_HEADER;
+    if (hasHeader) {
+      BinaryCodec.checkHeaderVersion(byteBuffer.get(offset + 1));
+      double minX = byteBuffer.getDouble(offset + 2);
+      double maxX = byteBuffer.getDouble(offset + 10);
+      double minY = byteBuffer.getDouble(offset + 18);
+      double maxY = byteBuffer.getDouble(offset + 26);
+      numPoints = byteBuffer.getInt(offset + 34);
+      headerBBoxEmpty = Double.isNaN(minX);
+      if (!headerBBoxEmpty) {
+        if (headerBBox == null)
+          headerBBox = new RectangleImpl(minX, maxX, minY, maxY, codec.ctx);
+        else
+          headerBBox.reset(minX, maxX, minY, maxY);
+      }
+      shapeOffset = offset + BinaryCodec.HEADER_SIZE;
+      type = byteBuffer.get(shapeOffset);
+    } else {
+      numPoints = -1;
+      shapeOffset = offset;
+    }
+    this.type = type;
+    return this;
+  }
+
+  /** Whether the shape was written with a header. */
+  public boolean hasHeader() {
+    return hasHeader;
+  }
+
+  /**
+   * The number of points in the shape from the header, or -1 if unknown or not applicable.
+   *
+   * @see BinaryCodec#numPoints(Shape)
+   */
+  public int getNumPoints() {
+    return numPoints;
+  }
+
+  public ByteBuffer getByteBuffer() {
+    return byteBuffer;
+  }
+
+  /** The position in {@link #getByteBuffer()} of the shape. */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * The decoded shape. A point, rectangle or circle is owned by this view and changes on
+   * {@link #reset(ByteBuffer)}, so don't retain it; copy it if needed.
+   */
+  public Shape getShape() {
+    if (shape == null) {
+      if (byteBuffer == null)
+        throw new IllegalStateException("reset() hasn't been called");
+      shape = decode();
+    }
+    return shape;
+  }
+
+  private Shape decode() {
+    final int position = byteBuffer.position();
+    byteBuffer.position(shapeOffset + 1);
+    try {
+      switch (type) {
+        case BinaryCodec.TYPE_POINT: return point = codec.readPoint(byteBuffer, point);
+        case BinaryCodec.TYPE_RECT: return rect = codec.readRect(byteBuffer, rect);
+        case BinaryCodec.TYPE_CIRCLE: return circle = codec.readCircle(byteBuffer, circle);
+        default:
+          Shape s = codec.readShapeByTypeIfSupported(byteBuffer, type);
+          if (s == null)
+            throw new IllegalArgumentException("Unsupported shape byte "+type);
+          return s;
+      }
+    } finally {
+      byteBuffer.position(position);
+    }
+  }
+
+  @Override
+  public SpatialRelation relate(Shape other) {
+    if (shape == null && hasHeader && !headerBBoxEmpty) {
+      Rectangle otherBBox = other.getBoundingBox();
+      if (!headerBBox.relate(otherBBox).intersects())
+        return SpatialRelation.DISJOINT;
+      switch (other.relate(headerBBox)) {
+        case DISJOINT: return SpatialRelation.DISJOINT;
+        case CONTAINS:
+          // the shape is within its bbox, thus within other, unless they might be equal (-> CONTAINS)
+          if (!otherBBox.equals(headerBBox))
+            return SpatialRelation.WITHIN;
+          break;
+        default://decode
+      }
+    }
+    return getShape().relate(other);
+  }
+
+  /** From the header if there is one, otherwise the decoded shape's. */
+  @Override
+  public Rectangle getBoundingBox() {
+    if (hasHeader && !headerBBoxEmpty)
+      return headerBBox;
+    return getShape().getBoundingBox();
+  }
+
+  @Override
+  public boolean hasArea() {
+    return getShape().hasArea();
+  }
+
+  @Override
+  public double getArea(SpatialContext ctx) {
+    return getShape().getArea(ctx);
+  }
+
+  @Override
+  public Point getCenter() {
+    return getShape().getCenter();
+  }
+
+  @Override
+  public Shape getBuffered(double distance, SpatialContext ctx) {
+    return getShape().getBuffered(distance, ctx);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return getShape().isEmpty();
+  }
+
+  @Override
+  public SpatialContext getContext() {
+    return codec.ctx;
+  }
+
+  /** Equal to the same shape, whether a view or not. */
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof BinaryShapeView)
+      o = ((BinaryShapeView) o).getShape();
+    return getShape().equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return getShape().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return byteBuffer == null ? "BinaryShapeView{unset}" : getShape().toString();
+  }
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import java.math.BigInteger;
+
+/**
+ * (INTERNAL) Converts a decimal number, already split into its significand digits and power of ten,
+ * to the nearest double, as {@link Double#parseDouble(String)} would, but without allocating.
+ * <p>
+ * Most numbers are handled exactly with a single multiplication or division (Clinger's fast path).
+ * The rest use the Eisel-Lemire algorithm: multiply by a 128-bit truncated power of ten and return
+ * the result if the truncation can't affect rounding, which is nearly always. Otherwise
+ * {@link Double#NaN} is returned and the caller should fall back on {@link Double#parseDouble(String)}.
+ * {@link #parse(char[], int, int)} scans the characters first; it's used by both {@link WKTReader} and
+ * {@link GeoJSONReader}.
+ *
+ * @see <a href="https://arxiv.org/abs/2101.11408">Lemire, Number Parsing at a Gigabyte per Second</a>
+ */
+final class FastDoubleParser {
+
+  /** The largest number of significant decimal digits that surely fits in an unsigned long. */
+  static final int MAX_DIGITS = 19;
+
+  private static final int MIN_EXP10 = -342;
+  private static final int MAX_EXP10 = 308;
+
+  /** Powers of ten that are exact doubles. */
+  private static final double[] EXACT_POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /**
+   * For each power of ten from MIN_EXP10, its significand normalized to 128 bits as high then low
+   * 64 bits; truncated for positive powers and rounded up for negative ones.
+   */
+  private static final long[] POWERS_OF_TEN_128 = new long[(MAX_EXP10 - MIN_EXP10 + 1) * 2];
+
+  static {
+    final BigInteger five = BigInteger.valueOf(5);
+    final BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    for (int q = MIN_EXP10; q <= MAX_EXP10; q++) {
+      BigInteger c;
+      if (q >= 0) {
+        // the power of 2 doesn't matter when normalized, so 5^q
+        c = five.pow(q);
+        c = c.bitLength() <= 128 ? c.shiftLeft(128 - c.bitLength()) : c.shiftRight(c.bitLength() - 128);
+      } else {
+        BigInteger power5 = five.pow(-q);
+        int z = power5.bitLength();
+        int b = q >= -27 ? z + 127 : 2 * z + 128;
+        c = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+        if (c.bitLength() > 128)
+          c = c.shiftRight(c.bitLength() - 128);
+      }
+      int i = (q - MIN_EXP10) * 2;
+      POWERS_OF_TEN_128[i] = c.shiftRight(64).longValue();
+      POWERS_OF_TEN_128[i + 1] = c.and(mask64).longValue();
+    }
+  }
+
+  private FastDoubleParser() {
+  }
+
+  /**
+   * Returns the double nearest to {@code significand * 10^exp10}, negated if {@code negative}, or
+   * {@link Double#NaN} if that can't be determined quickly. {@code significand} is unsigned, and
+   * must hold all the significant digits (at most {@link #MAX_DIGITS}) since any truncation would
+   * affect rounding.
+   */
+  static double toDouble(long significand, int exp10, boolean negative) {
+    if (significand == 0)
+      return negative ? -0.0 : 0.0;
+    // Clinger's fast path: both the significand and the power of ten are exact doubles
+    if (significand > 0 && significand <= (1L << 53)
+        && exp10 >= -22 && exp10 <= 22) {
+      double d = (double) significand;
+      d = exp10 < 0 ? d / EXACT_POWERS_OF_TEN[-exp10] : d * EXACT_POWERS_OF_TEN[exp10];
+      return negative ? -d : d;
+    }
+    if (exp10 < MIN_EXP10 || exp10 > MAX_EXP10)
+      return Double.NaN;// zero or infinity, but leave that to the JDK
+    return eiselLemire(significand, exp10, negative);
+  }
+
+  /**
+   * Parses the chars from {@code start} to {@code end} as a decimal number, or returns {@link Double#NaN} if
+   * they're malformed or can't be converted quickly; see {@link #toDouble(long, int, boolean)}.
+   */
+  static double parse(char[] chars, int start, int end) {
+    int i = start;
+    if (i == end)
+      return Double.NaN;
+    char c = chars[i];
+    final boolean negative = c == '-';
+    if (negative || c == '+')
+      i++;
+    long significand = 0;// unsigned
+    int numDigits = 0;// significant digits, thus not counting leading zeros
+    int exp10 = 0;
+    boolean anyDigits = false;
+    for (; i < end && (c = chars[i]) >= '0' && c <= '9'; i++) {
+      anyDigits = true;
+      if (numDigits > 0 || c != '0') {
+        significand = significand * 10 + (c - '0');
+        numDigits++;
+      }
+    }
+    if (i < end && chars[i] == '.') {
+      for (i++; i < end && (c = chars[i]) >= '0' && c <= '9'; i++) {
+        anyDigits = true;
+        if (numDigits > 0 || c != '0') {
+          significand = significand * 10 + (c - '0');
+          numDigits++;
+        }
+        exp10--;
+      }
+    }
+    if (!anyDigits || numDigits > MAX_DIGITS)
+      return Double.NaN;
+    if (i < end && ((c = chars[i]) == 'e' || c == 'E')) {
+      i++;
+      boolean expNegative = false;
+      if (i < end && ((c = chars[i]) == '-' || c == '+')) {
+        expNegative = c == '-';
+        i++;
+      }
+      int exp = 0;
+      boolean anyExpDigits = false;
+      for (; i < end && (c = chars[i]) >= '0' && c <= '9'; i++) {
+        anyExpDigits = true;
+        if (exp < 100000)// beyond any double anyway
+          exp = exp * 10 + (c - '0');
+      }
+      if (!anyExpDigits)
+        return Double.NaN;
+      exp10 += expNegative ? -exp : exp;
+    }
+    if (i != end)
+      return Double.NaN;
+    return toDouble(significand, exp10, negative);
+  }
+
+  private static double eiselLemire(long significand, int exp10, boolean negative) {
+    // Normalize the significand so that its high bit is set
+    final int lz = Long.numberOfLeadingZeros(significand);
+    final long w = significand << lz;
+    // floor(log2(10) * exp10) + bias, less the normalization shift
+    long exp2 = ((217706L * exp10) >> 16) + 64 + 1023 - lz;
+
+    final int powIdx = (exp10 - MIN_EXP10) * 2;
+    long hi = multiplyHigh(w, POWERS_OF_TEN_128[powIdx]);
+    long lo = w * POWERS_OF_TEN_128[powIdx];
+    // If the low bits might carry into the bits we keep, include the lower half of the power
+    if ((hi & 0x1FF) == 0x1FF && unsignedLess(lo + w, w)) {
+      long yHi = multiplyHigh(w, POWERS_OF_TEN_128[powIdx + 1]);
+      long yLo = w * POWERS_OF_TEN_128[powIdx + 1];
+      long mergedLo = lo + yHi;
+      long mergedHi = unsignedLess(mergedLo, lo) ? hi + 1 : hi;
+      if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && unsignedLess(yLo + w, w))
+        return Double.NaN;// still ambiguous
+      hi = mergedHi;
+      lo = mergedLo;
+    }
+
+    // Keep 54 bits: the 53 of a double and one more to round with
+    final long msb = hi >>> 63;
+    long mantissa = hi >>> (msb + 9);
+    exp2 -= 1 ^ msb;
+    // Exactly halfway between two doubles?  The tie needs the digits we no longer have.
+    if (lo == 0 && (hi & 0x1FF) == 0 && (mantissa & 3) == 1)
+      return Double.NaN;
+    // Round half up (ties to even were excluded above), then to 53 bits
+    mantissa += mantissa & 1;
+    mantissa >>>= 1;
+    if ((mantissa >>> 53) != 0) {
+      mantissa >>>= 1;
+      exp2++;
+    }
+    if (exp2 <= 0 || exp2 >= 0x7FF)
+      return Double.NaN;// subnormal or infinite
+    long bits = (exp2 << 52) | (mantissa & 0x000FFFFFFFFFFFFFL);
+    if (negative)
+      bits |= 0x8000000000000000L;
+    return Double.longBitsToDouble(bits);
+  }
+
+  private static boolean unsignedLess(long a, long b) {
+    return (a ^ Long.MIN_VALUE) < (b ^ Long.MIN_VALUE);
+  }
+
+  /** The high 64 bits of the unsigned 128-bit product. */
+  private static long multiplyHigh(long a, long b) {
+    final long aLo = a & 0xFFFFFFFFL, aHi = a >>> 32;
+    final long bLo = b & 0xFFFFFFFFL, bHi = b >>> 32;
+    final long loLo = aLo * bLo;
+    final long hiLo = aHi * bLo;
+    final long loHi = aLo * bHi;
+    final long cross = (loLo >>> 32) + (hiLo & 0xFFFFFFFFL) + loHi;
+    return aHi * bHi + (hiLo >>> 32) + (cross >>> 32);
+  }
+}
@@ -16,20 +16,35 @@ import org.locationtech.spatial4j.shape.Circle;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeFactory;
+import org.noggit.CharArr;
 import org.noggit.JSONParser;
+import org.noggit.ObjectBuilder;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.text.ParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class GeoJSONReader implements ShapeReader {
 
   protected static final String BUFFER = "buffer";
   protected static final String BUFFER_UNITS = "buffer_units";
 
+  /** Each thread's parser buffer, reused from one document to the next. */
+  private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+    @Override
+    protected Scratch initialValue() {
+      return new Scratch();
+    }
+  };
+
   protected final SpatialContext ctx;
   protected final ShapeFactory shapeFactory;
 
@@ -45,7 +60,32 @@ public class GeoJSONReader implements ShapeReader {
 
   @Override
   public final Shape read(Reader reader) throws IOException, ParseException {
-    return readShape(new JSONParser(reader));
+    final Scratch scratch = acquireScratch();
+    try {
+      return readShape(newParser(reader, scratch));
+    } finally {
+      releaseScratch(scratch);
+    }
+  }
+
+  /** This thread's {@link Scratch}, or null if it's in use already (re-entrant). */
+  private static Scratch acquireScratch() {
+    final Scratch scratch = SCRATCH.get();
+    if (scratch.inUse) {
+      return null;
+    }
+    scratch.inUse = true;
+    return scratch;
+  }
+
+  private static void releaseScratch(Scratch scratch) {
+    if (scratch != null) {
+      scratch.inUse = false;
+    }
+  }
+
+  private static JSONParser newParser(Reader reader, Scratch scratch) {
+    return scratch == null ? new JSONParser(reader) : new JSONParser(reader, scratch.parserBuffer);
   }
 
   @Override
@@ -68,6 +108,329 @@ public class GeoJSONReader implements ShapeReader {
     return null;
   }
 
+  // --------------------------------------------------------------
+  // Read GeoJSON Features
+  // --------------------------------------------------------------
+
+  /** A GeoJSON Feature, as read by {@link #readFeatures(Reader, FeatureHandler)}. */
+  public static class Feature {
+    private final Object id;
+    private final Shape shape;
+    private final Map<String, Object> properties;
+
+    public Feature(Object id, Shape shape, Map<String, Object> properties) {
+      this.id = id;
+      this.shape = shape;
+      this.properties = properties;
+    }
+
+    /** The "id", typically a String or a Long; null if none. */
+    public Object getId() {
+      return id;
+    }
+
+    /** The shape of the "geometry"; null if none. */
+    public Shape getShape() {
+      return shape;
+    }
+
+    /** The "properties" as built by noggit's {@link ObjectBuilder}; null if none. */
+    public Map<String, Object> getProperties() {
+      return properties;
+    }
+
+    @Override
+    public String toString() {
+      return "Feature{id=" + id + ", shape=" + shape + ", properties=" + properties + '}';
+    }
+  }
+
+  /** Receives each feature read by {@link #readFeatures(Reader, FeatureHandler)}. */
+  public interface FeatureHandler {
+    /** Called for each feature in document order, on the reading thread. Return false to stop reading. */
+    boolean feature(Feature feature);
+  }
+
+  /**
+   * Reads a GeoJSON FeatureCollection (or a single Feature), handing each feature to the handler as soon as it's
+   * read instead of collecting them all. Thus memory use is bounded by the largest feature, not the document.
+   *
+   * @return the number of features handled
+   * @throws ParseException if malformed, including if the top level object's type isn't Feature or FeatureCollection
+   */
+  public long readFeatures(Reader reader, FeatureHandler handler) throws IOException, ParseException {
+    return readFeatures(reader, handler, null);
+  }
+
+  /**
+   * Like {@link #readFeatures(Reader, FeatureHandler)}, but with each feature's geometry parsed and made into a
+   * shape on the pool, if not null. That includes any validation and dateline handling, which usually dominate.
+   * This thread just scans past each geometry, keeping its characters to hand off, and reads the rest. Features
+   * are still handled in document order on this thread, and at most a few per pool thread are pending.
+   */
+  public long readFeatures(Reader reader, FeatureHandler handler, ForkJoinPool pool)
+      throws IOException, ParseException {
+    final RecordingReader recorder = pool == null ? null : new RecordingReader(reader);
+    final Scratch scratch = acquireScratch();
+    final FeatureReading reading = new FeatureReading(
+        newParser(recorder == null ? reader : recorder, scratch), handler, recorder, pool);
+    try {
+      reading.readDocument();
+      return reading.numHandled;
+    } finally {
+      reading.cancelPending();
+      releaseScratch(scratch);
+    }
+  }
+
+  /** The state of one {@link #readFeatures(Reader, FeatureHandler, ForkJoinPool)} call. */
+  private class FeatureReading {
+    final JSONParser parser;
+    final FeatureHandler handler;
+    final RecordingReader recorder;// null if not parallel
+    final ForkJoinPool pool;
+    final ArrayDeque<PendingFeature> pending = new ArrayDeque<>();
+    final int maxPending;
+    long numHandled;
+    boolean stopped;
+
+    FeatureReading(JSONParser parser, FeatureHandler handler, RecordingReader recorder, ForkJoinPool pool) {
+      this.parser = parser;
+      this.handler = handler;
+      this.recorder = recorder;
+      this.pool = pool;
+      this.maxPending = pool == null ? 0 : pool.getParallelism() * 4;
+    }
+
+    void readDocument() throws IOException, ParseException {
+      if (parser.nextEvent() != JSONParser.OBJECT_START) {
+        throw new ParseException("Expected a GeoJSON object", (int) parser.getPosition());
+      }
+      readFeature(true);
+      while (!stopped && !pending.isEmpty()) {
+        handleNextPending();
+      }
+    }
+
+    /**
+     * Reads the members of a Feature, or of the top level object which might be a FeatureCollection instead. The
+     * top level object's "type" must be one of those two; a feature's is checked if present.
+     */
+    @SuppressWarnings("unchecked")
+    void readFeature(boolean topLevel) throws IOException, ParseException {
+      Object id = null;
+      Object geometry = null;// a Shape, or a GeometryTask if parallel
+      Map<String, Object> properties = null;
+      String type = null;
+      boolean hasFeatures = false;
+      for (int evt = parser.nextEvent(); evt != JSONParser.OBJECT_END; evt = parser.nextEvent()) {
+        if (evt != JSONParser.STRING || !parser.wasKey()) {
+          throw new ParseException("Unexpected " + JSONParser.getEventString(evt), (int) parser.getPosition());
+        }
+        final String key = parser.getString();
+        evt = parser.nextEvent();
+        if (topLevel && "features".equals(key) && evt == JSONParser.ARRAY_START) {
+          hasFeatures = true;
+          readFeatureArray();
+          if (stopped) {
+            return;
+          }
+        } else if ("type".equals(key)) {
+          type = evt == JSONParser.STRING ? parser.getString() : null;
+          if (!"Feature".equals(type) && !(topLevel && "FeatureCollection".equals(type))) {
+            throw new ParseException("Expected a " + (topLevel ? "Feature or FeatureCollection" : "Feature")
+                + " but got type " + (type == null ? JSONParser.getEventString(evt) : type),
+                (int) parser.getPosition());
+          }
+        } else if ("geometry".equals(key)) {
+          geometry = evt == JSONParser.NULL ? null : readGeometry(evt);
+        } else if ("properties".equals(key)) {
+          Object value = ObjectBuilder.getVal(parser);
+          properties = value instanceof Map ? (Map<String, Object>) value : null;
+        } else if ("id".equals(key)) {
+          id = ObjectBuilder.getVal(parser);
+        } else {
+          skipValue(evt);
+        }
+      }
+      if (topLevel && type == null) {
+        throw new ParseException("Expected a Feature or FeatureCollection but there is no type",
+            (int) parser.getPosition());
+      }
+      if ("FeatureCollection".equals(type) && !hasFeatures) {
+        throw new ParseException("Expected a FeatureCollection to have a features array",
+            (int) parser.getPosition());
+      }
+      if (!topLevel || "Feature".equals(type)) {
+        if (pool == null) {
+          handle(new Feature(id, (Shape) geometry, properties));
+        } else {
+          pending.add(new PendingFeature(id, (GeometryTask) geometry, properties));
+          if (pending.size() > maxPending) {
+            handleNextPending();
+          }
+        }
+      }
+    }
+
+    void readFeatureArray() throws IOException, ParseException {
+      for (int evt = parser.nextEvent(); evt != JSONParser.ARRAY_END; evt = parser.nextEvent()) {
+        if (evt != JSONParser.OBJECT_START) {
+          throw new ParseException("Expected a Feature but got " + JSONParser.getEventString(evt),
+              (int) parser.getPosition());
+        }
+        if (recorder != null) {
+          recorder.discardBefore(parser.getPosition());
+        }
+        readFeature(false);
+        if (stopped) {
+          return;
+        }
+      }
+    }
+
+    Object readGeometry(int evt) throws IOException, ParseException {
+      if (evt != JSONParser.OBJECT_START) {
+        throw new ParseException("Expected a geometry but got " + JSONParser.getEventString(evt),
+            (int) parser.getPosition());
+      }
+      final int level = parser.getLevel();
+      if (recorder == null) {
+        Shape shape = readShape(parser);
+        skipToLevel(level - 1);// in case of members after the coordinates
+        return shape;
+      }
+      final long start = parser.getPosition() - 1;// the '{'
+      skipToLevel(level - 1);
+      GeometryTask task = new GeometryTask(recorder.copy(start, parser.getPosition()), start);
+      pool.execute(task);
+      return task;
+    }
+
+    /** Skips the value of the event just read. */
+    void skipValue(int evt) throws IOException {
+      if (evt == JSONParser.OBJECT_START || evt == JSONParser.ARRAY_START) {
+        skipToLevel(parser.getLevel() - 1);
+      }
+    }
+
+    void skipToLevel(int level) throws IOException {
+      while (parser.getLevel() > level && parser.nextEvent() != JSONParser.EOF) {
+      }
+    }
+
+    void handleNextPending() throws IOException, ParseException {
+      PendingFeature feature = pending.remove();
+      handle(new Feature(feature.id, feature.geometry == null ? null : feature.geometry.getShape(),
+          feature.properties));
+    }
+
+    void handle(Feature feature) {
+      numHandled++;
+      if (!handler.feature(feature)) {
+        stopped = true;
+        cancelPending();
+      }
+    }
+
+    void cancelPending() {
+      for (PendingFeature feature : pending) {
+        if (feature.geometry != null) {
+          feature.geometry.cancel(false);
+        }
+      }
+      pending.clear();
+    }
+  }
+
+  private static final class PendingFeature {
+    final Object id;
+    final GeometryTask geometry;
+    final Map<String, Object> properties;
+
+    PendingFeature(Object id, GeometryTask geometry, Map<String, Object> properties) {
+      this.id = id;
+      this.geometry = geometry;
+      this.properties = properties;
+    }
+  }
+
+  /** Parses a geometry from its characters, and makes the shape. */
+  private class GeometryTask extends RecursiveTask<Shape> {
+    final char[] chars;
+    final long start;// of the chars in the document
+    Exception failure;// IOException or ParseException
+
+    GeometryTask(char[] chars, long start) {
+      this.chars = chars;
+      this.start = start;
+    }
+
+    @Override
+    protected Shape compute() {
+      try {
+        return readShape(new JSONParser(chars, 0, chars.length));
+      } catch (IOException | ParseException e) {
+        failure = e;
+        return null;
+      }
+    }
+
+    Shape getShape() throws IOException, ParseException {
+      Shape shape = join();
+      if (failure instanceof ParseException) {
+        ParseException e = (ParseException) failure;
+        throw new ParseException(e.getMessage(), (int) (start + e.getErrorOffset()));
+      } else if (failure != null) {
+        throw (IOException) failure;
+      }
+      return shape;
+    }
+  }
+
+  /** Keeps the characters read through it since {@link #discardBefore(long)}, to copy them out. */
+  private static final class RecordingReader extends Reader {
+    private final Reader in;
+    private char[] chars = new char[16 * 1024];
+    private long charsStart;// the position of chars[0]
+    private int length;
+
+    RecordingReader(Reader in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      final int n = in.read(cbuf, off, len);
+      if (n > 0) {
+        if (length + n > chars.length) {
+          chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + n));
+        }
+        System.arraycopy(cbuf, off, chars, length, n);
+        length += n;
+      }
+      return n;
+    }
+
+    void discardBefore(long position) {
+      final int n = (int) (position - charsStart);
+      if (n > length / 2) {// else not worth moving the rest yet
+        System.arraycopy(chars, n, chars, 0, length - n);
+        length -= n;
+        charsStart = position;
+      }
+    }
+
+    char[] copy(long from, long to) {
+      return Arrays.copyOfRange(chars, (int) (from - charsStart), (int) (to - charsStart));
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
   // --------------------------------------------------------------
   // Read GeoJSON
   // --------------------------------------------------------------
@@ -85,7 +448,7 @@ public class GeoJSONReader implements ShapeReader {
         case JSONParser.LONG:
         case JSONParser.NUMBER:
         case JSONParser.BIGNUMBER:
-          double value = parser.getDouble();
+          double value = readDouble(parser, evt);
           switch(idx) {
             case 0: x = value; break;
             case 1: y = value; break;
@@ -117,6 +480,22 @@ public class GeoJSONReader implements ShapeReader {
     return;
   }
 
+  /**
+   * Reads the current number, of the given event. Unlike {@link JSONParser#getDouble()}, this doesn't allocate a
+   * String for each, which matters for the many coordinates of large geometries.
+   */
+  protected double readDouble(JSONParser parser, int evt) throws IOException {
+    if (evt == JSONParser.LONG || evt == JSONParser.NUMBER) {
+      CharArr chars = parser.getNumberChars();// the parser's own buffer
+      double value = FastDoubleParser.parse(chars.getArray(), chars.getStart(), chars.getEnd());
+      if (!Double.isNaN(value)) {
+        return value;
+      }
+      return Double.parseDouble(chars.toString());// unusual
+    }
+    return parser.getDouble();
+  }
+
   protected void readCoordListXYZ(JSONParser parser, ShapeFactory.PointsBuilder pointsBuilder) throws IOException, ParseException {
     assert (parser.lastEvent() == JSONParser.ARRAY_START);
 
@@ -397,4 +776,9 @@ public class GeoJSONReader implements ShapeReader {
       evt = parser.nextEvent();
     }
   }
+
+  private static final class Scratch {
+    final char[] parserBuffer = new char[8192];
+    boolean inUse;
+  }
 }
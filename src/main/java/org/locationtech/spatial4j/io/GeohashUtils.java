@@ -22,8 +22,13 @@ package org.locationtech.spatial4j.io;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.SpatialRelation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
 
 /**
  * Utilities for encoding and decoding <a href="http://en.wikipedia.org/wiki/Geohash">geohashes</a>.
@@ -47,6 +52,11 @@ public class GeohashUtils {
     public static final int MAX_PRECISION = 24;//DWS: I forget what level results in needless more precision but it's about this
     private static final int[] BITS = {16, 8, 4, 2, 1}; //二进制 2^4(10000) 2^3 2^2 2^1 2^0  之和31（0-31）
 
+    /** The maximum precision (characters) of a geohash in a long; 60 bits. */
+    public static final int MAX_LONG_PRECISION = 12;
+    private static final int LONG_BITS = MAX_LONG_PRECISION * 5;
+    private static final int AXIS_BITS = LONG_BITS / 2;
+
     static {
         BASE_32_IDX = new int[BASE_32[BASE_32.length - 1] - BASE_32[0] + 1];
         assert BASE_32_IDX.length < 100;//reasonable length
@@ -71,47 +81,287 @@ public class GeohashUtils {
     }
 
     public static String encodeLatLon(double latitude, double longitude, int precision) {
-        double[] latInterval = {-90.0, 90.0};
-        double[] lngInterval = {-180.0, 180.0};
+        final char[] geohash = new char[precision];
+        encodeLatLon(latitude, longitude, precision, geohash, 0);
+        return new String(geohash);
+    }
 
-        final StringBuilder geohash = new StringBuilder(precision);
+    /**
+     * Encodes the given latitude and longitude into a geohash of <code>precision</code> characters,
+     * written to <code>dest</code> starting at <code>offset</code>. Nothing is allocated.
+     *
+     * @return the offset just past the last character written
+     */
+    public static int encodeLatLon(double latitude, double longitude, int precision, char[] dest, int offset) {
+        if (precision == 0)
+            return offset;
+        if (precision <= MAX_LONG_PRECISION) {
+            return toChars(encodeLatLonLong(latitude, longitude, precision), precision, dest, offset);
+        }
+        // too many bits for a long; bisect
+        double minY = -90, maxY = 90, minX = -180, maxX = 180;
         boolean isEven = true;
-
-        int bit = 0;
-        int ch = 0;
-
-        while (geohash.length() < precision) {
-            double mid = 0.0;
-            if (isEven) { //偶数 计算经度
-                mid = (lngInterval[0] + lngInterval[1]) / 2D;
-                if (longitude > mid) {
-                    ch |= BITS[bit];
-                    lngInterval[0] = mid;
-                } else {
-                    lngInterval[1] = mid;
-                }
-            } else {//奇数 计算维度
-                mid = (latInterval[0] + latInterval[1]) / 2D;
-                if (latitude > mid) {
-                    ch |= BITS[bit];
-                    latInterval[0] = mid;
-                } else {
-                    latInterval[1] = mid;
+        final int end = offset + precision;
+        for (int i = offset; i < end; i++) {
+            int ch = 0;
+            for (int mask : BITS) {
+                if (isEven) { //偶数 计算经度
+                    double mid = (minX + maxX) / 2D;
+                    if (longitude > mid) {
+                        ch |= mask;
+                        minX = mid;
+                    } else {
+                        maxX = mid;
+                    }
+                } else {//奇数 计算维度
+                    double mid = (minY + maxY) / 2D;
+                    if (latitude > mid) {
+                        ch |= mask;
+                        minY = mid;
+                    } else {
+                        maxY = mid;
+                    }
                 }
+                isEven = !isEven;
             }
+            dest[i] = BASE_32[ch];
+        }
+        return end;
+    }
 
-            isEven = !isEven;
+    /**
+     * Encodes the given latitude and longitude into the bits of a geohash of <code>precision</code>
+     * characters (at most {@link #MAX_LONG_PRECISION}): 5 bits per character, interleaving longitude
+     * and latitude bits starting with longitude, right-aligned in the long. The precision isn't
+     * recorded in the result. Cells are the same as {@link #encodeLatLon(double, double, int)}'s and
+     * longs of the same precision sort the same as their geohash strings.
+     */
+    public static long encodeLatLonLong(double latitude, double longitude, int precision) {
+        checkLongPrecision(precision);
+        final long x = quantize(longitude, -180, 360);
+        final long y = quantize(latitude, -90, 180);
+        final long bits = (spreadBits(x) << 1) | spreadBits(y);
+        return bits >>> (LONG_BITS - precision * 5);
+    }
 
-            if (bit < 4) {//计算合并出了一位base32，5位2进制一位32编码
-                bit++;
-            } else {
-                geohash.append(BASE_32[ch]);
-                bit = 0;
-                ch = 0;
+    /**
+     * Decodes the bits of a geohash of <code>precision</code> characters, as produced by
+     * {@link #encodeLatLonLong(double, double, int)}, into its cell. If <code>reuse</code> is given
+     * then it's reset and returned, thus avoiding allocation.
+     */
+    public static Rectangle decodeBoundary(long geohash, int precision, SpatialContext ctx, Rectangle reuse) {
+        checkLongPrecision(precision);
+        final int nBits = precision * 5;
+        final double width = 360.0 / (1L << lonBits(nBits));
+        final double height = 180.0 / (1L << latBits(nBits));
+        final long x = xIndex(geohash, nBits);
+        final long y = yIndex(geohash, nBits);
+        final double minX = -180 + x * width;
+        final double minY = -90 + y * height;
+        if (reuse == null) {
+            return ctx.makeRectangle(minX, minX + width, minY, minY + height);
+        }
+        reuse.reset(minX, minX + width, minY, minY + height);
+        return reuse;
+    }
+
+    /**
+     * Decodes the bits of a geohash of <code>precision</code> characters into the center of its
+     * cell. If <code>reuse</code> is given then it's reset and returned, thus avoiding allocation.
+     */
+    public static Point decode(long geohash, int precision, SpatialContext ctx, Point reuse) {
+        checkLongPrecision(precision);
+        final int nBits = precision * 5;
+        final double width = 360.0 / (1L << lonBits(nBits));
+        final double height = 180.0 / (1L << latBits(nBits));
+        final long x = xIndex(geohash, nBits);
+        final long y = yIndex(geohash, nBits);
+        final double lon = -180 + x * width + width / 2;
+        final double lat = -90 + y * height + height / 2;
+        if (reuse == null) {
+            return ctx.makePoint(lon, lat);
+        }
+        reuse.reset(lon, lat);
+        return reuse;
+    }
+
+    /**
+     * The geohash of the same precision that is <code>dx</code> cells east and <code>dy</code> cells
+     * north (negative for west and south) of the given one, computed on the bits. Longitude wraps
+     * around the dateline. Returns -1 if the cell would be beyond a pole.
+     */
+    public static long adjacent(long geohash, int precision, int dx, int dy) {
+        checkLongPrecision(precision);
+        final int nBits = precision * 5;
+        final long y = yIndex(geohash, nBits) + dy;
+        if (y < 0 || y >= (1L << latBits(nBits)))
+            return -1;
+        final long x = (xIndex(geohash, nBits) + dx) & ((1L << lonBits(nBits)) - 1);
+        return interleave(x, y, nBits);
+    }
+
+    /**
+     * Writes the 3x3 block of geohashes centered on the given one to <code>dest</code> starting at
+     * <code>offset</code>, in rows from north to south and west to east within a row; the given
+     * geohash is at <code>offset + 4</code>. Cells beyond a pole are -1. Nothing is allocated.
+     *
+     * @return the offset just past the last cell written
+     */
+    public static int expand(long geohash, int precision, long[] dest, int offset) {
+        checkLongPrecision(precision);
+        final int nBits = precision * 5;
+        final long xMask = (1L << lonBits(nBits)) - 1;
+        final long yCount = 1L << latBits(nBits);
+        final long x = xIndex(geohash, nBits);
+        final long y = yIndex(geohash, nBits);
+        int i = offset;
+        for (int dy = 1; dy >= -1; dy--) {
+            final long ny = y + dy;
+            final boolean beyondPole = ny < 0 || ny >= yCount;
+            for (int dx = -1; dx <= 1; dx++) {
+                dest[i++] = beyondPole ? -1 : interleave((x + dx) & xMask, ny, nBits);
             }
         }
+        return i;
+    }
+
+    /**
+     * The 3x3 block of geohashes centered on the given one (of at most
+     * {@link #MAX_LONG_PRECISION} characters), in the order of
+     * {@link #expand(long, int, long[], int)}. Cells beyond a pole are null.
+     */
+    public static String[] expand(String geohash) {
+        final int precision = geohash.length();
+        final long[] cells = new long[9];
+        expand(toLong(geohash), precision, cells, 0);
+        final String[] result = new String[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != -1)
+                result[i] = toGeohash(cells[i], precision);
+        }
+        return result;
+    }
+
+    /**
+     * Converts a geohash string of at most {@link #MAX_LONG_PRECISION} characters to its bits; the
+     * inverse of {@link #toGeohash(long, int)}. The precision is the string's length.
+     */
+    public static long toLong(CharSequence geohash) {
+        checkLongPrecision(geohash.length());
+        long bits = 0;
+        for (int i = 0; i < geohash.length(); i++) {
+            bits = (bits << 5) | base32Index(geohash.charAt(i));
+        }
+        return bits;
+    }
+
+    /** Converts the bits of a geohash of <code>precision</code> characters to a geohash string. */
+    public static String toGeohash(long geohash, int precision) {
+        final char[] chars = new char[precision];
+        toChars(geohash, precision, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Writes the <code>precision</code> characters of the geohash bits to <code>dest</code> starting
+     * at <code>offset</code>. Nothing is allocated.
+     *
+     * @return the offset just past the last character written
+     */
+    public static int toChars(long geohash, int precision, char[] dest, int offset) {
+        checkLongPrecision(precision);
+        for (int i = offset + precision - 1; i >= offset; i--) {
+            dest[i] = BASE_32[(int) (geohash & 31)];
+            geohash >>>= 5;
+        }
+        return offset + precision;
+    }
 
-        return geohash.toString();
+    private static int base32Index(char c) {
+        //转换小写，避免使用 toLowerCase()
+        if (c >= 'A' && c <= 'Z')
+            c -= ('A' - 'a');
+        final int idx = c - BASE_32[0];
+        if (idx < 0 || idx >= BASE_32_IDX.length || BASE_32_IDX[idx] < 0)
+            throw new IllegalArgumentException("Invalid geohash character: " + c);
+        return BASE_32_IDX[idx];
+    }
+
+    private static void checkLongPrecision(int precision) {
+        if (precision < 1 || precision > MAX_LONG_PRECISION)
+            throw new IllegalArgumentException("Geohash precision must be 1-" + MAX_LONG_PRECISION + ": " + precision);
+    }
+
+    /**
+     * The index of the cell of {@link #AXIS_BITS} bits containing <code>v</code> along an axis
+     * starting at <code>min</code>.  Matches bisecting with "<code>v &gt; mid</code>": a value on a
+     * cell boundary belongs to the lower cell. Cell boundaries are exact in double precision, so the
+     * estimate is corrected against them.
+     */
+    private static long quantize(double v, double min, double range) {
+        final long maxIdx = (1L << AXIS_BITS) - 1;
+        if (!(v > min)) // also NaN
+            return 0;
+        if (v >= min + range)
+            return maxIdx;
+        final double cellSize = range / (1L << AXIS_BITS);
+        long idx = (long) Math.ceil((v - min) / cellSize) - 1;
+        if (idx < 0)
+            idx = 0;
+        else if (idx > maxIdx)
+            idx = maxIdx;
+        if (idx > 0 && v <= min + idx * cellSize)
+            idx--;
+        else if (idx < maxIdx && v > min + (idx + 1) * cellSize)
+            idx++;
+        return idx;
+    }
+
+    // Of the geohash bits, longitude has the most significant one, and the extra one if odd.
+    private static int lonBits(int nBits) {
+        return (nBits + 1) / 2;
+    }
+
+    private static int latBits(int nBits) {
+        return nBits / 2;
+    }
+
+    /** The longitude cell index of geohash bits of length <code>nBits</code>. */
+    private static long xIndex(long geohash, int nBits) {
+        return compactBits((nBits & 1) == 0 ? geohash >>> 1 : geohash);
+    }
+
+    /** The latitude cell index of geohash bits of length <code>nBits</code>. */
+    private static long yIndex(long geohash, int nBits) {
+        return compactBits((nBits & 1) == 0 ? geohash : geohash >>> 1);
+    }
+
+    private static long interleave(long x, long y, int nBits) {
+        return (nBits & 1) == 0
+                ? (spreadBits(x) << 1) | spreadBits(y)
+                : spreadBits(x) | (spreadBits(y) << 1);
+    }
+
+    /** Spreads the low 32 bits of <code>v</code> to the even bits of the result (Morton code). */
+    static long spreadBits(long v) {
+        v &= 0x00000000FFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    /** The inverse of {@link #spreadBits(long)}: gathers the even bits of <code>v</code>. */
+    static long compactBits(long v) {
+        v &= 0x5555555555555555L;
+        v = (v | (v >>> 1)) & 0x3333333333333333L;
+        v = (v | (v >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v >>> 4)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v >>> 8)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v >>> 16)) & 0x00000000FFFFFFFFL;
+        return v;
     }
 
     /**
@@ -176,6 +426,119 @@ public class GeohashUtils {
         return hashes;
     }
 
+    /**
+     * Computes geohash cells covering <code>shape</code>, returned as ranges of the geohash bits of
+     * <code>maxLevel</code> characters (see {@link #encodeLatLonLong(double, double, int)}), suitable
+     * for range scans over keys indexed at that precision. Cells are refined best-first, coarsest
+     * first, through the 32 children of each geohash: a cell within the shape
+     * ({@link SpatialRelation#CONTAINS}) isn't refined further, a disjoint one is dropped, and the
+     * others are refined as long as the number of cells stays within <code>maxCells</code> and
+     * their level within <code>maxLevel</code>. The result thus covers the shape but may extend
+     * beyond it. This is intended for geodetic (lat-lon) contexts.
+     *
+     * @return sorted pairs of inclusive [min, max] ranges, merged when adjacent; empty if the shape
+     *         is disjoint from the world
+     */
+    public static long[] cover(Shape shape, int maxCells, int maxLevel, SpatialContext ctx) {
+        checkLongPrecision(maxLevel);
+        if (maxCells < 1)
+            throw new IllegalArgumentException("maxCells must be >= 1: " + maxCells);
+        final List<CoverCell> cells = new ArrayList<CoverCell>();
+        final SpatialRelation worldRel = shape.relate(ctx.getWorldBounds());
+        if (worldRel == SpatialRelation.DISJOINT)
+            return new long[0];
+        final PriorityQueue<CoverCell> candidates = new PriorityQueue<CoverCell>();
+        offerCell(new CoverCell(0, 0, worldRel), maxLevel, candidates, cells);
+
+        final Rectangle scratch = ctx.makeRectangle(-180, 180, -90, 90);
+        final CoverCell[] children = new CoverCell[BASE_32.length];
+        CoverCell cell;
+        while ((cell = candidates.poll()) != null) {
+            final int childLevel = cell.level + 1;
+            int numChildren = 0;
+            for (int i = 0; i < BASE_32.length; i++) {
+                final long child = (cell.geohash << 5) | i;
+                final SpatialRelation rel = shape.relate(decodeBoundary(child, childLevel, ctx, scratch));
+                if (rel != SpatialRelation.DISJOINT)
+                    children[numChildren++] = new CoverCell(child, childLevel, rel);
+            }
+            if (cells.size() + candidates.size() + numChildren <= maxCells) {
+                for (int i = 0; i < numChildren; i++) {
+                    offerCell(children[i], maxLevel, candidates, cells);
+                }
+            } else {
+                cells.add(cell);// too many; keep the coarser cell
+            }
+        }
+        return toRanges(cells, maxLevel);
+    }
+
+    private static void offerCell(CoverCell cell, int maxLevel, PriorityQueue<CoverCell> candidates, List<CoverCell> cells) {
+        if (cell.rel == SpatialRelation.CONTAINS || cell.level == maxLevel)
+            cells.add(cell);
+        else
+            candidates.add(cell);
+    }
+
+    private static long[] toRanges(List<CoverCell> cells, int level) {
+        final long[] ranges = new long[cells.size() * 2];
+        int n = 0;
+        for (CoverCell cell : cells) {
+            final int shift = (level - cell.level) * 5;
+            ranges[n++] = cell.geohash << shift;
+            ranges[n++] = ((cell.geohash + 1) << shift) - 1;
+        }
+        sortRanges(ranges, n / 2);
+        int merged = 0;// number of longs in merged ranges
+        for (int i = 0; i < n; i += 2) {
+            if (merged > 0 && ranges[i] == ranges[merged - 1] + 1) {
+                ranges[merged - 1] = ranges[i + 1];
+            } else {
+                ranges[merged++] = ranges[i];
+                ranges[merged++] = ranges[i + 1];
+            }
+        }
+        return merged == n ? ranges : Arrays.copyOf(ranges, merged);
+    }
+
+    /** Sorts non-overlapping [min, max] pairs by min. */
+    private static void sortRanges(long[] ranges, int numRanges) {
+        final long[] mins = new long[numRanges];
+        for (int i = 0; i < numRanges; i++) {
+            mins[i] = ranges[i * 2];
+        }
+        final long[] maxs = new long[numRanges];
+        for (int i = 0; i < numRanges; i++) {
+            maxs[i] = ranges[i * 2 + 1];
+        }
+        Arrays.sort(mins);
+        Arrays.sort(maxs);// since they don't overlap, the maxs sort the same
+        for (int i = 0; i < numRanges; i++) {
+            ranges[i * 2] = mins[i];
+            ranges[i * 2 + 1] = maxs[i];
+        }
+    }
+
+    /** A geohash cell while computing a cover, ordered coarsest first. */
+    private static final class CoverCell implements Comparable<CoverCell> {
+        final long geohash;
+        final int level;
+        final SpatialRelation rel;
+
+        CoverCell(long geohash, int level, SpatialRelation rel) {
+            this.geohash = geohash;
+            this.level = level;
+            this.rel = rel;
+        }
+
+        @Override
+        public int compareTo(CoverCell o) {
+            if (level != o.level)
+                return level < o.level ? -1 : 1;
+            return geohash < o.geohash ? -1 : (geohash == o.geohash ? 0 : 1);
+        }
+    }
+
     public static double[] lookupDegreesSizeForHashLen(int hashLen) {
         return new double[]{hashLenToLatHeight[hashLen], hashLenToLonWidth[hashLen]};
     }
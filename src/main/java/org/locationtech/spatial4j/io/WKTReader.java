@@ -20,6 +20,7 @@ import org.locationtech.spatial4j.shape.ShapeFactory;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
 import java.text.ParseException;
 
 /**
@@ -45,7 +46,8 @@ import java.text.ParseException;
  *
  * <p>
  * Most users of this class will call just one method: {@link #parse(String)}, or
- * {@link #parseIfSupported(String)} to not fail if it isn't parse-able.
+ * {@link #parseIfSupported(String)} to not fail if it isn't parse-able. Large WKT can be parsed
+ * from a stream with {@link #parse(Readable)}.
  *
  * <p>
  * To support more shapes, extend this class and override
@@ -56,6 +58,9 @@ import java.text.ParseException;
  * Note, instances of this base class are threadsafe.
  */
 public class WKTReader implements ShapeReader {
+  /** The initial size of the window of characters for {@link #parse(Readable)}. */
+  public static final int STREAM_WINDOW_SIZE = 8 * 1024;
+
   protected final SpatialContext ctx;
   protected final ShapeFactory shapeFactory;
 
@@ -81,9 +86,17 @@ public class WKTReader implements ShapeReader {
     Shape shape = parseIfSupported(wktString);// sets rawString & offset
     if (shape != null)
       return shape;
-    String shortenedString =
-        (wktString.length() <= 128 ? wktString : wktString.substring(0, 128 - 3) + "...");
-    throw new ParseException("Unknown Shape definition [" + shortenedString + "]", 0);
+    throw unknownShape(wktString, 0);
+  }
+
+  /** The message shows up to 128 chars of the WKT, from its first non-whitespace char. */
+  private static ParseException unknownShape(String wkt, int offset) {
+    int start = 0;
+    while (start < wkt.length() && Character.isWhitespace(wkt.charAt(start)))
+      start++;
+    wkt = wkt.substring(start);
+    String shortenedString = (wkt.length() <= 128 ? wkt : wkt.substring(0, 128 - 3) + "...");
+    return new ParseException("Unknown Shape definition [" + shortenedString + "]", offset);
   }
 
   /**
@@ -97,18 +110,46 @@ public class WKTReader implements ShapeReader {
    * @throws ParseException Thrown if there is an error in the Shape definition
    */
   public Shape parseIfSupported(String wktString) throws ParseException, InvalidShapeException {
-    State state = newState(wktString);
+    return parseIfSupported(newState(wktString));
+  }
+
+  /**
+   * Parses WKT from {@code source} (e.g. a {@link Reader} or {@link CharBuffer}) in a streaming
+   * fashion, without first reading it all into a String. Coordinates are passed to the
+   * {@link ShapeFactory}'s builders as they are read.
+   *
+   * @return Non-null Shape
+   * @throws ParseException Thrown if there is an error in the Shape definition, or the shape is
+   *                        unknown
+   */
+  public Shape parse(Readable source) throws IOException, ParseException, InvalidShapeException {
+    State state = newState(source);
+    try {
+      Shape shape = parseIfSupported(state);
+      if (shape == null)
+        throw unknownShape(state.headText(129), state.offset);
+      return shape;
+    } catch (StreamIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Parses the shape at the current position of {@code state} to its end, returning null if it
+   * isn't supported.
+   */
+  protected Shape parseIfSupported(State state) throws ParseException, InvalidShapeException {
     state.nextIfWhitespace();// leading
     if (state.eof())
       return null;
     // shape types must start with a letter
-    if (!Character.isLetter(state.rawString.charAt(state.offset)))
+    if (!Character.isLetter(state.peek()))
       return null;
     String shapeType = state.nextWord();
     Shape result = null;
     try {
       result = parseShapeByType(state, shapeType);
-    } catch (ParseException | InvalidShapeException e) {
+    } catch (ParseException | InvalidShapeException | StreamIOException e) {
       throw e;
     } catch (IllegalArgumentException e) { // NOTE: JTS Throws IAE for bad WKT
       throw new InvalidShapeException(e.getMessage(), e);
@@ -133,6 +174,14 @@ public class WKTReader implements ShapeReader {
     return new State(wktString);
   }
 
+  /**
+   * (internal) Creates a new streaming State. It's only called by {@link #parse(Readable)}. This
+   * is an extension point for subclassing.
+   */
+  protected State newState(Readable source) {
+    return new State(source);
+  }
+
   /**
    * (internal) Parses the remainder of a shape definition following the shape's name given as
    * {@code shapeType} already consumed via {@link State#nextWord()}. If it's able to parse the
@@ -419,17 +468,40 @@ public class WKTReader implements ShapeReader {
     return polygonBuilder;
   }
 
-  /** The parse state. */
+  /**
+   * The parse state. It reads either from a String or, in a streaming mode, from a {@link Readable}
+   * (e.g. a {@link Reader} or {@link CharBuffer}) through a window of {@link #STREAM_WINDOW_SIZE}
+   * characters that is refilled as parsing advances. The window only grows if a single token (or
+   * {@link #nextSubShapeString()}) doesn't fit.
+   */
   public class State {
-    /** Set in {@link #parseIfSupported(String)}. */
+    /** Set in {@link #parseIfSupported(String)}. Null in streaming mode. */
     public String rawString;
-    /** Offset of the next char in {@link #rawString} to be read. */
+    /**
+     * Offset of the next char in {@link #rawString} to be read. In streaming mode it's the offset
+     * in the stream and shouldn't be modified.
+     */
     public int offset;
     /** Dimensionality specifier (e.g. 'Z', or 'M') following a shape type name. */
     public String dimension;
 
+    // streaming mode:
+    private final Readable source;// null if not streaming
+    private CharBuffer window;// chars [bufStart, bufStart + window.position()) of the stream
+    private int bufStart;
+    private boolean sourceEof;
+    // a copy of the number being parsed from rawString
+    private char[] numberChars = new char[32];
+
     public State(String rawString) {
       this.rawString = rawString;
+      this.source = null;
+    }
+
+    /** Streaming mode; reads from {@code source} as needed. */
+    public State(Readable source) {
+      this.source = source;
+      this.window = CharBuffer.allocate(STREAM_WINDOW_SIZE);
     }
 
     public SpatialContext getCtx() {
@@ -440,6 +512,73 @@ public class WKTReader implements ShapeReader {
       return WKTReader.this;
     }
 
+    /**
+     * Is the char at offset {@code i} available, reading more from the source if needed? Chars
+     * from {@code keepFrom} onwards are retained in the window.
+     */
+    private boolean has(int i, int keepFrom) {
+      if (source == null)
+        return i < rawString.length();
+      return i - bufStart < window.position() || fill(i, keepFrom);
+    }
+
+    /** The char at offset {@code i}, which must have been checked with {@link #has(int, int)}. */
+    private char charAt(int i) {
+      return source == null ? rawString.charAt(i) : window.get(i - bufStart);
+    }
+
+    private boolean fill(int i, int keepFrom) {
+      assert keepFrom <= i && keepFrom >= bufStart;
+      try {
+        while (!sourceEof && i - bufStart >= window.position()) {
+          // discard what isn't needed anymore
+          if (keepFrom > bufStart) {
+            window.flip();
+            window.position(keepFrom - bufStart);
+            window.compact();
+            bufStart = keepFrom;
+          }
+          if (!window.hasRemaining()) {// a token longer than the window
+            CharBuffer bigger = CharBuffer.allocate(window.capacity() * 2);
+            window.flip();
+            bigger.put(window);
+            window = bigger;
+          }
+          if (source.read(window) < 0)
+            sourceEof = true;
+        }
+      } catch (IOException e) {
+        throw new StreamIOException(e);
+      }
+      return i - bufStart < window.position();
+    }
+
+    /** Returns the chars from {@code start} to {@code end} (exclusive); they must be available. */
+    private String substring(int start, int end) {
+      if (source == null)
+        return rawString.substring(start, end);
+      return new String(window.array(), window.arrayOffset() + start - bufStart, end - start);
+    }
+
+    /**
+     * Returns up to {@code maxLength} chars from the first non-whitespace char, for error messages. In streaming
+     * mode the chars before the window are gone, so it's from the start of the window.
+     */
+    private String headText(int maxLength) {
+      int start = source == null ? 0 : bufStart;
+      while (has(start, start) && Character.isWhitespace(charAt(start)))
+        start++;
+      int end = start;
+      while (end - start < maxLength && has(end, start))
+        end++;
+      return substring(start, end);
+    }
+
+    /** Returns the char at {@link #offset} without consuming it, or -1 at EOF. */
+    public int peek() {
+      return has(offset, offset) ? charAt(offset) : -1;
+    }
+
     /**
      * Reads the word starting at the current character position. The word terminates once
      * {@link Character#isJavaIdentifierPart(char)} returns false (or EOF). {@link #offset} is
@@ -449,13 +588,13 @@ public class WKTReader implements ShapeReader {
      */
     public String nextWord() throws ParseException {
       int startOffset = offset;
-      while (offset < rawString.length()
-          && Character.isJavaIdentifierPart(rawString.charAt(offset))) {
+      while (has(offset, startOffset)
+          && Character.isJavaIdentifierPart(charAt(offset))) {
         offset++;
       }
       if (startOffset == offset)
         throw new ParseException("Word expected", startOffset);
-      String result = rawString.substring(startOffset, offset);
+      String result = substring(startOffset, offset);
       nextIfWhitespace();
       return result;
     }
@@ -473,7 +612,7 @@ public class WKTReader implements ShapeReader {
     public boolean nextIfEmptyAndSkipZM() throws ParseException {
       if (eof())
         return false;
-      char c = rawString.charAt(offset);
+      char c = charAt(offset);
       if (c == '(' || !Character.isJavaIdentifierPart(c))
         return false;
       String word = nextWord();
@@ -484,7 +623,7 @@ public class WKTReader implements ShapeReader {
 
       if (eof())
         return false;
-      c = rawString.charAt(offset);
+      c = charAt(offset);
       if (c == '(' || !Character.isJavaIdentifierPart(c))
         return false;
       word = nextWord();
@@ -505,21 +644,38 @@ public class WKTReader implements ShapeReader {
       skipDouble();
       if (startOffset == offset)
         throw new ParseException("Expected a number", offset);
-      double result;
-      try {
-        result = Double.parseDouble(rawString.substring(startOffset, offset));
-      } catch (Exception e) {
-        throw new ParseException(e.toString(), offset);
+      double result = parseDouble(startOffset, offset);
+      if (Double.isNaN(result)) {// unusual; let the JDK handle it (or report the error)
+        try {
+          result = Double.parseDouble(substring(startOffset, offset));
+        } catch (Exception e) {
+          throw new ParseException(e.toString(), offset);
+        }
       }
       nextIfWhitespace();
       return result;
     }
 
+    /**
+     * Parses the chars from {@code start} to {@code end} as a decimal number without allocating, or
+     * returns NaN if it's malformed or can't be converted exactly; see {@link FastDoubleParser#parse(char[], int, int)}.
+     */
+    private double parseDouble(int start, int end) {
+      if (source != null)
+        return FastDoubleParser.parse(window.array(), window.arrayOffset() + start - bufStart,
+            window.arrayOffset() + end - bufStart);
+      final int length = end - start;
+      if (numberChars.length < length)
+        numberChars = new char[Math.max(length, numberChars.length * 2)];
+      rawString.getChars(start, end, numberChars, 0);
+      return FastDoubleParser.parse(numberChars, 0, length);
+    }
+
     /** Advances offset forward until it points to a character that isn't part of a number. */
     public void skipDouble() {
       int startOffset = offset;
-      for (; offset < rawString.length(); offset++) {
-        char c = rawString.charAt(offset);
+      for (; has(offset, startOffset); offset++) {
+        char c = charAt(offset);
         if (!(Character.isDigit(c) || c == '.' || c == '-' || c == '+')) {
           // 'e' is okay as long as it isn't first
           if (offset != startOffset && (c == 'e' || c == 'E'))
@@ -549,7 +705,7 @@ public class WKTReader implements ShapeReader {
     public void nextExpect(char expected) throws ParseException {
       if (eof())
         throw new ParseException("Expected [" + expected + "] found EOF", offset);
-      char c = rawString.charAt(offset);
+      char c = charAt(offset);
       if (c != expected)
         throw new ParseException("Expected [" + expected + "] found [" + c + "]", offset);
       offset++;
@@ -558,7 +714,7 @@ public class WKTReader implements ShapeReader {
 
     /** If the string is consumed, i.e. at end-of-file. */
     public final boolean eof() {
-      return offset >= rawString.length();
+      return !has(offset, offset);
     }
 
     /**
@@ -569,7 +725,7 @@ public class WKTReader implements ShapeReader {
      * @return true if consumed
      */
     public boolean nextIf(char expected) {
-      if (!eof() && rawString.charAt(offset) == expected) {
+      if (!eof() && charAt(offset) == expected) {
         offset++;
         nextIfWhitespace();
         return true;
@@ -583,8 +739,8 @@ public class WKTReader implements ShapeReader {
      * most other parsing methods call it.</em>
      */
     public void nextIfWhitespace() {
-      for (; offset < rawString.length(); offset++) {
-        if (!Character.isWhitespace(rawString.charAt(offset))) {
+      for (; has(offset, offset); offset++) {
+        if (!Character.isWhitespace(charAt(offset))) {
           return;
         }
       }
@@ -613,8 +769,8 @@ public class WKTReader implements ShapeReader {
     public String nextSubShapeString() throws ParseException {
       int startOffset = offset;
       int parenStack = 0;// how many parenthesis levels are we in?
-      for (; offset < rawString.length(); offset++) {
-        char c = rawString.charAt(offset);
+      for (; has(offset, startOffset); offset++) {
+        char c = charAt(offset);
         if (c == ',') {
           if (parenStack == 0)
             break;
@@ -628,11 +784,23 @@ public class WKTReader implements ShapeReader {
       }
       if (parenStack != 0)
         throw new ParseException("Unbalanced parenthesis", startOffset);
-      return rawString.substring(startOffset, offset);
+      return substring(startOffset, offset);
     }
 
   }// class State
 
+  /** Wraps an IOException from the source of a streaming {@link State}. */
+  protected static class StreamIOException extends RuntimeException {
+    StreamIOException(IOException cause) {
+      super(cause);
+    }
+
+    @Override
+    public IOException getCause() {
+      return (IOException) super.getCause();
+    }
+  }
+
   @Override
   public String getFormatName() {
     return ShapeIO.WKT;
@@ -648,8 +816,15 @@ public class WKTReader implements ShapeReader {
     return buffer.toString();
   }
 
+  /**
+   * Streams the WKT with {@link #parse(Readable)}, but only if this is exactly a WKTReader. A subclass might
+   * override {@link #parseIfSupported(String)} or {@link #newState(String)}, so for them the reader is read into a
+   * String first, as before streaming was supported.
+   */
   @Override
   public Shape read(Reader reader) throws IOException, ParseException {
+    if (getClass() == WKTReader.class)
+      return parse((Readable) reader);
     return parse(readString(reader));
   }
 
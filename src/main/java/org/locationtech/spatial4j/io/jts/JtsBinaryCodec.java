@@ -12,8 +12,19 @@ import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
 import org.locationtech.spatial4j.exception.InvalidShapeException;
 import org.locationtech.spatial4j.io.BinaryCodec;
+import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.jts.JtsGeometry;
+import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.PrecisionModel;
 import com.vividsolutions.jts.io.InStream;
 import com.vividsolutions.jts.io.OutStream;
@@ -22,21 +33,50 @@ import com.vividsolutions.jts.io.WKBConstants;
 import com.vividsolutions.jts.io.WKBReader;
 import com.vividsolutions.jts.io.WKBWriter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Writes shapes in WKB, if it isn't otherwise supported by the superclass.
+ * <p>
+ * If {@link JtsSpatialContextFactory#binaryCodecDelta} is set (which requires that the
+ * {@link JtsSpatialContextFactory#precisionModel} be {@link PrecisionModel#FIXED fixed}), geometries are instead
+ * written compactly: each coordinate is rounded to the model's scale, and each coordinate sequence (e.g. a polygon
+ * ring) is written as the differences between successive coordinates, as zig-zag variable length integers.
+ * Geometries made with that precision model thus lose nothing. Only X and Y are written. See
+ * {@link #writeJtsGeomDelta(DataOutput, Shape)}. Both forms are read regardless of the settings.
  */
 public class JtsBinaryCodec extends BinaryCodec {
 
+  protected static final byte TYPE_GEOM_DELTA = 7;
+
+  // Geometry types in TYPE_GEOM_DELTA; the same as WKB's
+  private static final byte
+      DELTA_POINT = 1,
+      DELTA_LINESTRING = 2,
+      DELTA_POLYGON = 3,
+      DELTA_MULTIPOINT = 4,
+      DELTA_MULTILINESTRING = 5,
+      DELTA_MULTIPOLYGON = 6,
+      DELTA_COLLECTION = 7;
+
   protected final boolean useFloat;//instead of double
+  /** For TYPE_GEOM_DELTA; 0 if the precision model isn't fixed. */
+  protected final double deltaScale;
+  /** Whether geometries are written as TYPE_GEOM_DELTA instead of TYPE_GEOM (WKB). */
+  protected final boolean writeDelta;
 
   public JtsBinaryCodec(JtsSpatialContext ctx, JtsSpatialContextFactory factory) {
     super(ctx, factory);
     //note: ctx.geometryFactory hasn't been set yet
     useFloat = (factory.precisionModel.getType() == PrecisionModel.FLOATING_SINGLE);
+    deltaScale = factory.precisionModel.isFloating() ? 0 : factory.precisionModel.getScale();
+    writeDelta = factory.binaryCodecDelta;
+    if (writeDelta && deltaScale == 0)
+      throw new IllegalArgumentException("binaryCodecDelta requires a fixed precisionModel");
   }
 
   @Override
@@ -46,6 +86,13 @@ public class JtsBinaryCodec extends BinaryCodec {
     return super.readDim(dataInput);
   }
 
+  @Override
+  protected double readDim(ByteBuffer byteBuffer) {
+    if (useFloat)
+      return byteBuffer.getFloat();
+    return super.readDim(byteBuffer);
+  }
+
   @Override
   protected void writeDim(DataOutput dataOutput, double v) throws IOException {
     if (useFloat)
@@ -58,45 +105,101 @@ public class JtsBinaryCodec extends BinaryCodec {
   protected byte typeForShape(Shape s) {
     byte type = super.typeForShape(s);
     if (type == 0) {
-      type = TYPE_GEOM;//handles everything
+      type = writeDelta ? TYPE_GEOM_DELTA : TYPE_GEOM;//handles everything
     }
     return type;
   }
 
+  @Override
+  protected Rectangle boundingBoxAsRead(Shape s, byte[] body) {
+    if (useFloat || writeDelta)//dims were rounded, so the shape might have moved a little
+      return readShape(ByteBuffer.wrap(body)).getBoundingBox();
+    return super.boundingBoxAsRead(s, body);
+  }
+
+  @Override
+  protected int numPoints(Shape s) {
+    if (s instanceof JtsGeometry)
+      return ((JtsGeometry) s).getGeom().getNumPoints();
+    return super.numPoints(s);
+  }
+
   @Override
   protected Shape readShapeByTypeIfSupported(final DataInput dataInput, byte type) throws IOException {
-    if (type != TYPE_GEOM)
-      return super.readShapeByTypeIfSupported(dataInput, type);
-    return readJtsGeom(dataInput);
+    switch (type) {
+      case TYPE_GEOM: return readJtsGeom(dataInput);
+      case TYPE_GEOM_DELTA:
+        byte[] bytes = new byte[dataInput.readInt()];
+        dataInput.readFully(bytes);
+        return readJtsGeomDelta(ByteBuffer.wrap(bytes));
+      default: return super.readShapeByTypeIfSupported(dataInput, type);
+    }
+  }
+
+  @Override
+  protected Shape readShapeByTypeIfSupported(ByteBuffer byteBuffer, byte type) {
+    switch (type) {
+      case TYPE_GEOM: return readJtsGeom(byteBuffer);
+      case TYPE_GEOM_DELTA:
+        byteBuffer.getInt();//length
+        return readJtsGeomDelta(byteBuffer);
+      default: return super.readShapeByTypeIfSupported(byteBuffer, type);
+    }
   }
 
   @Override
   protected boolean writeShapeByTypeIfSupported(DataOutput dataOutput, Shape s, byte type) throws IOException {
-    if (type != TYPE_GEOM)
-      return super.writeShapeByTypeIfSupported(dataOutput, s, type);
-    writeJtsGeom(dataOutput, s);
-    return true;
+    switch (type) {
+      case TYPE_GEOM: writeJtsGeom(dataOutput, s); return true;
+      case TYPE_GEOM_DELTA: writeJtsGeomDelta(dataOutput, s); return true;
+      default: return super.writeShapeByTypeIfSupported(dataOutput, s, type);
+    }
   }
 
   public Shape readJtsGeom(final DataInput dataInput) throws IOException {
-    JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
-    WKBReader reader = new WKBReader(ctx.getGeometryFactory());
+    return readJtsGeom(new InStream() {//a strange JTS abstraction
+      boolean first = true;
+      @Override
+      public void read(byte[] buf) throws IOException {
+        if (first) {//we don't write JTS's leading BOM so synthesize reading it
+          if (buf.length != 1)
+            throw new IllegalStateException("Expected initial read of one byte, not: " + buf.length);
+          buf[0] = WKBConstants.wkbXDR;//0
+          first = false;
+        } else {
+          //TODO for performance, specialize for common array lengths: 1, 4, 8
+          dataInput.readFully(buf);
+        }
+      }
+    });
+  }
+
+  /** Reads WKB straight from the buffer, advancing its position. */
+  public Shape readJtsGeom(final ByteBuffer byteBuffer) {
     try {
-      InStream inStream = new InStream() {//a strange JTS abstraction
+      return readJtsGeom(new InStream() {
         boolean first = true;
         @Override
-        public void read(byte[] buf) throws IOException {
-          if (first) {//we don't write JTS's leading BOM so synthesize reading it
+        public void read(byte[] buf) {
+          if (first) {//see above
             if (buf.length != 1)
               throw new IllegalStateException("Expected initial read of one byte, not: " + buf.length);
             buf[0] = WKBConstants.wkbXDR;//0
             first = false;
           } else {
-            //TODO for performance, specialize for common array lengths: 1, 4, 8
-            dataInput.readFully(buf);
+            byteBuffer.get(buf);
           }
         }
-      };
+      });
+    } catch (IOException e) {
+      throw new InvalidShapeException(e.toString(), e);//the InStream above doesn't throw it
+    }
+  }
+
+  protected Shape readJtsGeom(InStream inStream) throws IOException {
+    JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
+    WKBReader reader = new WKBReader(ctx.getGeometryFactory());
+    try {
       Geometry geom = reader.read(inStream);
       //false: don't check for dateline-180 cross or multi-polygon overlaps; this won't happen
       // once it gets written, and we're reading it now
@@ -124,4 +227,161 @@ public class JtsBinaryCodec extends BinaryCodec {
       }
     });
   }
+
+  /**
+   * Writes the geometry compactly (see the class javadoc), preceded by the length in bytes of what follows,
+   * and the scale. Requires a fixed precision model.
+   */
+  public void writeJtsGeomDelta(DataOutput dataOutput, Shape s) throws IOException {
+    if (deltaScale == 0)
+      throw new IllegalStateException("Requires a fixed precision model");
+    JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
+    Geometry geom = ctx.getGeometryFrom(s);//might even translate it
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    writeDelta(baos, geom);
+    dataOutput.writeInt(8 + baos.size());
+    dataOutput.writeDouble(deltaScale);//so that it can be read with another precision model
+    dataOutput.write(baos.toByteArray());
+  }
+
+  private void writeDelta(ByteArrayOutputStream out, Geometry geom) {
+    if (geom instanceof com.vividsolutions.jts.geom.Point) {
+      out.write(DELTA_POINT);
+      writeSequence(out, ((com.vividsolutions.jts.geom.Point) geom).getCoordinateSequence());
+    } else if (geom instanceof LineString) {//includes LinearRing
+      out.write(DELTA_LINESTRING);
+      writeSequence(out, ((LineString) geom).getCoordinateSequence());
+    } else if (geom instanceof Polygon) {
+      out.write(DELTA_POLYGON);
+      Polygon poly = (Polygon) geom;
+      if (poly.isEmpty()) {
+        writeVarLong(out, 0);
+        return;
+      }
+      writeVarLong(out, 1 + poly.getNumInteriorRing());
+      writeSequence(out, poly.getExteriorRing().getCoordinateSequence());
+      for (int i = 0; i < poly.getNumInteriorRing(); i++)
+        writeSequence(out, poly.getInteriorRingN(i).getCoordinateSequence());
+    } else if (geom instanceof GeometryCollection) {
+      if (geom instanceof MultiPoint)
+        out.write(DELTA_MULTIPOINT);
+      else if (geom instanceof MultiLineString)
+        out.write(DELTA_MULTILINESTRING);
+      else if (geom instanceof MultiPolygon)
+        out.write(DELTA_MULTIPOLYGON);
+      else
+        out.write(DELTA_COLLECTION);
+      writeVarLong(out, geom.getNumGeometries());
+      for (int i = 0; i < geom.getNumGeometries(); i++)
+        writeDelta(out, geom.getGeometryN(i));
+    } else {
+      throw new IllegalArgumentException("Unsupported geometry " + geom.getGeometryType());
+    }
+  }
+
+  private void writeSequence(ByteArrayOutputStream out, CoordinateSequence seq) {
+    writeVarLong(out, seq.size());
+    long lastX = 0, lastY = 0;
+    for (int i = 0; i < seq.size(); i++) {
+      long x = Math.round(seq.getX(i) * deltaScale);
+      long y = Math.round(seq.getY(i) * deltaScale);
+      writeVarLong(out, zigZag(x - lastX));
+      writeVarLong(out, zigZag(y - lastY));
+      lastX = x;
+      lastY = y;
+    }
+  }
+
+  /** Reads a geometry written by {@link #writeJtsGeomDelta(DataOutput, Shape)}, after its length. */
+  protected Shape readJtsGeomDelta(ByteBuffer byteBuffer) {
+    JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
+    double scale = byteBuffer.getDouble();
+    Geometry geom = readDelta(byteBuffer, ctx.getGeometryFactory(), scale);
+    //false: don't check for dateline-180 cross or multi-polygon overlaps; see readJtsGeom
+    return ctx.makeShape(geom, false, false);
+  }
+
+  private Geometry readDelta(ByteBuffer byteBuffer, GeometryFactory geometryFactory, double scale) {
+    byte type = byteBuffer.get();
+    switch (type) {
+      case DELTA_POINT:
+        return geometryFactory.createPoint(readSequence(byteBuffer, geometryFactory, scale));
+      case DELTA_LINESTRING:
+        return geometryFactory.createLineString(readSequence(byteBuffer, geometryFactory, scale));
+      case DELTA_POLYGON: {
+        int numRings = (int) readVarLong(byteBuffer);
+        if (numRings == 0)
+          return geometryFactory.createPolygon((LinearRing) null, null);
+        LinearRing shell = geometryFactory.createLinearRing(readSequence(byteBuffer, geometryFactory, scale));
+        LinearRing[] holes = new LinearRing[numRings - 1];
+        for (int i = 0; i < holes.length; i++)
+          holes[i] = geometryFactory.createLinearRing(readSequence(byteBuffer, geometryFactory, scale));
+        return geometryFactory.createPolygon(shell, holes);
+      }
+      case DELTA_MULTIPOINT:
+      case DELTA_MULTILINESTRING:
+      case DELTA_MULTIPOLYGON:
+      case DELTA_COLLECTION: {
+        int numGeoms = (int) readVarLong(byteBuffer);
+        Geometry[] geoms;
+        switch (type) {
+          case DELTA_MULTIPOINT: geoms = new com.vividsolutions.jts.geom.Point[numGeoms]; break;
+          case DELTA_MULTILINESTRING: geoms = new LineString[numGeoms]; break;
+          case DELTA_MULTIPOLYGON: geoms = new Polygon[numGeoms]; break;
+          default: geoms = new Geometry[numGeoms];
+        }
+        for (int i = 0; i < numGeoms; i++)
+          geoms[i] = readDelta(byteBuffer, geometryFactory, scale);
+        switch (type) {
+          case DELTA_MULTIPOINT: return geometryFactory.createMultiPoint((com.vividsolutions.jts.geom.Point[]) geoms);
+          case DELTA_MULTILINESTRING: return geometryFactory.createMultiLineString((LineString[]) geoms);
+          case DELTA_MULTIPOLYGON: return geometryFactory.createMultiPolygon((Polygon[]) geoms);
+          default: return geometryFactory.createGeometryCollection(geoms);
+        }
+      }
+      default:
+        throw new InvalidShapeException("Unsupported geometry type byte " + type);
+    }
+  }
+
+  /** Decodes a coordinate sequence straight into one from the geometry factory. */
+  private CoordinateSequence readSequence(ByteBuffer byteBuffer, GeometryFactory geometryFactory, double scale) {
+    int size = (int) readVarLong(byteBuffer);
+    CoordinateSequence seq = geometryFactory.getCoordinateSequenceFactory().create(size, 2);
+    long x = 0, y = 0;
+    for (int i = 0; i < size; i++) {
+      x += unZigZag(readVarLong(byteBuffer));
+      y += unZigZag(readVarLong(byteBuffer));
+      seq.setOrdinate(i, CoordinateSequence.X, x / scale);
+      seq.setOrdinate(i, CoordinateSequence.Y, y / scale);
+    }
+    return seq;
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long v) {
+    while ((v & ~0x7FL) != 0) {
+      out.write((int) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.write((int) v);
+  }
+
+  private static long readVarLong(ByteBuffer byteBuffer) {
+    long v = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = byteBuffer.get();
+      v |= (long) (b & 0x7F) << shift;
+      if (b >= 0)
+        return v;
+    }
+    throw new InvalidShapeException("Malformed variable length integer");
+  }
+
+  private static long zigZag(long v) {
+    return (v << 1) ^ (v >> 63);
+  }
+
+  private static long unZigZag(long v) {
+    return (v >>> 1) ^ -(v & 1);
+  }
 }
@@ -20,6 +20,8 @@ import com.vividsolutions.jts.geom.CoordinateSequenceFilter;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.io.WKTReader;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
 import java.text.ParseException;
 
 /**
@@ -47,6 +49,19 @@ public class JtsWKTReaderShapeParser extends org.locationtech.spatial4j.io.WKTRe
     return parseIfSupported(wktString, new WKTReader(getShapeFactory().getGeometryFactory()));
   }
 
+  /** Reads the source into a String first, since the whole string is given to JTS. */
+  @Override
+  public Shape parse(Readable source) throws IOException, ParseException {
+    StringBuilder builder = new StringBuilder();
+    CharBuffer buffer = CharBuffer.allocate(1024);
+    while (source.read(buffer) != -1) {
+      buffer.flip();
+      builder.append(buffer);
+      buffer.clear();
+    }
+    return parse(builder.toString());
+  }
+
   private JtsShapeFactory getShapeFactory() {
     return ((JtsShapeFactory)shapeFactory);
   }
@@ -10,10 +10,12 @@ package org.locationtech.spatial4j.shape;
 
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.impl.BBoxCalculator;
+import org.locationtech.spatial4j.shape.impl.BBoxIndex;
 
 import java.util.*;
 
 import static org.locationtech.spatial4j.shape.SpatialRelation.CONTAINS;
+import static org.locationtech.spatial4j.shape.SpatialRelation.DISJOINT;
 import static org.locationtech.spatial4j.shape.SpatialRelation.INTERSECTS;
 
 /**
@@ -31,15 +33,19 @@ import static org.locationtech.spatial4j.shape.SpatialRelation.INTERSECTS;
  * intersects when the best answer is actually contains or within. If any shape
  * intersects the provided shape then that is the answer.
  * <p>
- * This implementation is not optimized for a large number of shapes; relate is
- * O(N).  A more sophisticated implementation might do an R-Tree based on
- * bbox'es, for example.
+ * Once there are at least {@link #INDEX_THRESHOLD} shapes, relate() lazily builds
+ * an R-Tree of the shapes' bounding boxes ({@link BBoxIndex}) so that only the shapes
+ * whose bounding box intersects that of the other shape are related.
  */
 public class ShapeCollection<S extends Shape> extends AbstractList<S> implements Shape {
 
+  /** The minimum number of shapes for relate() to use a {@link BBoxIndex}. */
+  public static final int INDEX_THRESHOLD = 32;
+
   protected final SpatialContext ctx;
   protected final List<S> shapes;
   protected final Rectangle bbox;
+  private volatile BBoxIndex bboxIndex;//lazy; see getBBoxIndex()
 
   /**
    * WARNING: {@code shapes} is copied by reference.
@@ -107,6 +113,19 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
     return ctx.makeCollection(bufColl);
   }
 
+  /**
+   * Returns an R-Tree of the shapes' bounding boxes, building it on first use. It
+   * assumes the shapes aren't modified.
+   */
+  protected BBoxIndex getBBoxIndex() {
+    BBoxIndex index = bboxIndex;
+    if (index == null) {
+      // Benign race: another thread might build it too but the result is equivalent.
+      bboxIndex = index = new BBoxIndex(shapes);
+    }
+    return index;
+  }
+
   @Override
   public SpatialRelation relate(Shape other) {
     final SpatialRelation bboxSect = bbox.relate(other);
@@ -116,7 +135,16 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
     final boolean containsWillShortCircuit = (other instanceof Point) ||
         relateContainsShortCircuits();
     SpatialRelation sect = null;
-    for (Shape shape : shapes) {
+    int[] candidates = null;
+    if (shapes.size() >= INDEX_THRESHOLD) {
+      candidates = getBBoxIndex().query(other.getBoundingBox());
+      // the shapes that aren't candidates are DISJOINT
+      if (candidates.length < shapes.size())
+        sect = DISJOINT;
+    }
+    final int numShapes = candidates == null ? shapes.size() : candidates.length;
+    for (int i = 0; i < numShapes; i++) {
+      Shape shape = shapes.get(candidates == null ? i : candidates[i]);
       SpatialRelation nextSect = shape.relate(other);
 
       if (sect == null) {//first pass
@@ -156,18 +184,48 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
   /**
    * Computes whether the shapes are mutually disjoint. This is a utility method
    * offered for use by a subclass implementing {@link #relateContainsShortCircuits()}.
-   * <b>Beware: this is an O(N^2) algorithm.</b>.  Consequently, consider safely
-   * assuming non-disjoint if shapes.size() &gt; 10 or something.  And if all shapes
-   * are a Point then the result of this method doesn't ultimately matter.
+   * It sweeps across the shapes' bounding boxes sorted by their minimum X so that only
+   * shapes with intersecting bounding boxes are related: O(N log N) plus the number of
+   * pairs overlapping in X.  If all shapes are a Point then the result of this method
+   * doesn't ultimately matter.
    */
   protected static boolean computeMutualDisjoint(List<? extends Shape> shapes) {
-    //WARNING: this is an O(n^2) algorithm.
-    //loop through each shape and see if it intersects any shape before it
-    for (int i = 1; i < shapes.size(); i++) {
-      Shape shapeI = shapes.get(i);
-      for (int j = 0; j < i; j++) {
-        Shape shapeJ = shapes.get(j);
-        if (shapeJ.relate(shapeI).intersects())
+    // gather bounding boxes, splitting those crossing the dateline and mirroring those touching it on one side
+    // (as BBoxIndex does)
+    final List<double[]> boxes = new ArrayList<>(shapes.size());// minX, maxX, minY, maxY, shape index
+    for (int i = 0; i < shapes.size(); i++) {
+      Rectangle bbox = shapes.get(i).getBoundingBox();
+      if (bbox.isEmpty())
+        continue;
+      Rectangle world = bbox.getContext().getWorldBounds();
+      if (bbox.getCrossesDateLine()) {
+        boxes.add(new double[]{bbox.getMinX(), world.getMaxX(), bbox.getMinY(), bbox.getMaxY(), i});
+        boxes.add(new double[]{world.getMinX(), bbox.getMaxX(), bbox.getMinY(), bbox.getMaxY(), i});
+      } else if (bbox.getContext().isGeo() && (bbox.getMaxX() == world.getMaxX()) != (bbox.getMinX() == world.getMinX())) {
+        // touches the dateline on one side; it's the same line on the other side
+        boxes.add(new double[]{bbox.getMinX(), bbox.getMaxX(), bbox.getMinY(), bbox.getMaxY(), i});
+        final double x = bbox.getMaxX() == world.getMaxX() ? world.getMinX() : world.getMaxX();
+        boxes.add(new double[]{x, x, bbox.getMinY(), bbox.getMaxY(), i});
+      } else {
+        boxes.add(new double[]{bbox.getMinX(), bbox.getMaxX(), bbox.getMinY(), bbox.getMaxY(), i});
+      }
+    }
+    Collections.sort(boxes, new Comparator<double[]>() {
+      @Override
+      public int compare(double[] a, double[] b) {
+        return Double.compare(a[0], b[0]);
+      }
+    });
+    // for each box, relate the shapes of the boxes starting before it ends in X and overlapping in Y
+    for (int i = 0; i < boxes.size(); i++) {
+      final double[] boxI = boxes.get(i);
+      for (int j = i + 1; j < boxes.size(); j++) {
+        final double[] boxJ = boxes.get(j);
+        if (boxJ[0] > boxI[1])
+          break;//this and subsequent boxes start after boxI ends
+        if (boxJ[2] > boxI[3] || boxJ[3] < boxI[2] || boxJ[4] == boxI[4])
+          continue;
+        if (shapes.get((int) boxI[4]).relate(shapes.get((int) boxJ[4])).intersects())
           return false;
       }
     }
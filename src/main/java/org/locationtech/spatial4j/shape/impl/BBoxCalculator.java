@@ -11,15 +11,14 @@ package org.locationtech.spatial4j.shape.impl;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.Rectangle;
 
-import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.Arrays;
 
 /**
  * (INTERNAL) Calculates the minimum bounding box given a bunch of rectangles (ranges).  It's a temporary object and not
  * thread-safe; throw it away when done.
  * For a cartesian space, the calculations are trivial but it is not for geodetic.  For
- * geodetic, it must maintain an ordered set of disjoint ranges as each range is provided.
+ * geodetic, it collects the X ranges as they are provided, then sorts them once and merges them into a sorted list of
+ * disjoint ranges, between which it finds the biggest gap.
  */
 public class BBoxCalculator {
   
@@ -31,13 +30,16 @@ public class BBoxCalculator {
   private double minX = Double.POSITIVE_INFINITY;
   private double maxX = Double.NEGATIVE_INFINITY;
 
-  /** Sorted list of <em>disjoint</em> X ranges keyed by maxX and with minX stored as the "value". */
-  private TreeMap<Double, Double> ranges; // maxX -> minX
-
-  // note: The use of a TreeMap of Double objects is a bit heavy for the points-only use-case.  In such a case,
-  //  we could instead maintain an array of longitudes we just add onto during expandXRange(). A simplified version
-  //  of the processRanges() method could be used that initially sorts and then proceeds in a similar but simplified
-  //  fashion.
+  // Geo only: X ranges, none crossing the dateline (those are split in two).  The first numMerged are sorted and
+  //  disjoint (not even touching); the rest were added since and are merged in lazily by mergeRanges().  Sorting the
+  //  mins and the maxs independently is fine since the union of the ranges is all that matters.
+  private double[] rangeMins = new double[8];
+  private double[] rangeMaxs = new double[8];
+  private int numRanges;
+  private int numMerged;
+  private boolean worldWrap;
+  private boolean anyNaN;// a range with NaN
+  private boolean processed = true;// minX & maxX are up to date
 
   public BBoxCalculator(SpatialContext ctx) {
     this.ctx = ctx;
@@ -60,133 +62,116 @@ public class BBoxCalculator {
       this.maxX = Math.max(this.maxX, maxX);
       return;
     }
-
-    if (doesXWorldWrap())
+    if (worldWrap)
       return;
+    ensureRangeCapacity(1);
+    addXRange(minX, maxX);
+  }
 
-    if (ranges == null) {
-      ranges = new TreeMap<>();
-      ranges.put(maxX, minX);
+  /**
+   * Expands by the X ranges of {@code mins} and {@code maxs} up to {@code n}, like calling
+   * {@link #expandXRange(double, double)} for each but cheaper.
+   */
+  public void expandXRanges(double[] mins, double[] maxs, int n) {
+    if (!ctx.isGeo()) {
+      for (int i = 0; i < n; i++) {
+        this.minX = Math.min(this.minX, mins[i]);
+        this.maxX = Math.max(this.maxX, maxs[i]);
+      }
       return;
     }
-    assert !ranges.isEmpty();
-    //now the hard part!
-
-    //Get an iterator starting from the first entry that either contains minX or it's to the right of minX
-    Iterator<Map.Entry<Double, Double>> entryIter = ranges.tailMap(minX, true/*inclusive*/).entrySet().iterator();
-    if (!entryIter.hasNext()) {
-      entryIter = ranges.entrySet().iterator();//wrapped across dateline
+    if (worldWrap)
+      return;
+    ensureRangeCapacity(n);
+    for (int i = 0; i < n; i++) {
+      addXRange(mins[i], maxs[i]);
     }
-    Map.Entry<Double, Double> entry = entryIter.next();
-
-    Double entryMin = entry.getValue();
-    Double entryMax = entry.getKey();
+  }
 
-    //See if entry contains maxX
-    if (rangeContains(entryMin, entryMax, maxX)) {
-      // Easy: either minX is also within this entry in which case nothing to do, or it's below in which case
-      // we just need to update the minX of this entry.
+  /** Room for {@code n} more ranges, each of which might be split in two. */
+  private void ensureRangeCapacity(int n) {
+    final int needed = numRanges + n * 2;
+    if (needed > rangeMins.length) {
+      final int newLength = Math.max(needed, rangeMins.length * 2);
+      rangeMins = Arrays.copyOf(rangeMins, newLength);
+      rangeMaxs = Arrays.copyOf(rangeMaxs, newLength);
+    }
+  }
 
-      //See if entry contains minX
-      if (rangeContains(entryMin, entryMax, minX)) {
+  private void addXRange(double minX, double maxX) {
+    processed = false;
+    if (minX <= maxX) {
+      rangeMins[numRanges] = minX;
+      rangeMaxs[numRanges++] = maxX;
+    } else if (minX > maxX) {// crosses the dateline
+      rangeMins[numRanges] = minX;
+      rangeMaxs[numRanges++] = 180;
+      rangeMins[numRanges] = -180;
+      rangeMaxs[numRanges++] = maxX;
+    } else {
+      anyNaN = true;
+    }
+  }
 
-        // This entry & the new range together might wrap the world.
-        if ( (minX != entryMin || maxX != entryMax) //ranges not equal
-            && rangeContains(minX, maxX, entryMin) && rangeContains(minX, maxX, entryMax)) {
-          this.minX = -180;
-          this.maxX = +180;
-          ranges = null;
-        }
-        // Done; nothing to do.
+  /** Merges the ranges added since the last call into the sorted disjoint ranges. */
+  private void mergeRanges() {
+    if (numMerged == numRanges)
+      return;
+    final double[] mins = rangeMins, maxs = rangeMaxs;
+    final int n = numRanges;
+    Arrays.sort(mins, 0, n);
+    Arrays.sort(maxs, 0, n);
+    // Sweep, counting the ranges open.  A range starting where another ends joins it.
+    int numOut = 0;
+    int depth = 0;
+    double start = 0;
+    for (int i = 0, j = 0; j < n; ) {
+      if (i < n && mins[i] <= maxs[j]) {
+        if (depth++ == 0)
+          start = mins[i];
+        i++;
       } else {
-        //Done: Update entry's start to be minX
-        // note:  TreeMap's Map.Entry doesn't support setting the value :-(  So we remove & add the entry.
-        entryIter.remove();
-        ranges.put(entryMax, minX);
-      }
-
-    } else {//entry does NOT contain maxX:
-
-      // We're going to insert an entry.  Determine it's min & max.  While finding the max, we'll delete entries
-      //  that overlap with the new entry.
-
-      // newMinX is basically the lower of minX & entryMin
-      final Double newMinX  = rangeContains(entryMin, entryMax, minX) ? entryMin : minX;
-
-      Double newMaxX = maxX;
-      //Loop through entries (starting with current) to see if we should remove it.  At the last one, update newMaxX.
-      while (rangeContains(newMinX, newMaxX, entryMin)) {
-        entryIter.remove();//remove entry!
-        if (!rangeContains(minX, maxX, entryMax)) {
-          newMaxX = entryMax;//adjust newMaxX and stop.
-          break;
-        }
-        // get new entry:
-        if (!entryIter.hasNext()) {
-          if (ranges.isEmpty()) {
-            break;
-          }
-          //wrap around (can only happen once)
-          entryIter = ranges.entrySet().iterator();
+        if (--depth == 0) {// in-place is safe; i & j are beyond numOut
+          mins[numOut] = start;
+          maxs[numOut++] = maxs[j];
         }
-        entry = entryIter.next();
-        entryMin = entry.getValue();
-        entryMax = entry.getKey();
+        j++;
       }
-
-      //Add entry
-      ranges.put(newMaxX, newMinX);
     }
+    numRanges = numMerged = numOut;
+    worldWrap = numOut == 1 && mins[0] == -180 && maxs[0] == 180;
   }
 
   private void processRanges() {
-    if (ranges.size() == 1) { // an optimization
-      Map.Entry<Double, Double> rangeEntry = ranges.firstEntry();
-      minX = rangeEntry.getValue();
-      maxX = rangeEntry.getKey();
-    } else {
-      // Find the biggest gap. Whenever we do, update minX & maxX for the rect opposite of the gap.
-      Map.Entry<Double, Double> prevRange = ranges.lastEntry();
-      double biggestGap = 0;
-      double possibleRemainingGap = 360;  //calculating this enables us to exit early; often on the first lap!
-      for (Map.Entry<Double, Double> range : ranges.entrySet()) {
-        // calc width of this range and the gap before it.
-        double widthPlusGap = range.getKey() - prevRange.getKey();// this max - last max
-        if (widthPlusGap < 0) {
-          widthPlusGap += 360;
-        }
-        double gap = range.getValue() - prevRange.getKey(); // this min - last max
-        if (gap < 0) {
-          gap += 360;
-        }
-        // reduce possibleRemainingGap by this range width and trailing gap.
-        possibleRemainingGap -= widthPlusGap;
-        if (gap > biggestGap) {
-          biggestGap = gap;
-          minX = range.getValue();
-          maxX = prevRange.getKey();
-          if (possibleRemainingGap <= biggestGap) {
-            break;// no point in continuing
-          }
-        }
-        prevRange = range;
+    if (processed)
+      return;
+    processed = true;
+    mergeRanges();
+    final double[] mins = rangeMins, maxs = rangeMaxs;
+    final int n = numRanges;
+    if (n == 0) {
+      if (anyNaN)
+        minX = maxX = Double.NaN;
+      return;
+    }
+    // Find the biggest gap, starting with the one across the dateline; the box is opposite it.
+    double biggestGap = mins[0] + 360 - maxs[n - 1];
+    minX = mins[0];
+    maxX = maxs[n - 1];
+    for (int i = 1; i < n; i++) {
+      double gap = mins[i] - maxs[i - 1];
+      if (gap > biggestGap) {
+        biggestGap = gap;
+        minX = mins[i];
+        maxX = maxs[i - 1];
       }
     }
-    // Null out the ranges to signify we processed them
-    ranges = null;
-  }
-
-  private static boolean rangeContains(double minX, double maxX, double x) {
-    if (minX <= maxX)
-      return x >= minX && x <= maxX;
-    else
-      return x >= minX || x <= maxX;
   }
 
   public boolean doesXWorldWrap() {
     assert ctx.isGeo();
-    //note: not dependent on "ranges", since once we expand to world bounds then ranges is null'ed out
-    return minX == -180 && maxX == 180;
+    mergeRanges();
+    return worldWrap;
   }
 
   public Rectangle getBoundary() {
@@ -194,14 +179,14 @@ public class BBoxCalculator {
   }
 
   public double getMinX() {
-    if (ranges != null) {
+    if (ctx.isGeo()) {
       processRanges();
     }
     return minX;
   }
 
   public double getMaxX() {
-    if (ranges != null) {
+    if (ctx.isGeo()) {
       processRanges();
     }
     return maxX;
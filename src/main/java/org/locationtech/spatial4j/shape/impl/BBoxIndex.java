@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.impl;
+
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * (INTERNAL) A static R-Tree of the bounding boxes of a list of shapes, packed with the Sort-Tile-Recursive (STR)
+ * algorithm, for finding the shapes whose bounding box intersects a query rectangle. The results are indexes
+ * into the list. Bounding boxes crossing the dateline are indexed as two rectangles, and those touching it on one
+ * side get a line on the other side. Empty shapes are not indexed. It's immutable and thus thread-safe.
+ * <p>
+ * Two indexes can be joined to find the pairs of shapes whose bounding boxes intersect. The leaf entries are
+ * grouped into partitions (the parents of the leaves); each partition is joined separately, so they can be done
+ * in parallel. Within a partition the entries are sorted by their minimum X for a plane sweep.
+ */
+public class BBoxIndex {
+
+  static final int NODE_CAPACITY = StrPacker.NODE_CAPACITY;
+
+  // Each level is stored in flat arrays, from the leaf entries (level 0) up to the root.
+  /** Per level, 4 doubles per node: minX, maxX, minY, maxY. */
+  private final double[][] levelBounds;
+  /** Per level above the leaves, 2 ints per node: the range of its children in the level below. */
+  private final int[][] levelChildren;
+  /** Per leaf entry, the index of its shape. */
+  private final int[] ids;
+  /** Per leaf entry, the other entry of the same shape if it was split on the dateline, otherwise -1. */
+  private final int[] siblings;
+  private final int numShapes;
+
+  public BBoxIndex(List<? extends Shape> shapes) {
+    this.numShapes = shapes.size();
+    // Gather the bounding boxes, splitting those that cross the dateline
+    int numEntries = 0;
+    double[] bounds = new double[shapes.size() * 4];
+    int[] entryIds = new int[shapes.size()];
+    for (int i = 0; i < shapes.size(); i++) {
+      Rectangle bbox = shapes.get(i).getBoundingBox();
+      if (bbox.isEmpty())
+        continue;
+      if (numEntries + 2 > entryIds.length) {
+        entryIds = Arrays.copyOf(entryIds, entryIds.length * 2 + 2);
+        bounds = Arrays.copyOf(bounds, entryIds.length * 4);
+      }
+      Rectangle world = bbox.getContext().getWorldBounds();
+      if (bbox.getCrossesDateLine()) {
+        StrPacker.setBounds(bounds, numEntries, bbox.getMinX(), world.getMaxX(), bbox.getMinY(), bbox.getMaxY());
+        entryIds[numEntries++] = i;
+        StrPacker.setBounds(bounds, numEntries, world.getMinX(), bbox.getMaxX(), bbox.getMinY(), bbox.getMaxY());
+      } else if (bbox.getContext().isGeo() && (bbox.getMaxX() == world.getMaxX()) != (bbox.getMinX() == world.getMinX())) {
+        // touches the dateline on one side; it's the same line on the other side
+        StrPacker.setBounds(bounds, numEntries, bbox.getMinX(), bbox.getMaxX(), bbox.getMinY(), bbox.getMaxY());
+        entryIds[numEntries++] = i;
+        final double x = bbox.getMaxX() == world.getMaxX() ? world.getMinX() : world.getMaxX();
+        StrPacker.setBounds(bounds, numEntries, x, x, bbox.getMinY(), bbox.getMaxY());
+      } else {
+        StrPacker.setBounds(bounds, numEntries, bbox.getMinX(), bbox.getMaxX(), bbox.getMinY(), bbox.getMaxY());
+      }
+      entryIds[numEntries++] = i;
+    }
+
+    // Leaves, in STR order; then within each group of a parent (a partition), by minX
+    int[] order = StrPacker.strOrder(bounds, numEntries);
+    for (int from = 0; from < numEntries; from += NODE_CAPACITY)
+      sortByMinX(bounds, order, from, Math.min(numEntries, from + NODE_CAPACITY));
+    double[] nodeBounds = new double[numEntries * 4];
+    ids = new int[numEntries];
+    siblings = new int[numEntries];
+    Arrays.fill(siblings, -1);
+    int[] entryToLeaf = new int[numEntries];
+    for (int i = 0; i < numEntries; i++) {
+      System.arraycopy(bounds, order[i] * 4, nodeBounds, i * 4, 4);
+      ids[i] = entryIds[order[i]];
+      entryToLeaf[order[i]] = i;
+    }
+    for (int e = 1; e < numEntries; e++) {
+      if (entryIds[e] == entryIds[e - 1]) {// the two halves of a shape split on the dateline
+        siblings[entryToLeaf[e]] = entryToLeaf[e - 1];
+        siblings[entryToLeaf[e - 1]] = entryToLeaf[e];
+      }
+    }
+    // Group each level's consecutive nodes into parents, then put the parents in STR order, until one root
+    if (numEntries > 1) {
+      StrPacker.Levels levels = StrPacker.packParents(nodeBounds, numEntries);
+      int numLevels = 1 + levels.bounds.length;
+      this.levelBounds = new double[numLevels][];
+      this.levelChildren = new int[numLevels][];
+      System.arraycopy(levels.bounds, 0, levelBounds, 1, numLevels - 1);
+      System.arraycopy(levels.children, 0, levelChildren, 1, numLevels - 1);
+    } else {
+      this.levelBounds = new double[1][];
+      this.levelChildren = new int[1][];
+    }
+    this.levelBounds[0] = nodeBounds;
+  }
+
+  /** Insertion sort of order[from, to) by the minX of the bounds they refer to; it's short. */
+  private static void sortByMinX(double[] bounds, int[] order, int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      final int entry = order[i];
+      int j = i - 1;
+      for (; j >= from && bounds[order[j] * 4] > bounds[entry * 4]; j--)
+        order[j + 1] = order[j];
+      order[j + 1] = entry;
+    }
+  }
+
+  /** The number of shapes given to the constructor. */
+  public int getNumShapes() {
+    return numShapes;
+  }
+
+  /**
+   * Finds the shapes whose bounding box intersects {@code rect} (inclusive of edges), returning their indexes in
+   * ascending order.
+   */
+  public int[] query(Rectangle rect) {
+    if (rect.isEmpty() || ids.length == 0)
+      return new int[0];
+    IntBuffer result = new IntBuffer();
+    if (rect.getCrossesDateLine()) {
+      Rectangle world = rect.getContext().getWorldBounds();
+      query(rect.getMinX(), world.getMaxX(), rect.getMinY(), rect.getMaxY(), result);
+      query(world.getMinX(), rect.getMaxX(), rect.getMinY(), rect.getMaxY(), result);
+    } else {
+      query(rect.getMinX(), rect.getMaxX(), rect.getMinY(), rect.getMaxY(), result);
+    }
+    // sort and remove duplicates (from shapes split on the dateline)
+    int[] values = result.values;
+    Arrays.sort(values, 0, result.size);
+    int unique = 0;
+    for (int i = 0; i < result.size; i++) {
+      if (unique == 0 || values[unique - 1] != values[i])
+        values[unique++] = values[i];
+    }
+    return Arrays.copyOf(values, unique);
+  }
+
+  private void query(double minX, double maxX, double minY, double maxY, IntBuffer result) {
+    // depth-first with an explicit stack of (level, node) pairs
+    final int rootLevel = levelBounds.length - 1;
+    int[] stack = new int[2 * (rootLevel + 1) * NODE_CAPACITY];
+    int top = 0;
+    stack[top++] = rootLevel;
+    stack[top++] = 0;
+    while (top > 0) {
+      final int node = stack[--top];
+      final int level = stack[--top];
+      final double[] bounds = levelBounds[level];
+      final int off = node * 4;
+      if (bounds[off] > maxX || bounds[off + 1] < minX || bounds[off + 2] > maxY || bounds[off + 3] < minY)
+        continue;
+      if (level == 0) {
+        result.add(ids[node]);
+      } else {
+        final int[] children = levelChildren[level];
+        for (int c = children[node * 2], to = children[node * 2 + 1]; c < to; c++) {
+          stack[top++] = level - 1;
+          stack[top++] = c;
+        }
+      }
+    }
+  }
+
+  /** Receives the pairs found by {@link #joinPartition(int, BBoxIndex, PairCollector)}. */
+  public interface PairCollector {
+    /** Called once per pair of shape indexes whose bounding boxes intersect. */
+    void collect(int id, int otherId);
+  }
+
+  /** The number of partitions, for {@link #joinPartition(int, BBoxIndex, PairCollector)}. */
+  public int getNumPartitions() {
+    if (ids.length == 0)
+      return 0;
+    return levelBounds.length == 1 ? 1 : levelBounds[1].length / 4;
+  }
+
+  /**
+   * Finds the pairs of shapes with intersecting bounding boxes (inclusive of edges), where the first is in the
+   * given partition of this index, and the second is anywhere in {@code other}. Joining every partition finds
+   * every pair exactly once, even if split on the dateline. Within a partition, pairs are found in no particular
+   * order.
+   */
+  public void joinPartition(int partition, BBoxIndex other, PairCollector collector) {
+    if (other.ids.length == 0)
+      return;
+    final int from, to;
+    final double[] pBounds;
+    if (levelBounds.length == 1) {//a single leaf; no parents
+      from = 0;
+      to = ids.length;
+      pBounds = levelBounds[0];
+    } else {
+      from = levelChildren[1][partition * 2];
+      to = levelChildren[1][partition * 2 + 1];
+      pBounds = levelBounds[1];
+    }
+    final int off = levelBounds.length == 1 ? 0 : partition * 4;
+    final double minX = pBounds[off], maxX = pBounds[off + 1], minY = pBounds[off + 2], maxY = pBounds[off + 3];
+
+    // Find the other's partitions intersecting this one, depth-first, and sweep each
+    final int partitionLevel = Math.min(1, other.levelBounds.length - 1);
+    final int rootLevel = other.levelBounds.length - 1;
+    int[] stack = new int[2 * (rootLevel + 1) * NODE_CAPACITY];
+    int top = 0;
+    stack[top++] = rootLevel;
+    stack[top++] = 0;
+    while (top > 0) {
+      final int node = stack[--top];
+      final int level = stack[--top];
+      final double[] bounds = other.levelBounds[level];
+      final int nodeOff = node * 4;
+      if (bounds[nodeOff] > maxX || bounds[nodeOff + 1] < minX || bounds[nodeOff + 2] > maxY
+          || bounds[nodeOff + 3] < minY)
+        continue;
+      if (level == partitionLevel) {
+        if (level == 0)
+          sweep(from, to, other, 0, other.ids.length, collector);
+        else
+          sweep(from, to, other, other.levelChildren[1][node * 2], other.levelChildren[1][node * 2 + 1], collector);
+      } else {
+        final int[] children = other.levelChildren[level];
+        for (int c = children[node * 2], cTo = children[node * 2 + 1]; c < cTo; c++) {
+          stack[top++] = level - 1;
+          stack[top++] = c;
+        }
+      }
+    }
+  }
+
+  /** Plane sweep along X of two runs of leaf entries, each sorted by minX. */
+  private void sweep(int from, int to, BBoxIndex other, int otherFrom, int otherTo, PairCollector collector) {
+    final double[] a = levelBounds[0], b = other.levelBounds[0];
+    int i = from, j = otherFrom;
+    while (i < to && j < otherTo) {
+      if (a[i * 4] <= b[j * 4]) {
+        for (int k = j; k < otherTo && b[k * 4] <= a[i * 4 + 1]; k++) {
+          if (b[k * 4 + 2] <= a[i * 4 + 3] && b[k * 4 + 3] >= a[i * 4 + 2])
+            collectIfFirst(i, other, k, collector);
+        }
+        i++;
+      } else {
+        for (int k = i; k < to && a[k * 4] <= b[j * 4 + 1]; k++) {
+          if (a[k * 4 + 2] <= b[j * 4 + 3] && a[k * 4 + 3] >= b[j * 4 + 2])
+            collectIfFirst(k, other, j, collector);
+        }
+        j++;
+      }
+    }
+  }
+
+  /**
+   * If either shape was split on the dateline, more than one pair of their entries might intersect; only the
+   * first such pair, ordered by entry, is collected.
+   */
+  private void collectIfFirst(int entry, BBoxIndex other, int otherEntry, PairCollector collector) {
+    final int sibling = siblings[entry], otherSibling = other.siblings[otherEntry];
+    if ((sibling >= 0 || otherSibling >= 0)
+        && (sibling >= 0 && sibling < entry && (intersects(sibling, other, otherEntry)
+                                                || otherSibling >= 0 && intersects(sibling, other, otherSibling))
+            || otherSibling >= 0 && otherSibling < otherEntry && intersects(entry, other, otherSibling)))
+      return;
+    collector.collect(ids[entry], other.ids[otherEntry]);
+  }
+
+  private boolean intersects(int entry, BBoxIndex other, int otherEntry) {
+    final double[] a = levelBounds[0], b = other.levelBounds[0];
+    final int i = entry * 4, j = otherEntry * 4;
+    return a[i] <= b[j + 1] && a[i + 1] >= b[j] && a[i + 2] <= b[j + 3] && a[i + 3] >= b[j + 2];
+  }
+
+  /** A growable int array. */
+  private static final class IntBuffer {
+    int[] values = new int[16];
+    int size;
+
+    void add(int value) {
+      if (size == values.length)
+        values = Arrays.copyOf(values, size * 2);
+      values[size++] = value;
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * (INTERNAL) Packs bounding boxes into the levels of a static R-Tree with the Sort-Tile-Recursive (STR)
+ * algorithm. Bounds are held in flat arrays of 4 doubles per node: minX, maxX, minY, maxY. Shared by
+ * {@link BBoxIndex} and {@link org.locationtech.spatial4j.distance.PointIndex}.
+ */
+public final class StrPacker {
+
+  public static final int NODE_CAPACITY = 16;
+
+  private StrPacker() {
+  }
+
+  /** The levels of parent nodes built by {@link #packParents(double[], int)}. */
+  public static final class Levels {
+    /** Per level, from the parents of the given nodes up to the root, 4 doubles per node. */
+    public final double[][] bounds;
+    /** Per level, 2 ints per node: the range of its children in the level below. */
+    public final int[][] children;
+
+    private Levels(double[][] bounds, int[][] children) {
+      this.bounds = bounds;
+      this.children = children;
+    }
+  }
+
+  public static void setBounds(double[] bounds, int i, double minX, double maxX, double minY, double maxY) {
+    bounds[i * 4] = minX;
+    bounds[i * 4 + 1] = maxX;
+    bounds[i * 4 + 2] = minY;
+    bounds[i * 4 + 3] = maxY;
+  }
+
+  /**
+   * Sort-Tile-Recursive order: sort by the center X, cut into vertical slices of whole nodes, then sort each
+   * slice by the center Y.
+   */
+  public static int[] strOrder(final double[] bounds, int size) {
+    if (size == 0)
+      return new int[0];
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++)
+      order[i] = i;
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return Double.compare(bounds[a * 4] + bounds[a * 4 + 1], bounds[b * 4] + bounds[b * 4 + 1]);
+      }
+    });
+    int numNodes = (size + NODE_CAPACITY - 1) / NODE_CAPACITY;
+    int numSlices = (int) Math.ceil(Math.sqrt(numNodes));
+    int sliceSize = ((numNodes + numSlices - 1) / numSlices) * NODE_CAPACITY;
+    Comparator<Integer> yComparator = new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return Double.compare(bounds[a * 4 + 2] + bounds[a * 4 + 3], bounds[b * 4 + 2] + bounds[b * 4 + 3]);
+      }
+    };
+    for (int from = 0; from < size; from += sliceSize)
+      Arrays.sort(order, from, Math.min(size, from + sliceSize), yComparator);
+    int[] result = new int[size];
+    for (int i = 0; i < size; i++)
+      result[i] = order[i];
+    return result;
+  }
+
+  /**
+   * Groups each level's consecutive nodes into parents, then puts the parents in STR order, until one root. The
+   * given nodes should already be in STR order. There is always at least one level, even if there's only one node
+   * (or none).
+   */
+  public static Levels packParents(double[] childBounds, int size) {
+    double[][] boundsList = new double[8][];
+    int[][] childrenList = new int[8][];
+    int numLevels = 0;
+    int levelSize = size;
+    do {
+      int parentSize = (levelSize + NODE_CAPACITY - 1) / NODE_CAPACITY;
+      double[] parentBounds = new double[parentSize * 4];
+      int[] parentChildren = new int[parentSize * 2];
+      for (int p = 0; p < parentSize; p++) {
+        int from = p * NODE_CAPACITY, to = Math.min(levelSize, from + NODE_CAPACITY);
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int c = from; c < to; c++) {
+          minX = Math.min(minX, childBounds[c * 4]);
+          maxX = Math.max(maxX, childBounds[c * 4 + 1]);
+          minY = Math.min(minY, childBounds[c * 4 + 2]);
+          maxY = Math.max(maxY, childBounds[c * 4 + 3]);
+        }
+        setBounds(parentBounds, p, minX, maxX, minY, maxY);
+        parentChildren[p * 2] = from;
+        parentChildren[p * 2 + 1] = to;
+      }
+      if (parentSize > 1) {
+        int[] order = strOrder(parentBounds, parentSize);
+        double[] sortedBounds = new double[parentSize * 4];
+        int[] sortedChildren = new int[parentSize * 2];
+        for (int i = 0; i < parentSize; i++) {
+          System.arraycopy(parentBounds, order[i] * 4, sortedBounds, i * 4, 4);
+          System.arraycopy(parentChildren, order[i] * 2, sortedChildren, i * 2, 2);
+        }
+        parentBounds = sortedBounds;
+        parentChildren = sortedChildren;
+      }
+      if (numLevels == boundsList.length) {
+        boundsList = Arrays.copyOf(boundsList, numLevels * 2);
+        childrenList = Arrays.copyOf(childrenList, numLevels * 2);
+      }
+      childrenList[numLevels] = parentChildren;
+      boundsList[numLevels++] = parentBounds;
+      childBounds = parentBounds;
+      levelSize = parentSize;
+    } while (levelSize > 1);
+    return new Levels(Arrays.copyOf(boundsList, numLevels), Arrays.copyOf(childrenList, numLevels));
+  }
+}
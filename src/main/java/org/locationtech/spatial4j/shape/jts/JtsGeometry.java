@@ -10,7 +10,6 @@ package org.locationtech.spatial4j.shape.jts;
 
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
-import org.locationtech.spatial4j.distance.CartesianDistCalc;
 import org.locationtech.spatial4j.exception.InvalidShapeException;
 import org.locationtech.spatial4j.shape.*;
 import org.locationtech.spatial4j.shape.Point;
@@ -20,12 +19,17 @@ import org.locationtech.spatial4j.shape.impl.RectangleImpl;
 import com.vividsolutions.jts.geom.*;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
 import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import com.vividsolutions.jts.operation.union.CascadedPolygonUnion;
 import com.vividsolutions.jts.operation.union.UnaryUnionOp;
 import com.vividsolutions.jts.operation.valid.IsValidOp;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Wraps a JTS {@link Geometry} (i.e. may be a polygon or basically anything).
@@ -41,6 +45,11 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
   private final Rectangle bbox;
   protected PreparedGeometry preparedGeometry;
   protected boolean validated = false;
+  private PointInAreaGrid pointGrid;//see indexPointGrid()
+  private volatile PackedGeometry packed;//see relate(Circle)
+  volatile PreparedGeometry cachedPreparedGeometry;//set by PreparedGeometryCache until evicted
+  long cacheTick;//racy but only a heuristic; when PreparedGeometryCache last refreshed this
+  int relateCount = 0;//racy but only a heuristic; see JtsShapeFactory.getAutoIndexThreshold(). Reset on eviction
 
   public JtsGeometry(Geometry geom, JtsSpatialContext ctx, boolean dateline180Check, boolean allowMultiOverlap) {
     super(ctx);
@@ -53,6 +62,7 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     }
 
     //NOTE: All this logic is fairly expensive. There are some short-circuit checks though.
+    final ForkJoinPool pool = allowMultiOverlap || ctx.isGeo() ? parallelPool(ctx, geom) : null;
     if (geom.isEmpty()) {
       bbox = new RectangleImpl(Double.NaN, Double.NaN, Double.NaN, Double.NaN, this.ctx);
     } else if (ctx.isGeo()) {
@@ -61,10 +71,10 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
         unwrapDateline(geom);//potentially modifies geom
       //If given multiple overlapping polygons, fix it by union
       if (allowMultiOverlap)
-        geom = unionGeometryCollection(geom);//returns same or new geom
+        geom = unionGeometryCollection(geom, pool);//returns same or new geom
 
       //Cuts an unwrapped geometry back into overlaid pages in the standard geo bounds.
-      geom = cutUnwrappedGeomInto360(geom);//returns same or new geom
+      geom = cutUnwrappedGeomInto360(geom, pool);//returns same or new geom
       assert geom.getEnvelopeInternal().getWidth() <= 360;
       assert ! geom.getClass().equals(GeometryCollection.class) : "GeometryCollection unsupported";//double check
 
@@ -73,7 +83,7 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     } else {//not geo
       //If given multiple overlapping polygons, fix it by union
       if (allowMultiOverlap)
-        geom = unionGeometryCollection(geom);//returns same or new geom
+        geom = unionGeometryCollection(geom, pool);//returns same or new geom
 
       Envelope env = geom.getEnvelopeInternal();
       bbox = new RectangleImpl(env.getMinX(), env.getMaxX(), env.getMinY(), env.getMaxY(), ctx);
@@ -86,6 +96,44 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     this.hasArea = !((geom instanceof Lineal) || (geom instanceof Puntal));
   }
 
+  /**
+   * Wraps a geometry the caller vouches for, skipping the work of the other constructor: no dateline unwrapping,
+   * union of overlapping polygons, cutting into the standard geo bounds, nor bounding box computation. This is for
+   * loading shapes that were already prepared by that constructor earlier, such as from a store of them.
+   *
+   * @param geom Non-null; not a direct instance of GeometryCollection. If geo, it must already be within the
+   *             standard geo bounds (e.g. cut at the dateline).
+   * @param bbox The bounding box of {@code geom}, as computed by the other constructor. If null, it's computed
+   *             here.
+   * @param hasArea If {@code geom} has area, i.e. isn't {@link Lineal} or {@link Puntal}.
+   * @param validated If {@code geom} is known to be valid, so {@link #validate()} needn't check it again.
+   */
+  public JtsGeometry(Geometry geom, JtsSpatialContext ctx, Rectangle bbox, boolean hasArea, boolean validated) {
+    super(ctx);
+    if (geom.getClass().equals(GeometryCollection.class))
+      throw new IllegalArgumentException("JtsGeometry does not support GeometryCollection but does support its subclasses.");
+    if (bbox == null) {
+      if (geom.isEmpty()) {
+        bbox = new RectangleImpl(Double.NaN, Double.NaN, Double.NaN, Double.NaN, this.ctx);
+      } else if (ctx.isGeo()) {
+        bbox = computeGeoBBox(geom);
+      } else {
+        Envelope env = geom.getEnvelopeInternal();
+        bbox = new RectangleImpl(env.getMinX(), env.getMaxX(), env.getMinY(), env.getMaxY(), ctx);
+      }
+    }
+    geom.getEnvelopeInternal();//ensure envelope is cached internally, which is lazy evaluated. Keeps this thread-safe.
+    assert !ctx.isGeo() || geom.isEmpty() || geom.getEnvelopeInternal().getWidth() <= 360;
+    assert hasArea == !((geom instanceof Lineal) || (geom instanceof Puntal));
+
+    this.geom = geom;
+    this.bbox = bbox;
+    this.hasArea = hasArea;
+    this.validated = validated;
+    if (!validated)
+      assert assertValidate();//kinda expensive but caches valid state
+  }
+
   /**
    * Attempts to retype a geometry collection under the following circumstances, returning
    * null if the collection can not be retyped.
@@ -134,13 +182,26 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
    * is called a {@link com.vividsolutions.jts.geom.prep.PreparedGeometry}.  This
    * isn't done by default because it takes some time to do the optimization, and it uses more
    * memory.  Calling this method isn't thread-safe so be careful when this is done. If it was
-   * already indexed then nothing happens.
+   * already indexed then nothing happens. See {@link JtsShapeFactory#getAutoIndexThreshold()} for an
+   * adaptive alternative.
    */
   public void index() {
     if (preparedGeometry == null)
       preparedGeometry = PreparedGeometryFactory.prepare(geom);
   }
 
+  /**
+   * Adds a uniform grid index over the polygon(s) to answer {@link #relate(Point)} quickly and without
+   * allocating; most grid cells are wholly inside or outside so that a lookup is a mere array access.
+   * It's only applicable to polygonal geometries (nothing happens otherwise) and complements {@link #index()}
+   * which benefits the other relations.  Like that method, calling this isn't thread-safe.  If it was
+   * already indexed then nothing happens.
+   */
+  public void indexPointGrid() {
+    if (pointGrid == null)
+      pointGrid = PointInAreaGrid.create(geom);
+  }
+
   @Override
   public boolean isEmpty() {
     return bbox.isEmpty(); // fast
@@ -153,13 +214,15 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     final Envelope env = geoms.getEnvelopeInternal();//for minY & maxY (simple)
     if (ctx.isGeo() && env.getWidth() > 180 && geoms.getNumGeometries() > 1)  {
       // This is ShapeCollection's bbox algorithm
-      BBoxCalculator bboxCalc = new BBoxCalculator(ctx);
-      for (int i = 0; i < geoms.getNumGeometries(); i++ ) {
+      final int n = geoms.getNumGeometries();
+      final double[] mins = new double[n], maxs = new double[n];
+      for (int i = 0; i < n; i++ ) {
         Envelope envI = geoms.getGeometryN(i).getEnvelopeInternal();
-        bboxCalc.expandXRange(envI.getMinX(), envI.getMaxX());
-        if (bboxCalc.doesXWorldWrap())
-          break; // can't grow any bigger
+        mins[i] = envI.getMinX();
+        maxs[i] = envI.getMaxX();
       }
+      BBoxCalculator bboxCalc = new BBoxCalculator(ctx);
+      bboxCalc.expandXRanges(mins, maxs, n);
       return new RectangleImpl(bboxCalc.getMinX(), bboxCalc.getMaxX(), env.getMinY(), env.getMaxY(), ctx);
     } else {
       return new RectangleImpl(env.getMinX(), env.getMaxX(), env.getMinY(), env.getMaxY(), ctx);
@@ -222,6 +285,8 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
   public SpatialRelation relate(Point pt) {
     if (!getBoundingBox().relate(pt).intersects())
       return SpatialRelation.DISJOINT;
+    if (pointGrid != null)
+      return pointGrid.intersects(pt.getX(), pt.getY()) ? SpatialRelation.CONTAINS : SpatialRelation.DISJOINT;
     Geometry ptGeom;
     if (pt instanceof JtsPoint)
       ptGeom = ((JtsPoint)pt).getGeom();
@@ -238,126 +303,41 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     return relate(ctx.getGeometryFrom(rectangle));
   }
 
+  /**
+   * Relates using the vertices, which are copied into primitive arrays the first time this is called and cached for
+   * subsequent calls (roughly doubling the memory of this shape, or tripling it if geo). If geo, distances are
+   * geodesic (spherical) with edges treated as great circle arcs; otherwise cartesian.
+   */
   public SpatialRelation relate(final Circle circle) {
     SpatialRelation bboxR = bbox.relate(circle);
     if (bboxR == SpatialRelation.WITHIN || bboxR == SpatialRelation.DISJOINT)
       return bboxR;
     // The result could be anything still.
 
-    final SpatialRelation[] result = {null};
-    // Visit each geometry (this geom might contain others).
-    geom.apply(new GeometryFilter() {
-
-      // We use cartesian math.  It's a limitation/assumption when working with JTS.  When geo=true (i.e. we're using
-      //   WGS84 instead of a projected coordinate system), the errors here will be pretty terrible east-west.  At
-      //   60 degrees latitude, the circle will work as if it has half the width it should.
-      //   Instead, consider converting the circle to a polygon first (not great but better), or projecting both first.
-      //   Ideally, use Geo3D.
-      final CartesianDistCalc calcSqd = CartesianDistCalc.INSTANCE_SQUARED;
-      final double radiusSquared = circle.getRadius() * circle.getRadius();
-      final Geometry ctrGeom = ctx.getGeometryFrom(circle.getCenter());
-
-      @Override
-      public void filter(Geometry geom) {
-        if (result[0] == SpatialRelation.INTERSECTS || result[0] == SpatialRelation.CONTAINS) {
-          // a previous filter(geom) call had a result that won't be changed no matter how this geom relates
-          return;
-        }
-
-        if (geom instanceof Polygon) {
-          Polygon polygon = (Polygon) geom;
-          SpatialRelation rel = relateEnclosedRing((LinearRing) polygon.getExteriorRing());
-          // if rel == INTERSECTS or WITHIN or DISJOINT; done.  But CONTAINS...
-          if (rel == SpatialRelation.CONTAINS) {
-            // if the poly outer ring contains the circle, check the holes. Could become DISJOINT or INTERSECTS.
-            HOLE_LOOP: for (int i = 0; i < polygon.getNumInteriorRing(); i++){
-              // TODO short-circuit based on the hole's bbox if it's disjoint or within the circle.
-              switch (relateEnclosedRing((LinearRing) polygon.getInteriorRingN(i))) {
-                case WITHIN:// fall through
-                case INTERSECTS:
-                  rel = SpatialRelation.INTERSECTS;
-                  break HOLE_LOOP;
-                case CONTAINS:
-                  rel = SpatialRelation.DISJOINT;
-                  break HOLE_LOOP;
-                //case DISJOINT: break; // continue hole loop
-              }
-            }
-          }
-          result[0] = rel.combine(result[0]);
-        } else if (geom instanceof LineString) {
-          LineString lineString = (LineString) geom;
-          SpatialRelation rel = relateLineString(lineString);
-          result[0] = rel.combine(result[0]);
-        } else if (geom instanceof com.vividsolutions.jts.geom.Point) {
-          com.vividsolutions.jts.geom.Point point = (com.vividsolutions.jts.geom.Point) geom;
-          SpatialRelation rel =
-                  calcSqd.distance(circle.getCenter(), point.getX(), point.getY()) > radiusSquared
-                          ? SpatialRelation.DISJOINT : SpatialRelation.WITHIN;
-          result[0] = rel.combine(result[0]);
-        }
-        // else it's going to be some GeometryCollection and we'll visit the contents.
-      }
-
-      /** As if the ring is the outer ring of a polygon */
-      SpatialRelation relateEnclosedRing(LinearRing ring) {
-        SpatialRelation rel = relateLineString(ring);
-        if (rel == SpatialRelation.DISJOINT
-                && ctx.getGeometryFactory().createPolygon(ring, null).contains(ctrGeom)) {
-          // If it contains the circle center point, then the result is CONTAINS
-          rel = SpatialRelation.CONTAINS;
-        }
-        return rel;
-      }
-
-      SpatialRelation relateLineString(LineString lineString) {
-        final CoordinateSequence seq = lineString.getCoordinateSequence();
-        final boolean isRing = lineString instanceof LinearRing;
-        int numOutside = 0;
-        // Compare the coordinates:
-        for (int i = 0, numComparisons = 0; i < seq.size(); i++) {
-          if (i == 0 && isRing) {
-            continue;
-          }
-          numComparisons++;
-          boolean outside = calcSqd.distance(circle.getCenter(), seq.getX(i), seq.getY(i)) > radiusSquared;
-          if (outside) {
-            numOutside++;
-          }
-          // If the comparisons have a mix of outside/inside, then we can short-circuit INTERSECTS.
-          if (numComparisons != numOutside && numOutside != 0) {
-            assert numComparisons > 1;
-            return SpatialRelation.INTERSECTS;
-          }
-        }
-        // Either all vertices are outside or inside, by this stage.
-        if (numOutside == 0) { // all inside
-          return SpatialRelation.WITHIN.combine(result[0]);
-        }
-        // They are all outside.
-        // Check the edges (line segments) to see if any are inside.
-        for (int i = 1; i < seq.size(); i++) {
-          boolean outside = calcSqd.distanceToLineSegment(
-                  circle.getCenter(), seq.getX(i-1), seq.getY(i-1), seq.getX(i), seq.getY(i))
-                  > radiusSquared;
-          if (!outside) {
-            return SpatialRelation.INTERSECTS;
-          }
-        }
-        return SpatialRelation.DISJOINT;
-      }
-    });
-
-    return result[0] == null ? SpatialRelation.DISJOINT : result[0];
+    PackedGeometry packed = this.packed;
+    if (packed == null)
+      this.packed = packed = new PackedGeometry(geom, ctx.isGeo());//final fields; a race merely wastes some work
+    final Point center = circle.getCenter();
+    if (ctx.isGeo())
+      return packed.relateGeoCircle(center.getX(), center.getY(), circle.getRadius(), circle.getBoundingBox());
+    return packed.relateCircle(center.getX(), center.getY(), circle.getRadius());
   }
 
   public SpatialRelation relate(JtsGeometry jtsGeometry) {
     //don't bother checking bbox since geom.relate() does this already
+    if (preparedGeometry == null && jtsGeometry.preparedGeometry != null) {
+      // e.g. a query shape related to many others; use its prepared geometry
+      SpatialRelation rel = jtsGeometry.relate(geom).transpose();
+      if (rel == SpatialRelation.WITHIN && jtsGeometry.preparedGeometry.coveredBy(geom))
+        rel = SpatialRelation.CONTAINS;//equal; CONTAINS takes precedence as in relate(Geometry)
+      return rel;
+    }
     return relate(jtsGeometry.geom);
   }
 
   protected SpatialRelation relate(Geometry oGeom) {
     //see http://docs.geotools.org/latest/userguide/library/jts/dim9.html#preparedgeometry
+    final PreparedGeometry preparedGeometry = getPreparedGeometryForRelate();
     if (oGeom instanceof com.vividsolutions.jts.geom.Point) {
       if (preparedGeometry != null)
         return preparedGeometry.disjoint(oGeom) ? SpatialRelation.DISJOINT : SpatialRelation.CONTAINS;
@@ -374,6 +354,25 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     return SpatialRelation.DISJOINT;
   }
 
+  /**
+   * Returns the {@link PreparedGeometry} if {@link #index()} was called. Otherwise, if
+   * {@link JtsShapeFactory#getAutoIndexThreshold()} is enabled and this shape has been related at least that
+   * many times, then it's gotten from the {@link JtsShapeFactory#getPreparedGeometryCache()}. Otherwise null.
+   */
+  private PreparedGeometry getPreparedGeometryForRelate() {
+    if (preparedGeometry != null)
+      return preparedGeometry;
+    final JtsShapeFactory shapeFactory = ctx.getShapeFactory();
+    final int threshold = shapeFactory.getAutoIndexThreshold();
+    if (threshold <= 0)
+      return null;
+    if (relateCount < threshold) {
+      relateCount++;
+      return null;
+    }
+    return shapeFactory.getPreparedGeometryCache().get(this);
+  }
+
   public static SpatialRelation intersectionMatrixToSpatialRelation(IntersectionMatrix matrix) {
     //As indicated in SpatialRelation javadocs, Spatial4j CONTAINS & WITHIN are
     // OGC's COVERS & COVEREDBY
@@ -521,20 +520,114 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     });
   }
 
-  private static Geometry unionGeometryCollection(Geometry geom) {
+  private static Geometry unionGeometryCollection(Geometry geom, ForkJoinPool pool) {
     if (geom instanceof GeometryCollection) {
+      if (pool != null && geom instanceof Polygonal && geom.getNumGeometries() > 1)
+        return pool.invoke(newUnionTask(geom, pool.getParallelism()));
       return geom.union();
     }
     return geom;
   }
 
+  /**
+   * Partitions the polygons of {@code geom} by an STR-tree of their envelopes, like {@link CascadedPolygonUnion},
+   * and returns a task that unions the subtrees in parallel.
+   */
+  private static UnionTask newUnionTask(Geometry geom, int parallelism) {
+    cacheEnvelopes(geom);
+    STRtree tree = new STRtree(4);
+    for (int i = 0; i < geom.getNumGeometries(); i++) {
+      Geometry polygon = geom.getGeometryN(i);
+      tree.insert(polygon.getEnvelopeInternal(), polygon);
+    }
+    final int grainSize = Math.max(16, geom.getNumGeometries() / (parallelism * 4));
+    return new UnionTask(tree.itemsTree(), grainSize);
+  }
+
+  /** Unions the polygons of a node of {@link STRtree#itemsTree()}. */
+  private static class UnionTask extends RecursiveTask<Geometry> {
+    private final List<?> node;
+    private final int grainSize;
+
+    UnionTask(List<?> node, int grainSize) {
+      this.node = node;
+      this.grainSize = grainSize;
+    }
+
+    @Override
+    protected Geometry compute() {
+      if (countPolygons(node) <= grainSize) {
+        List<Geometry> polygons = new ArrayList<>();
+        collectPolygons(node, polygons);
+        return CascadedPolygonUnion.union(polygons);
+      }
+      // a node this big has only child nodes
+      List<UnionTask> tasks = new ArrayList<>(node.size());
+      for (Object child : node)
+        tasks.add(new UnionTask((List<?>) child, grainSize));
+      invokeAll(tasks);
+      Geometry[] results = new Geometry[tasks.size()];
+      for (int i = 0; i < results.length; i++)
+        results[i] = tasks.get(i).getRawResult();
+      return binaryUnion(results, 0, results.length);
+    }
+
+    private static Geometry binaryUnion(Geometry[] geoms, int from, int to) {
+      if (to - from == 1)
+        return geoms[from];
+      final int mid = (from + to) >>> 1;
+      return binaryUnion(geoms, from, mid).union(binaryUnion(geoms, mid, to));
+    }
+
+    private static int countPolygons(List<?> node) {
+      int count = 0;
+      for (Object child : node)
+        count += child instanceof List ? countPolygons((List<?>) child) : 1;
+      return count;
+    }
+
+    private static void collectPolygons(List<?> node, List<Geometry> polygons) {
+      for (Object child : node) {
+        if (child instanceof List)
+          collectPolygons((List<?>) child, polygons);
+        else
+          polygons.add((Geometry) child);
+      }
+    }
+  }
+
+  /**
+   * Computes the lazily cached envelopes of {@code geom}'s components before it's shared with other threads, which
+   * then only read it.
+   */
+  private static void cacheEnvelopes(Geometry geom) {
+    geom.apply(new GeometryComponentFilter() {
+      @Override
+      public void filter(Geometry component) {
+        component.getEnvelopeInternal();
+      }
+    });
+  }
+
+  /**
+   * The pool to run the work of the constructor on per {@link JtsShapeFactory#getParallelThreshold()}, or null to
+   * run it on the calling thread.
+   */
+  private static ForkJoinPool parallelPool(JtsSpatialContext ctx, Geometry geom) {
+    final JtsShapeFactory shapeFactory = ctx.getShapeFactory();
+    final int threshold = shapeFactory.getParallelThreshold();
+    if (threshold <= 0 || geom.getNumPoints() < threshold)
+      return null;
+    return shapeFactory.getParallelPool();
+  }
+
   /**
    * This "pages" through standard geo boundaries offset by multiples of 360
    * longitudinally that intersect geom, and the intersecting results of a page
    * and the geom are shifted into the standard -180 to +180 and added to a new
    * geometry that is returned.
    */
-  private static Geometry cutUnwrappedGeomInto360(Geometry geom) {
+  private static Geometry cutUnwrappedGeomInto360(Geometry geom, ForkJoinPool pool) {
     Envelope geomEnv = geom.getEnvelopeInternal();
     if (geomEnv.getMinX() >= -180 && geomEnv.getMaxX() <= 180)
       return geom;
@@ -542,21 +635,66 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
 
     //TODO opt: support geom's that start at negative pages --
     // ... will avoid need to previously shift in unwrapDateline(geom).
-    List<Geometry> geomList = new ArrayList<Geometry>();
+    List<PageTask> pageTasks = new ArrayList<>();
     //page 0 is the standard -180 to 180 range
     for (int page = 0; true; page++) {
       double minX = -180 + page * 360;
       if (geomEnv.getMaxX() <= minX)
         break;
+      pageTasks.add(new PageTask(geom, page, pool != null));
+    }
+    if (pool != null && pageTasks.size() > 1) {
+      cacheEnvelopes(geom);
+      pool.invoke(new PagesTask(pageTasks));
+    } else {
+      for (PageTask pageTask : pageTasks)
+        pageTask.invoke();
+    }
+    List<Geometry> geomList = new ArrayList<>(pageTasks.size());
+    for (PageTask pageTask : pageTasks)
+      geomList.add(pageTask.getRawResult());
+    return UnaryUnionOp.union(geomList);
+  }
+
+  /** The part of the geometry on a page, shifted into the standard -180 to 180 range. */
+  private static class PageTask extends RecursiveTask<Geometry> {
+    private final Geometry geom;
+    private final int page;
+    private final boolean concurrent;
+
+    PageTask(Geometry geom, int page, boolean concurrent) {
+      this.geom = geom;
+      this.page = page;
+      this.concurrent = concurrent;
+    }
+
+    @Override
+    protected Geometry compute() {
+      double minX = -180 + page * 360;
       Geometry rect = geom.getFactory().toGeometry(new Envelope(minX, minX + 360, -90, 90));
       assert rect.isValid() : "rect";
       Geometry pageGeom = rect.intersection(geom);//JTS is doing some hard work
       assert pageGeom.isValid() : "pageGeom";
 
+      //the intersection can share Coordinates with geom, which other pages may be reading
+      if (concurrent && page != 0)
+        pageGeom = (Geometry) pageGeom.clone();
       shiftGeomByX(pageGeom, page * -360);
-      geomList.add(pageGeom);
+      return pageGeom;
+    }
+  }
+
+  private static class PagesTask extends RecursiveAction {
+    private final List<PageTask> pageTasks;
+
+    PagesTask(List<PageTask> pageTasks) {
+      this.pageTasks = pageTasks;
+    }
+
+    @Override
+    protected void compute() {
+      invokeAll(pageTasks);
     }
-    return UnaryUnionOp.union(geomList);
   }
 
 //  private static Geometry removePolyHoles(Geometry geom) {
@@ -8,6 +8,7 @@
 
 package org.locationtech.spatial4j.shape.jts;
 
+import org.locationtech.spatial4j.SpatialPredicate;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.jts.DatelineRule;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
@@ -22,11 +23,14 @@ import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.impl.ShapeFactoryImpl;
 import com.vividsolutions.jts.algorithm.CGAlgorithms;
 import com.vividsolutions.jts.geom.*;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
 import com.vividsolutions.jts.util.GeometricShapeFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Enhances {@link ShapeFactoryImpl} with support for Polygons
@@ -47,6 +51,11 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
   protected final DatelineRule datelineRule;
   protected final ValidationRule validationRule;
   protected final boolean autoIndex;
+  protected final boolean autoIndexPointGrid;
+  protected final int autoIndexThreshold;
+  protected final PreparedGeometryCache preparedGeometryCache;//null if autoIndexThreshold <= 0
+  protected final int parallelThreshold;
+  protected final ForkJoinPool parallelPool;//null means the shared one
 
   /**
    * Called by {@link org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory#newSpatialContext()}.
@@ -62,6 +71,11 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     this.datelineRule = factory.datelineRule;
     this.validationRule = factory.validationRule;
     this.autoIndex = factory.autoIndex;
+    this.autoIndexPointGrid = factory.autoIndexPointGrid;
+    this.autoIndexThreshold = factory.autoIndexThreshold;
+    this.preparedGeometryCache = autoIndexThreshold > 0 ? new PreparedGeometryCache(factory.autoIndexCacheSize) : null;
+    this.parallelThreshold = factory.parallelThreshold;
+    this.parallelPool = factory.parallelPool;
   }
 
   /**
@@ -99,6 +113,49 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     return autoIndex;
   }
 
+  /**
+   * If polygonal JtsGeometry shapes should automatically get a grid index for point lookups when read via a
+   * {@link ShapeReader}.
+   *
+   * @see org.locationtech.spatial4j.shape.jts.JtsGeometry#indexPointGrid()
+   */
+  public boolean isAutoIndexPointGrid() {
+    return autoIndexPointGrid;
+  }
+
+  /**
+   * If &gt; 0, the number of relate calls on a JtsGeometry that wasn't {@link JtsGeometry#index() indexed}
+   * after which it is "prepared" automatically and held in {@link #getPreparedGeometryCache()}.
+   * 0 (the default) disables this.
+   */
+  public int getAutoIndexThreshold() {
+    return autoIndexThreshold;
+  }
+
+  /**
+   * The cache of geometries prepared adaptively per {@link #getAutoIndexThreshold()}; null if that is disabled.
+   */
+  public PreparedGeometryCache getPreparedGeometryCache() {
+    return preparedGeometryCache;
+  }
+
+  /**
+   * If &gt; 0, the number of vertices from which a {@link JtsGeometry} being constructed does its expensive steps
+   * on {@link #getParallelPool()}: the union of a multi-polygon's overlapping polygons (per
+   * {@link #isAllowMultiOverlap()}), which unions subtrees of an STR-tree of the polygons in parallel, and the
+   * cutting of a geometry crossing the dateline into pages. 0 (the default) disables this.
+   */
+  public int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * The pool for {@link #getParallelThreshold()}; by default {@link SpatialPredicate#getSharedPool()}.
+   */
+  public ForkJoinPool getParallelPool() {
+    return parallelPool != null ? parallelPool : SpatialPredicate.getSharedPool();
+  }
+
   @Override
   public double normX(double x) {
     x = super.normX(x);
@@ -248,7 +305,7 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     }
 
     LineString buildLineStringGeom() {
-      return geometryFactory.createLineString(getCoordsArray());
+      return geometryFactory.createLineString(getCoordinateSequence());
     }
   }
 
@@ -272,7 +329,7 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
 
       @Override
       public JtsPolygonBuilder endHole() {
-        LinearRing linearRing = geometryFactory.createLinearRing(getCoordsArray());
+        LinearRing linearRing = geometryFactory.createLinearRing(getCoordinateSequence());
         if (JtsPolygonBuilder.this.holes == null) {
           JtsPolygonBuilder.this.holes = new ArrayList<>(4);//short
         }
@@ -296,15 +353,22 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     }
 
     Polygon buildPolygonGeom() {
-      LinearRing outerRing = geometryFactory.createLinearRing(getCoordsArray());
+      LinearRing outerRing = geometryFactory.createLinearRing(getCoordinateSequence());
       LinearRing[] holeRings = holes == null ? EMPTY_HOLES : holes.toArray(new LinearRing[this.holes.size()]);
       return geometryFactory.createPolygon(outerRing, holeRings);
     }
 
   } // class JtsPolygonBuilder
 
+  /**
+   * Accumulates coordinates into a growable {@code double[]}, x and y (and z once given) per point, rather than
+   * {@link Coordinate} objects. If the {@link CoordinateSequenceFactory} is a
+   * {@link PackedCoordinateSequenceFactory} of doubles then that array becomes the sequence without any.
+   */
   private abstract class CoordinatesAccumulator<T extends CoordinatesAccumulator> {
-    protected List<Coordinate> coordinates = new ArrayList<>();
+    protected double[] ordinates = new double[32];
+    protected int dimension = 2;// becomes 3 on the first z
+    protected int size;
 
     public T pointXY(double x, double y) {
       return pointXYZ(x, y, Coordinate.NULL_ORDINATE);
@@ -313,17 +377,53 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     public T pointXYZ(double x, double y, double z) {
       verifyX(x);
       verifyY(y);
-      coordinates.add(new Coordinate(x, y, z));
+      if (dimension == 2 && !Double.isNaN(z)) {
+        toDimension3();
+      }
+      int offset = size * dimension;
+      if (offset + dimension > ordinates.length) {
+        ordinates = Arrays.copyOf(ordinates, ordinates.length * 2);
+      }
+      ordinates[offset] = x;
+      ordinates[offset + 1] = y;
+      if (dimension == 3) {
+        ordinates[offset + 2] = z;
+      }
+      size++;
       return getThis();
     }
 
+    private void toDimension3() {
+      double[] xyz = new double[Math.max(32, (size + 1) * 3 * 2)];
+      for (int i = 0; i < size; i++) {
+        xyz[i * 3] = ordinates[i * 2];
+        xyz[i * 3 + 1] = ordinates[i * 2 + 1];
+        xyz[i * 3 + 2] = Coordinate.NULL_ORDINATE;
+      }
+      ordinates = xyz;
+      dimension = 3;
+    }
+
     // TODO would be be useful to add other ways of providing points?  e.g. point(Coordinate)?
 
-    // TODO consider wrapping the List<Coordinate> in a custom CoordinateSequence and then (conditionally) use
-    //  geometryFactory's coordinateSequenceFactory to create a new CS if configured to do so.
-    //  Also consider instead natively storing the double[] and then auto-expanding on pointXY* as needed.
+    protected CoordinateSequence getCoordinateSequence() {
+      CoordinateSequenceFactory csFactory = geometryFactory.getCoordinateSequenceFactory();
+      if (csFactory instanceof PackedCoordinateSequenceFactory) {
+        PackedCoordinateSequenceFactory packedFactory = (PackedCoordinateSequenceFactory) csFactory;
+        if (packedFactory.getType() == PackedCoordinateSequenceFactory.DOUBLE) {
+          return packedFactory.create(Arrays.copyOf(ordinates, size * dimension), dimension);
+        }
+      }
+      return csFactory.create(getCoordsArray());
+    }
+
     protected Coordinate[] getCoordsArray() {
-      return coordinates.toArray(new Coordinate[coordinates.size()]);
+      Coordinate[] coords = new Coordinate[size];
+      for (int i = 0, offset = 0; i < size; i++, offset += dimension) {
+        coords[i] = new Coordinate(ordinates[offset], ordinates[offset + 1],
+            dimension == 3 ? ordinates[offset + 2] : Coordinate.NULL_ORDINATE);
+      }
+      return coords;
     }
 
     @SuppressWarnings("unchecked")
@@ -348,7 +448,7 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
   private class JtsMultiPointBuilder extends CoordinatesAccumulator<JtsMultiPointBuilder> implements MultiPointBuilder {
     @Override
     public Shape build() {
-      return makeShape(geometryFactory.createMultiPoint(getCoordsArray()));
+      return makeShape(geometryFactory.createMultiPoint(getCoordinateSequence()));
     }
   }
 
@@ -505,6 +605,8 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     }
     if (isAutoIndex())
       jtsGeom.index();
+    if (isAutoIndexPointGrid())
+      jtsGeom.indexPointGrid();
     return jtsGeom;
   }
 
@@ -536,6 +638,24 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     return makeShape(geom, datelineRule != DatelineRule.none, allowMultiOverlap);
   }
 
+  /**
+   * INTERNAL: Creates a {@link JtsGeometry} from a JTS {@link Geometry} the caller vouches for, such as one
+   * obtained earlier from {@link JtsGeometry#getGeom()} and stored. None of the normalization of
+   * {@link #makeShape(Geometry)} is done (dateline handling, union of overlaps, bounding box computation), nor is
+   * the geometry validated if {@code validated}, and the {@link ValidationRule} isn't applied. Auto-indexing
+   * is, as in {@link #makeShapeFromGeometry(Geometry)}.
+   *
+   * @see JtsGeometry#JtsGeometry(Geometry, JtsSpatialContext, Rectangle, boolean, boolean)
+   */
+  public JtsGeometry makeShapeTrusted(Geometry geom, Rectangle bbox, boolean hasArea, boolean validated) {
+    JtsGeometry jtsGeom = new JtsGeometry(geom, (JtsSpatialContext) ctx, bbox, hasArea, validated);
+    if (isAutoIndex())
+      jtsGeom.index();
+    if (isAutoIndexPointGrid())
+      jtsGeom.indexPointGrid();
+    return jtsGeom;
+  }
+
   public GeometryFactory getGeometryFactory() {
     return geometryFactory;
   }
@@ -0,0 +1,416 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.jts;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Polygon;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+
+import java.util.Arrays;
+
+/**
+ * The vertices of a {@link Geometry} copied into flat primitive arrays, grouped into rings (or line strings)
+ * with their bounding boxes, for relating to a circle quickly and without allocating. The loops over the
+ * vertices are simple enough for the JIT to unroll and vectorize. If geodetic, each vertex's 3D unit vector
+ * is precomputed too, so that geodesic distances compare as chord lengths. Instances are immutable and thus
+ * thread-safe.
+ *
+ * @see JtsGeometry#relate(org.locationtech.spatial4j.shape.Circle)
+ */
+final class PackedGeometry {
+
+  private static final byte PART_POINT = 0, PART_LINE = 1, PART_POLYGON = 2;
+
+  /** Vertices are compared in blocks this big, branch-free, before checking for a mix of inside and outside. */
+  private static final int BLOCK_SIZE = 32;
+
+  // Points, line strings and polygons, in the order of Geometry.apply(GeometryFilter)
+  private final int numParts;
+  private final byte[] partKinds;
+  private final int[] partRings;//first ring
+  private final int[] partNumRings;
+
+  // Rings (or the coordinates of a line string or point); coordinates [ringFrom, ringTo)
+  private final int[] ringFrom;
+  private final int[] ringTo;
+  private final boolean[] ringIsLinearRing;//its first vertex is its last; isn't compared twice
+  private final double[] ringBounds;//minX, maxX, minY, maxY
+
+  private final double[] xs;
+  private final double[] ys;
+  // If geo; unit vectors in 3D of (xs, ys) as longitude, latitude
+  private final double[] vxs, vys, vzs;
+
+  PackedGeometry(Geometry geom, boolean geo) {
+    // build into a separate object so that every field here is final, and safely published
+    final Builder builder = new Builder();
+    builder.add(geom);
+    numParts = builder.numParts;
+    partKinds = Arrays.copyOf(builder.partKinds, numParts);
+    partRings = Arrays.copyOf(builder.partRings, numParts);
+    partNumRings = Arrays.copyOf(builder.partNumRings, numParts);
+    final int numRings = builder.numRings;
+    ringFrom = Arrays.copyOf(builder.ringFrom, numRings);
+    ringTo = Arrays.copyOf(builder.ringTo, numRings);
+    ringIsLinearRing = Arrays.copyOf(builder.ringIsLinearRing, numRings);
+    ringBounds = Arrays.copyOf(builder.ringBounds, numRings * 4);
+    final int numCoords = builder.numCoords;
+    xs = Arrays.copyOf(builder.xs, numCoords);
+    ys = Arrays.copyOf(builder.ys, numCoords);
+    if (geo) {
+      vxs = new double[numCoords];
+      vys = new double[numCoords];
+      vzs = new double[numCoords];
+      for (int i = 0; i < numCoords; i++) {
+        final double lon = Math.toRadians(xs[i]), lat = Math.toRadians(ys[i]);
+        final double cosLat = Math.cos(lat);
+        vxs[i] = cosLat * Math.cos(lon);
+        vys[i] = cosLat * Math.sin(lon);
+        vzs[i] = Math.sin(lat);
+      }
+    } else {
+      vxs = vys = vzs = null;
+    }
+  }
+
+  /** Accumulates the parts, rings and coordinates into growable arrays. */
+  private static class Builder {
+    int numParts;
+    byte[] partKinds = new byte[4];
+    int[] partRings = new int[4];
+    int[] partNumRings = new int[4];
+
+    int numRings;
+    int[] ringFrom = new int[4];
+    int[] ringTo = new int[4];
+    boolean[] ringIsLinearRing = new boolean[4];
+    double[] ringBounds = new double[4 * 4];
+
+    int numCoords;
+    double[] xs = new double[16];
+    double[] ys = new double[16];
+
+    void add(Geometry geom) {
+      if (geom instanceof Polygon) {
+        Polygon polygon = (Polygon) geom;
+        if (polygon.isEmpty()) {
+          addPart(PART_POLYGON, 0);
+          return;
+        }
+        addPart(PART_POLYGON, 1 + polygon.getNumInteriorRing());
+        addRing(polygon.getExteriorRing());
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++)
+          addRing(polygon.getInteriorRingN(i));
+      } else if (geom instanceof LineString) {
+        addPart(PART_LINE, 1);
+        addRing((LineString) geom);
+      } else if (geom instanceof com.vividsolutions.jts.geom.Point) {
+        if (geom.isEmpty())
+          return;
+        addPart(PART_POINT, 1);
+        addRing((com.vividsolutions.jts.geom.Point) geom);
+      } else if (geom instanceof GeometryCollection) {
+        for (int i = 0; i < geom.getNumGeometries(); i++)
+          add(geom.getGeometryN(i));
+      }
+    }
+
+    private void addPart(byte kind, int rings) {
+      if (numParts == partKinds.length) {
+        partKinds = Arrays.copyOf(partKinds, numParts * 2);
+        partRings = Arrays.copyOf(partRings, numParts * 2);
+        partNumRings = Arrays.copyOf(partNumRings, numParts * 2);
+      }
+      partKinds[numParts] = kind;
+      partRings[numParts] = numRings;
+      partNumRings[numParts] = rings;
+      numParts++;
+    }
+
+    private void addRing(Geometry lineOrPoint) {
+      if (numRings == ringFrom.length) {
+        ringFrom = Arrays.copyOf(ringFrom, numRings * 2);
+        ringTo = Arrays.copyOf(ringTo, numRings * 2);
+        ringIsLinearRing = Arrays.copyOf(ringIsLinearRing, numRings * 2);
+        ringBounds = Arrays.copyOf(ringBounds, numRings * 2 * 4);
+      }
+      final CoordinateSequence seq = lineOrPoint instanceof LineString
+          ? ((LineString) lineOrPoint).getCoordinateSequence()
+          : ((com.vividsolutions.jts.geom.Point) lineOrPoint).getCoordinateSequence();
+      final int size = seq.size();
+      if (numCoords + size > xs.length) {
+        xs = Arrays.copyOf(xs, Math.max(xs.length * 2, numCoords + size));
+        ys = Arrays.copyOf(ys, xs.length);
+      }
+      double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < size; i++) {
+        final double x = seq.getX(i), y = seq.getY(i);
+        xs[numCoords + i] = x;
+        ys[numCoords + i] = y;
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+      }
+      ringFrom[numRings] = numCoords;
+      ringTo[numRings] = numCoords + size;
+      ringIsLinearRing[numRings] = lineOrPoint instanceof LinearRing;
+      ringBounds[numRings * 4] = minX;
+      ringBounds[numRings * 4 + 1] = maxX;
+      ringBounds[numRings * 4 + 2] = minY;
+      ringBounds[numRings * 4 + 3] = maxY;
+      numRings++;
+      numCoords += size;
+    }
+  }
+
+  /**
+   * Relates the geometry to a circle using cartesian math, from the perspective of the geometry. Vertices
+   * exactly on the circle's edge are inside it.
+   */
+  SpatialRelation relateCircle(double cx, double cy, double radius) {
+    return relateParts(false, cx, cy, 0, 0, 0, radius * radius, null);
+  }
+
+  /**
+   * Relates the geometry to a geodesic circle on a sphere, from the perspective of the geometry; all in degrees.
+   * A vertex is in the circle if the squared chord length between its unit vector and the center's is at most
+   * that of the radius, {@code 4·sin²(r/2)}; unlike comparing a dot product to {@code cos(r)}, this keeps its
+   * precision for small radii. Edges are treated as great circle arcs, which
+   * for short edges closely approximate the straight lines in longitude & latitude that JTS uses. Requires that
+   * this was constructed with {@code geo}.
+   *
+   * @param circleBBox the circle's bounding box, to short-circuit rings that are disjoint
+   */
+  SpatialRelation relateGeoCircle(double lon, double lat, double radiusDEG, Rectangle circleBBox) {
+    assert vxs != null : "not geo";
+    final double lonRad = Math.toRadians(lon), latRad = Math.toRadians(lat);
+    final double cosLat = Math.cos(latRad);
+    final double sinHalfRadius = Math.sin(Math.toRadians(Math.min(radiusDEG, 180)) / 2);
+    return relateParts(true, lon, lat,
+        cosLat * Math.cos(lonRad), cosLat * Math.sin(lonRad), Math.sin(latRad),
+        4 * sinHalfRadius * sinHalfRadius, circleBBox);
+  }
+
+  /**
+   * @param threshold if geo, the squared chord length of the radius, otherwise the radius squared
+   */
+  private SpatialRelation relateParts(boolean geo, double cx, double cy, double ux, double uy, double uz,
+                                      double threshold, Rectangle circleBBox) {
+    SpatialRelation result = null;
+    for (int p = 0; p < numParts; p++) {
+      if (result == SpatialRelation.INTERSECTS || result == SpatialRelation.CONTAINS) {
+        // a prior part had a result that won't be changed no matter how this part relates
+        break;
+      }
+      final int firstRing = partRings[p];
+      SpatialRelation rel;
+      switch (partKinds[p]) {
+        case PART_POINT: {
+          final int i = ringFrom[firstRing];
+          final boolean outside = geo
+              ? chordSquared(ux, uy, uz, vxs[i], vys[i], vzs[i]) > threshold
+              : distanceSquared(cx, cy, xs[i], ys[i]) > threshold;
+          rel = outside ? SpatialRelation.DISJOINT : SpatialRelation.WITHIN;
+          break;
+        }
+        case PART_LINE:
+          rel = relateRing(geo, firstRing, cx, cy, ux, uy, uz, threshold, circleBBox, false);
+          break;
+        default: // PART_POLYGON
+          if (partNumRings[p] == 0) {
+            rel = SpatialRelation.WITHIN;//no vertices are outside
+            break;
+          }
+          rel = relateRing(geo, firstRing, cx, cy, ux, uy, uz, threshold, circleBBox, true);
+          // if rel == INTERSECTS or WITHIN or DISJOINT; done.  But CONTAINS...
+          if (rel == SpatialRelation.CONTAINS) {
+            // if the outer ring contains the circle, check the holes. Could become DISJOINT or INTERSECTS.
+            HOLE_LOOP:
+            for (int h = firstRing + 1; h < firstRing + partNumRings[p]; h++) {
+              switch (relateRing(geo, h, cx, cy, ux, uy, uz, threshold, circleBBox, true)) {
+                case WITHIN:// fall through
+                case INTERSECTS:
+                  rel = SpatialRelation.INTERSECTS;
+                  break HOLE_LOOP;
+                case CONTAINS:
+                  rel = SpatialRelation.DISJOINT;
+                  break HOLE_LOOP;
+                default: // DISJOINT; continue the hole loop
+              }
+            }
+          }
+      }
+      result = rel.combine(result);
+    }
+    return result == null ? SpatialRelation.DISJOINT : result;
+  }
+
+  private SpatialRelation relateRing(boolean geo, int ring, double cx, double cy, double ux, double uy, double uz,
+                                     double threshold, Rectangle circleBBox, boolean enclosed) {
+    return geo ? relateGeoRing(ring, cx, cy, ux, uy, uz, threshold, circleBBox, enclosed)
+        : relateRing(ring, cx, cy, threshold, enclosed);
+  }
+
+  /**
+   * Relates a line string or ring to the circle. If {@code enclosed} then it's treated as the outer ring of
+   * a polygon, and so CONTAINS is possible.
+   */
+  private SpatialRelation relateRing(int ring, double cx, double cy, double radiusSquared, boolean enclosed) {
+    final int from = ringFrom[ring], to = ringTo[ring];
+    final int firstCompared = ringIsLinearRing[ring] ? from + 1 : from;
+    if (firstCompared >= to)
+      return SpatialRelation.WITHIN;//nothing is outside
+
+    // Short-circuit on the bounding box.  The rounding of these distances is consistent with the vertices'.
+    final int b = ring * 4;
+    final double minX = ringBounds[b], maxX = ringBounds[b + 1], minY = ringBounds[b + 2], maxY = ringBounds[b + 3];
+    final double nearDx = Math.max(0, Math.max(minX - cx, cx - maxX));
+    final double nearDy = Math.max(0, Math.max(minY - cy, cy - maxY));
+    if (nearDx * nearDx + nearDy * nearDy > radiusSquared)
+      return SpatialRelation.DISJOINT;//and the center is outside the bbox, thus the ring
+    final double farDx = Math.max(cx - minX, maxX - cx);
+    final double farDy = Math.max(cy - minY, maxY - cy);
+    if (farDx * farDx + farDy * farDy <= radiusSquared)
+      return SpatialRelation.WITHIN;
+
+    // Compare the vertices.  If they have a mix of outside & inside, then we can short-circuit INTERSECTS.
+    int numOutside = 0;
+    for (int i = firstCompared; i < to; ) {
+      final int blockEnd = Math.min(to, i + BLOCK_SIZE);
+      for (; i < blockEnd; i++) {
+        numOutside += distanceSquared(cx, cy, xs[i], ys[i]) > radiusSquared ? 1 : 0;
+      }
+      if (numOutside != 0 && numOutside != i - firstCompared)
+        return SpatialRelation.INTERSECTS;
+    }
+    if (numOutside == 0)
+      return SpatialRelation.WITHIN;
+
+    // They are all outside.  Check the edges (line segments) to see if any are inside.
+    for (int i = from + 1; i < to; i++) {
+      if (distanceToSegmentSquared(cx, cy, xs[i - 1], ys[i - 1], xs[i], ys[i]) <= radiusSquared)
+        return SpatialRelation.INTERSECTS;
+    }
+    // If it contains the circle's center, then it contains the circle
+    if (enclosed && ringContains(from, to, cx, cy))
+      return SpatialRelation.CONTAINS;
+    return SpatialRelation.DISJOINT;
+  }
+
+  /** Like {@link #relateRing(int, double, double, double, boolean)} but geodesic. */
+  private SpatialRelation relateGeoRing(int ring, double lon, double lat, double ux, double uy, double uz,
+                                        double chordSq, Rectangle circleBBox, boolean enclosed) {
+    final int from = ringFrom[ring], to = ringTo[ring];
+    final int firstCompared = ringIsLinearRing[ring] ? from + 1 : from;
+    if (firstCompared >= to)
+      return SpatialRelation.WITHIN;//nothing is outside
+
+    // Short-circuit on the bounding box (the circle's might cross the dateline)
+    final int b = ring * 4;
+    if (ringBounds[b + 3] < circleBBox.getMinY() || ringBounds[b + 2] > circleBBox.getMaxY())
+      return SpatialRelation.DISJOINT;
+    if (circleBBox.getCrossesDateLine()
+        ? ringBounds[b] > circleBBox.getMaxX() && ringBounds[b + 1] < circleBBox.getMinX()
+        : ringBounds[b] > circleBBox.getMaxX() || ringBounds[b + 1] < circleBBox.getMinX())
+      return SpatialRelation.DISJOINT;
+
+    int numOutside = 0;
+    for (int i = firstCompared; i < to; ) {
+      final int blockEnd = Math.min(to, i + BLOCK_SIZE);
+      for (; i < blockEnd; i++) {
+        numOutside += chordSquared(ux, uy, uz, vxs[i], vys[i], vzs[i]) > chordSq ? 1 : 0;
+      }
+      if (numOutside != 0 && numOutside != i - firstCompared)
+        return SpatialRelation.INTERSECTS;
+    }
+    if (numOutside == 0)
+      return SpatialRelation.WITHIN;
+
+    // They are all outside.  Check the edges (great circle arcs) to see if any are inside.
+    for (int i = from + 1; i < to; i++) {
+      if (isArcInterior(i - 1, i, ux, uy, uz, chordSq))
+        return SpatialRelation.INTERSECTS;
+    }
+    if (enclosed && ringContains(from, to, lon, lat))
+      return SpatialRelation.CONTAINS;
+    return SpatialRelation.DISJOINT;
+  }
+
+  /**
+   * Whether the point on the arc between vertices a and b that is closest to the center is within the circle.
+   * The vertices themselves are known to be outside of it.
+   *
+   * @param chordSq the squared chord length of the radius
+   */
+  private boolean isArcInterior(int a, int b, double ux, double uy, double uz, double chordSq) {
+    final double ax = vxs[a], ay = vys[a], az = vzs[a];
+    final double bx = vxs[b], by = vys[b], bz = vzs[b];
+    // the normal of the arc's plane
+    final double nx = ay * bz - az * by, ny = az * bx - ax * bz, nz = ax * by - ay * bx;
+    final double nn = nx * nx + ny * ny + nz * nz;
+    if (nn == 0)
+      return false;//coincident (or antipodal) vertices
+    // The center's projection onto the plane is between a and b if on the same side of each as the other is
+    final double aCrossU = nx * (ay * uz - az * uy) + ny * (az * ux - ax * uz) + nz * (ax * uy - ay * ux);
+    final double uCrossB = nx * (uy * bz - uz * by) + ny * (uz * bx - ux * bz) + nz * (ux * by - uy * bx);
+    if (aCrossU < 0 || uCrossB < 0)
+      return false;//then the closest point is a vertex
+    if (chordSq >= 2)
+      return true;//the radius is at least 90 degrees, and any great circle comes within 90 degrees
+    // sin of the angle to the plane is the component of u along its normal; compare to sin²(r), which is
+    // chord²·(1 - chord²/4) from sin(r) = 2·sin(r/2)·cos(r/2)
+    final double un = ux * nx + uy * ny + uz * nz;
+    return un * un <= nn * chordSq * (1 - chordSq / 4);
+  }
+
+  /**
+   * Even-odd ray crossing test. The point is known to be farther than the radius from the ring, so it isn't
+   * on it.
+   */
+  private boolean ringContains(int from, int to, double x, double y) {
+    boolean inside = false;
+    for (int i = from + 1; i < to; i++) {
+      final double x1 = xs[i - 1], y1 = ys[i - 1], x2 = xs[i], y2 = ys[i];
+      if ((y1 > y) != (y2 > y) && x < x1 + (y - y1) * (x2 - x1) / (y2 - y1))
+        inside = !inside;
+    }
+    return inside;
+  }
+
+  private static double chordSquared(double ux, double uy, double uz, double vx, double vy, double vz) {
+    final double dx = ux - vx, dy = uy - vy, dz = uz - vz;
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  private static double distanceSquared(double fromX, double fromY, double toX, double toY) {
+    final double deltaX = fromX - toX;
+    final double deltaY = fromY - toY;
+    return deltaX * deltaX + deltaY * deltaY;
+  }
+
+  /** As in {@link org.locationtech.spatial4j.distance.CartesianDistCalc#distanceToLineSegment}. */
+  private static double distanceToSegmentSquared(double x, double y, double vX, double vY, double wX, double wY) {
+    final double d = distanceSquared(vX, vY, wX, wY);
+    if (d <= 0)
+      return distanceSquared(x, y, vX, vY);
+    final double t = ((x - vX) * (wX - vX) + (y - vY) * (wY - vY)) / d;
+    if (t < 0)
+      return distanceSquared(x, y, vX, vY);
+    if (t > 1)
+      return distanceSquared(x, y, wX, wY);
+    return distanceSquared(x, y, vX + t * (wX - vX), vY + t * (wY - vY));
+  }
+}
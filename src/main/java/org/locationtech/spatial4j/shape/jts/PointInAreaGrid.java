@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.jts;
+
+import com.vividsolutions.jts.algorithm.RobustDeterminant;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.Polygonal;
+
+/**
+ * A uniform grid over the envelope of a polygonal {@link Geometry} for answering point-in-area queries
+ * quickly and without allocating. Each grid cell is classified as entirely inside, entirely outside, or
+ * on the boundary (some ring edge may pass through it). Only points in boundary cells need a
+ * ray-crossing test, and that only against the edges in the boundary cells between the point and the
+ * next classified cell to its right in the same row, whose location is known.
+ * <p>
+ * The crossing test follows JTS's {@link com.vividsolutions.jts.algorithm.RayCrossingCounter}, so points on
+ * the boundary are considered to intersect, consistent with {@code Geometry.disjoint(point)}.
+ * Instances are immutable and thus thread-safe.
+ *
+ * @see JtsGeometry#indexPointGrid()
+ */
+final class PointInAreaGrid {
+
+  private static final byte OUTSIDE = 0;
+  private static final byte INSIDE = 1;
+  private static final byte BOUNDARY = 2;
+
+  private static final int CELLS_PER_SEG = 16;
+  private static final int MIN_CELLS = 16;
+  private static final int MAX_CELLS = 1 << 18;
+  private static final int MIN_GRID_SIZE = 32;//for slivers, like a dateline crossing archipelago
+  private static final int MAX_GRID_SIZE = 4096;
+  private static final double BAND_PAD = 1e-6;//fraction of a row
+
+  private final double minX, minY, maxX, maxY;
+  private final int numCols, numRows;
+  private final double colsPerX, rowsPerY;
+  private final byte[] cells;//row-major
+  private final double[] segs;//x1,y1,x2,y2 per ring segment
+  /** Per boundary cell, the segments (indexes into segs, not multiplied by 4) that may pass through it. */
+  private final int[][] cellSegs;
+  /** Parallel to cellSegs; the first column in this row the segment is listed in. */
+  private final int[][] cellSegFirstCols;
+
+  /** Returns null if the geometry isn't polygonal or is empty. */
+  static PointInAreaGrid create(Geometry geom) {
+    if (!(geom instanceof Polygonal) || geom.isEmpty())
+      return null;
+    return new PointInAreaGrid(geom);
+  }
+
+  private PointInAreaGrid(Geometry geom) {
+    final Envelope env = geom.getEnvelopeInternal();
+    minX = env.getMinX();
+    minY = env.getMinY();
+    maxX = env.getMaxX();
+    maxY = env.getMaxY();
+
+    // Gather the ring segments into primitive arrays
+    int numSegs = 0;
+    for (int g = 0; g < geom.getNumGeometries(); g++) {
+      Polygon poly = (Polygon) geom.getGeometryN(g);
+      numSegs += poly.getExteriorRing().getNumPoints() - 1;
+      for (int h = 0; h < poly.getNumInteriorRing(); h++)
+        numSegs += poly.getInteriorRingN(h).getNumPoints() - 1;
+    }
+    segs = new double[numSegs * 4];
+    int segIdx = 0;
+    for (int g = 0; g < geom.getNumGeometries(); g++) {
+      Polygon poly = (Polygon) geom.getGeometryN(g);
+      segIdx = addRing(poly.getExteriorRing().getCoordinateSequence(), segIdx);
+      for (int h = 0; h < poly.getNumInteriorRing(); h++)
+        segIdx = addRing(poly.getInteriorRingN(h).getCoordinateSequence(), segIdx);
+    }
+    assert segIdx == numSegs;
+
+    // Several cells per edge so that most cells have at most a couple, shaped to the aspect ratio
+    final long targetCells = Math.max(MIN_CELLS, Math.min(MAX_CELLS, (long) numSegs * CELLS_PER_SEG));
+    final double width = env.getWidth(), height = env.getHeight();
+    if (width == 0 || height == 0) {
+      numCols = width == 0 ? 1 : (int) Math.sqrt(targetCells);
+      numRows = height == 0 ? 1 : (int) Math.sqrt(targetCells);
+    } else {
+      double aspect = width / height;
+      numCols = (int) Math.max(MIN_GRID_SIZE, Math.min(MAX_GRID_SIZE, Math.round(Math.sqrt(targetCells * aspect))));
+      numRows = (int) Math.max(MIN_GRID_SIZE, Math.min(MAX_GRID_SIZE, Math.round(Math.sqrt(targetCells / aspect))));
+    }
+    colsPerX = width == 0 ? 0 : numCols / width;
+    rowsPerY = height == 0 ? 0 : numRows / height;
+
+    // Find the cells each segment may pass through: its x-extent within each of its rows, padded by a column
+    //  either side for rounding.  Note: row() is monotonic, so any y within a segment's y range is in one of its
+    //  rows.  Two passes: count, then fill.
+    cells = new byte[numCols * numRows];
+    final int[] cellCounts = new int[numCols * numRows];
+    cellSegs = new int[numCols * numRows][];
+    cellSegFirstCols = new int[numCols * numRows][];
+    final double rowHeight = height / numRows;
+    for (int pass = 0; pass < 2; pass++) {
+      for (int s = 0; s < numSegs; s++) {
+        final double x1 = segs[s * 4], y1 = segs[s * 4 + 1], x2 = segs[s * 4 + 2], y2 = segs[s * 4 + 3];
+        final int rMin = row(Math.min(y1, y2)), rMax = row(Math.max(y1, y2));
+        for (int r = rMin; r <= rMax; r++) {
+          double sMinX, sMaxX;
+          if (y1 == y2 || rMin == rMax) {
+            sMinX = Math.min(x1, x2);
+            sMaxX = Math.max(x1, x2);
+          } else {
+            // clip to the row's y band (slightly widened since row() rounds), then interpolate x
+            double bandLo = Math.max(Math.min(y1, y2), minY + (r - BAND_PAD) * rowHeight);
+            double bandHi = Math.min(Math.max(y1, y2), minY + (r + 1 + BAND_PAD) * rowHeight);
+            double xLo = x1 + (x2 - x1) * ((bandLo - y1) / (y2 - y1));
+            double xHi = x1 + (x2 - x1) * ((bandHi - y1) / (y2 - y1));
+            sMinX = Math.min(xLo, xHi);
+            sMaxX = Math.max(xLo, xHi);
+          }
+          final int cMin = Math.max(0, col(sMinX) - 1), cMax = Math.min(numCols - 1, col(sMaxX) + 1);
+          for (int c = cMin; c <= cMax; c++) {
+            final int cellIdx = r * numCols + c;
+            if (pass == 0) {
+              cellCounts[cellIdx]++;
+            } else {
+              if (cellSegs[cellIdx] == null) {
+                cellSegs[cellIdx] = new int[cellCounts[cellIdx]];
+                cellSegFirstCols[cellIdx] = new int[cellCounts[cellIdx]];
+                cellCounts[cellIdx] = 0;//now used as a fill pointer
+                cells[cellIdx] = BOUNDARY;
+              }
+              cellSegs[cellIdx][cellCounts[cellIdx]] = s;
+              cellSegFirstCols[cellIdx][cellCounts[cellIdx]++] = cMin;
+            }
+          }
+        }
+      }
+    }
+
+    // Classify the remaining cells by their center; no boundary passes through them so all points agree.
+    //  Going right to left, the next classified cell to the right is already known.
+    for (int r = 0; r < numRows; r++) {
+      final double cy = minY + (r + 0.5) * rowHeight;
+      for (int c = numCols - 1; c >= 0; c--) {
+        final int cellIdx = r * numCols + c;
+        if (cells[cellIdx] != BOUNDARY)
+          cells[cellIdx] = locateInRow(minX + (c + 0.5) * (width / numCols), cy, r, c + 1) ? INSIDE : OUTSIDE;
+      }
+    }
+  }
+
+  private int addRing(CoordinateSequence seq, int segIdx) {
+    for (int i = 1; i < seq.size(); i++) {
+      int off = segIdx * 4;
+      segs[off] = seq.getX(i - 1);
+      segs[off + 1] = seq.getY(i - 1);
+      segs[off + 2] = seq.getX(i);
+      segs[off + 3] = seq.getY(i);
+      segIdx++;
+    }
+    return segIdx;
+  }
+
+  private int row(double y) {
+    int r = (int) ((y - minY) * rowsPerY);
+    return r < 0 ? 0 : (r >= numRows ? numRows - 1 : r);
+  }
+
+  private int col(double x) {
+    int c = (int) ((x - minX) * colsPerX);
+    return c < 0 ? 0 : (c >= numCols ? numCols - 1 : c);
+  }
+
+  /** Is the point in the interior or on the boundary of the area? */
+  boolean intersects(double x, double y) {
+    if (x < minX || x > maxX || y < minY || y > maxY)
+      return false;
+    final int r = row(y);
+    final int c = col(x);
+    switch (cells[r * numCols + c]) {
+      case INSIDE: return true;
+      case OUTSIDE: return false;
+      default: return locateInRow(x, y, r, c);
+    }
+  }
+
+  /**
+   * Locates the point in grid row {@code r} by counting segments crossing the ray to its right, up to a point in
+   * the next classified cell at or after column {@code fromCol}, or beyond the grid (outside). Only the segments
+   * in the boundary cells in between can cross that part of the ray. Returns true if inside or on a segment.
+   */
+  private boolean locateInRow(double x, double y, int r, int fromCol) {
+    final int rowStart = r * numCols;
+    int toCol = fromCol;
+    while (toCol < numCols && cells[rowStart + toCol] == BOUNDARY)
+      toCol++;
+    boolean inside;
+    double toX;
+    if (toCol == numCols) {
+      inside = false;
+      toX = Double.POSITIVE_INFINITY;//no segments are crossed beyond the grid
+    } else {
+      inside = cells[rowStart + toCol] == INSIDE;
+      toX = minX + (toCol + 0.5) * ((maxX - minX) / numCols);
+    }
+    // Crossings right of (x,y) less crossings right of (toX,y), counting each segment once.
+    for (int k = fromCol; k < toCol; k++) {
+      final int[] segIdxs = cellSegs[rowStart + k];
+      final int[] firstCols = cellSegFirstCols[rowStart + k];
+      for (int i = 0; i < segIdxs.length; i++) {
+        if (k != fromCol && firstCols[i] != k)
+          continue;//counted in a prior cell
+        final int cross = crossing(x, y, segIdxs[i]);
+        if (cross < 0)
+          return true;//on the boundary
+        if (cross > 0 && (toX == Double.POSITIVE_INFINITY || crossing(toX, y, segIdxs[i]) == 0))
+          inside = !inside;
+      }
+    }
+    return inside;
+  }
+
+  /**
+   * Does the segment cross a ray to the right of the point? As in JTS's
+   * {@link com.vividsolutions.jts.algorithm.RayCrossingCounter#countSegment}. Returns -1 if the point is on the
+   * segment (counting only its end vertex, which is the start of the next), 1 if crosses, otherwise 0.
+   */
+  private int crossing(double x, double y, int segIdx) {
+    final int off = segIdx * 4;
+    final double p1x = segs[off], p1y = segs[off + 1], p2x = segs[off + 2], p2y = segs[off + 3];
+    // strictly to the left of the point
+    if (p1x < x && p2x < x)
+      return 0;
+    // the point is a vertex
+    if (x == p2x && y == p2y)
+      return -1;
+    // horizontal segment; check if the point is on it
+    if (p1y == y && p2y == y)
+      return x >= Math.min(p1x, p2x) && x <= Math.max(p1x, p2x) ? -1 : 0;
+    // non-horizontal segments crossing the ray, upward including the start or downward including the end
+    if ((p1y > y && p2y <= y) || (p2y > y && p1y <= y)) {
+      double xIntSign = RobustDeterminant.signOfDet2x2(p1x - x, p1y - y, p2x - x, p2y - y);
+      if (xIntSign == 0.0)
+        return -1;
+      if (p2y < p1y)
+        xIntSign = -xIntSign;
+      if (xIntSign > 0.0)
+        return 1;
+    }
+    return 0;
+  }
+}
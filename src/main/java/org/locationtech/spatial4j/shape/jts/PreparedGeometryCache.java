@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.jts;
+
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of {@link PreparedGeometry} for {@link JtsGeometry} shapes that were not explicitly
+ * {@link JtsGeometry#index() indexed}. It is used by {@link JtsGeometry} once a shape has been related
+ * {@link JtsShapeFactory#getAutoIndexThreshold()} times. Keys are held weakly (by identity) so that a
+ * {@code JtsGeometry} that is no longer referenced elsewhere doesn't stay in memory, and the least
+ * recently used entry is evicted once {@link #getMaxSize()} is exceeded. An evicted geometry's relate count is
+ * reset, so it has to reach {@link JtsShapeFactory#getAutoIndexThreshold()} again before it's re-prepared. The
+ * cache is thread-safe.
+ * <p>
+ * A cached value is also referenced from its {@code JtsGeometry} (until evicted), so a hit usually doesn't touch
+ * the map or take a lock. Only once more than half of {@link #getMaxSize()} entries have been added or refreshed
+ * since a geometry was last refreshed does a hit refresh it (under the lock), so any geometry used at least that
+ * often stays cached. Geometries are prepared outside of the lock; if two threads race to prepare the same one,
+ * the first to finish wins.
+ * <p>
+ * Note that the {@link PreparedGeometry} values reference the JTS {@link com.vividsolutions.jts.geom.Geometry}
+ * but not the {@link JtsGeometry} key, which is why the key is the latter.
+ */
+public class PreparedGeometryCache {
+
+  private final int maxSize;
+  private final ReferenceQueue<JtsGeometry> queue = new ReferenceQueue<>();
+  private final LinkedHashMap<Key, PreparedGeometry> map;
+  /** Incremented as entries are added or refreshed (moved to the most recently used end); see JtsGeometry.cacheTick */
+  private volatile long tick;
+
+  private long hits;//racy but only a statistic; hits don't lock
+  private long misses;
+  private long evictions;
+
+  public PreparedGeometryCache(final int maxSize) {
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("maxSize must be > 0 but got " + maxSize);
+    this.maxSize = maxSize;
+    this.map = new LinkedHashMap<Key, PreparedGeometry>(16, 0.75f, true) {//access-order, thus LRU
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, PreparedGeometry> eldest) {
+        if (size() > PreparedGeometryCache.this.maxSize) {
+          evictions++;
+          release(eldest.getKey());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the prepared form of {@code jtsGeometry}, preparing and caching it if it isn't already.
+   */
+  public PreparedGeometry get(JtsGeometry jtsGeometry) {
+    PreparedGeometry prepared = jtsGeometry.cachedPreparedGeometry;
+    if (prepared != null) {
+      hits++;
+      if (tick - jtsGeometry.cacheTick > maxSize / 2)
+        refresh(jtsGeometry);
+      return prepared;
+    }
+    final PreparedGeometry newPrepared = PreparedGeometryFactory.prepare(jtsGeometry.getGeom());
+    final Key lookupKey = new Key(jtsGeometry, null);//not registered with the queue; it might not be kept
+    synchronized (this) {
+      expungeStaleEntries();
+      prepared = map.get(lookupKey);
+      if (prepared == null) {
+        misses++;
+        prepared = newPrepared;
+        map.put(new Key(jtsGeometry, queue), prepared);
+        jtsGeometry.cachedPreparedGeometry = prepared;
+        jtsGeometry.cacheTick = ++tick;
+      } else {
+        hits++;//another thread prepared it first
+      }
+    }
+    return prepared;
+  }
+
+  /** Moves the geometry's entry, if it's still there, to the most recently used end. */
+  private synchronized void refresh(JtsGeometry jtsGeometry) {
+    if (map.get(new Key(jtsGeometry, null)) != null)
+      jtsGeometry.cacheTick = ++tick;
+  }
+
+  /** Removes all entries; the counters are retained. */
+  public synchronized void clear() {
+    for (Key key : map.keySet())
+      release(key);
+    map.clear();
+    while (queue.poll() != null) ;
+  }
+
+  /** The number of geometries currently cached. */
+  public synchronized int size() {
+    expungeStaleEntries();
+    return map.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * The number of {@link #get(JtsGeometry)} calls that found an already prepared geometry. Hits are counted
+   * without a lock, so under concurrent use this may be a little low.
+   */
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  /** The number of {@link #get(JtsGeometry)} calls that had to prepare the geometry. */
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  /** The number of entries removed to keep the size within {@link #getMaxSize()}. */
+  public synchronized long getEvictionCount() {
+    return evictions;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return getClass().getSimpleName() + "{size=" + map.size() + ", maxSize=" + maxSize
+        + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+  }
+
+  /**
+   * Drops the geometry's own reference to its cached value, if the geometry is still around, and resets its relate
+   * count so that it must earn its way back in.
+   */
+  private static void release(Key key) {
+    final JtsGeometry jtsGeometry = key.get();
+    if (jtsGeometry != null) {
+      jtsGeometry.cachedPreparedGeometry = null;
+      jtsGeometry.relateCount = 0;
+    }
+  }
+
+  private void expungeStaleEntries() {
+    for (Reference<? extends JtsGeometry> ref; (ref = queue.poll()) != null; ) {
+      map.remove(ref);
+    }
+  }
+
+  /** A weak reference to a JtsGeometry with identity equality. */
+  private static final class Key extends WeakReference<JtsGeometry> {
+    private final int hash;
+
+    Key(JtsGeometry referent, ReferenceQueue<JtsGeometry> queue) {
+      super(referent, queue);
+      this.hash = System.identityHashCode(referent);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Object referent = get();
+      return referent != null && referent == ((Key) o).get();
+    }
+  }
+}
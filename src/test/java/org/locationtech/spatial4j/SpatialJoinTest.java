@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j;
+
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakScope;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.RandomizedShapeTest;
+import org.locationtech.spatial4j.shape.Shape;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@ThreadLeakScope(ThreadLeakScope.Scope.NONE)//the shared pool's threads live on
+public class SpatialJoinTest extends RandomizedShapeTest {
+
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void beforeClass() {
+    pool = new ForkJoinPool(3);
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    pool.shutdown();
+    pool = null;
+  }
+
+  public SpatialJoinTest() {
+    super(SpatialContext.GEO);
+  }
+
+  private List<Shape> randomShapes(int size) {
+    List<Shape> shapes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      switch (randomInt(3)) {
+        case 0: shapes.add(randomPoint()); break;
+        case 1: shapes.add(randomRectangle(randomBoolean() ? 1 : 10)); break;// some cross the dateline
+        case 2: shapes.add(ctx.getShapeFactory().circle(randomPoint(), randomInt(20))); break;
+        default:
+          // near the dateline
+          Point center = ctx.getShapeFactory().pointXY(randomBoolean() ? 180 : -180, randomInt(160) - 80);
+          shapes.add(ctx.getShapeFactory().circle(center, randomInt(10)));
+      }
+    }
+    return shapes;
+  }
+
+  @Test
+  @Repeat(iterations = 10)
+  public void testJoin() {
+    final List<Shape> shapes = randomShapes(randomBoolean() ? randomInt(20) : randomInt(600));
+    final List<Shape> queryShapes = randomBoolean() ? shapes : randomShapes(randomInt(300));
+
+    for (SpatialPredicate predicate : SpatialPredicate.values()) {
+      if (predicate == SpatialPredicate.IsDisjointTo)
+        continue;
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < shapes.size(); i++) {
+        for (int j = 0; j < queryShapes.size(); j++) {
+          if (predicate.evaluate(shapes.get(i), queryShapes.get(j))) {
+            expected.add(i);
+            expected.add(j);
+          }
+        }
+      }
+      int[] expectedPairs = new int[expected.size()];
+      for (int i = 0; i < expectedPairs.length; i++)
+        expectedPairs[i] = expected.get(i);
+
+      assertArrayEquals(predicate.toString(), expectedPairs, SpatialJoin.join(shapes, queryShapes, predicate));
+      assertArrayEquals(predicate.toString(), expectedPairs,
+          SpatialJoin.join(new LinkedList<>(shapes), queryShapes, predicate, pool));
+      assertArrayEquals(predicate.toString(), expectedPairs,
+          SpatialJoin.join(shapes, queryShapes, predicate, null));
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    List<Shape> shapes = randomShapes(10);
+    List<Shape> none = Collections.emptyList();
+    assertEquals(0, SpatialJoin.join(shapes, none, SpatialPredicate.Intersects).length);
+    assertEquals(0, SpatialJoin.join(none, shapes, SpatialPredicate.Intersects).length);
+    Shape empty = ctx.getShapeFactory().pointXY(Double.NaN, Double.NaN);
+    assertEquals(0, SpatialJoin.join(Arrays.asList(empty), shapes, SpatialPredicate.Intersects).length);
+  }
+
+  @Test
+  public void testDisjointUnsupported() {
+    try {
+      SpatialJoin.join(randomShapes(10), randomShapes(10), SpatialPredicate.IsDisjointTo);
+      fail();
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+  }
+}
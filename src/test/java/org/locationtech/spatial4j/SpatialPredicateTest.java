@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j;
+
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakScope;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.RandomizedShapeTest;
+import org.locationtech.spatial4j.shape.Shape;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+@ThreadLeakScope(ThreadLeakScope.Scope.NONE)//the shared pool's threads live on
+public class SpatialPredicateTest extends RandomizedShapeTest {
+
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void beforeClass() {
+    pool = new ForkJoinPool(3);
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    pool.shutdown();
+    pool = null;
+  }
+
+  public SpatialPredicateTest() {
+    super(SpatialContext.GEO);
+  }
+
+  private Shape randomShape() {
+    switch (randomInt(2)) {
+      case 0: return randomPoint();
+      case 1: return randomRectangle(10);
+      default: return ctx.getShapeFactory().circle(randomPoint(), randomInt(30));
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 10)
+  public void testEvaluateAll() {
+    final int size = randomBoolean() ? randomIntBetween(0, 200) : randomIntBetween(1, 5000);
+    List<Shape> shapes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++)
+      shapes.add(randomShape());
+    if (size > 0 && randomBoolean())
+      shapes.set(randomIntBetween(0, size - 1), shapes.get(0));//an equal shape
+    final Shape query = size > 0 && randomBoolean() ? shapes.get(randomIntBetween(0, size - 1)) : randomShape();
+
+    for (SpatialPredicate predicate : SpatialPredicate.values()) {
+      BitSet expected = new BitSet();
+      for (int i = 0; i < size; i++) {
+        if (predicate.evaluate(shapes.get(i), query))
+          expected.set(i);
+      }
+      BitSet out = new BitSet();
+      out.set(0, size + 1);//cleared to size
+      expected.set(size);
+      predicate.evaluateAll(query, shapes, out);
+      assertEquals(predicate.toString(), expected, out);
+
+      out.clear();
+      predicate.evaluateAll(query, randomBoolean() ? shapes : new LinkedList<>(shapes), out, pool);
+      expected.clear(size);
+      assertEquals(predicate.toString(), expected, out);
+
+      out.clear();
+      predicate.evaluateAll(query, shapes, out, null);
+      assertEquals(predicate.toString(), expected, out);
+    }
+  }
+}
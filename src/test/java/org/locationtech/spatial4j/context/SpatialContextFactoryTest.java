@@ -72,6 +72,11 @@ public class SpatialContextFactoryTest {
     assertTrue(ctx.isGeo());
     assertEquals(new GeodesicSphereDistCalc.LawOfCosines(),
         ctx.getDistCalc());
+
+    assertEquals(new GeodesicSphereDistCalc.FastHaversine(),
+        call("distCalculator", "fastHaversine").getDistCalc());
+    assertEquals(new GeodesicSphereDistCalc.Equirectangular(),
+        call("distCalculator", "equirectangular").getDistCalc());
   }
 
   @Test
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.distance;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.SpatialContextFactory;
+import org.locationtech.spatial4j.shape.Point;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PointIndexTest extends RandomizedTest {
+
+  /** Points clustered near the poles & dateline some of the time, where geodetic searches get tricky. */
+  private double[][] randomPoints(SpatialContext ctx, int size) {
+    double[] xs = new double[size], ys = new double[size];
+    for (int i = 0; i < size; i++) {
+      if (ctx.isGeo() && randomBoolean()) {
+        xs[i] = randomBoolean() ? 180 - randomDouble() * 5 : -180 + randomDouble() * 5;
+        ys[i] = randomBoolean() ? 90 - randomDouble() * 5 : -90 + randomDouble() * 180;
+      } else {
+        xs[i] = -180 + randomDouble() * 360;
+        ys[i] = -90 + randomDouble() * 180;
+      }
+      if (randomInt(10) == 0 && i > 0) {//duplicate
+        xs[i] = xs[i - 1];
+        ys[i] = ys[i - 1];
+      }
+    }
+    return new double[][]{xs, ys};
+  }
+
+  private SpatialContext randomContext() {
+    switch (randomInt(2)) {
+      case 0: return SpatialContext.GEO;
+      default:
+        Map<String, String> args = new HashMap<>();
+        args.put("geo", "false");
+        args.put("distCalculator", randomBoolean() ? "cartesian" : "cartesian^2");
+        return SpatialContextFactory.makeSpatialContext(args, getClass().getClassLoader());
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testNearest() {
+    final SpatialContext ctx = randomContext();
+    final int size = randomBoolean() ? randomInt(20) : randomInt(3000);
+    double[][] coords = randomPoints(ctx, size);
+    final double[] xs = coords[0], ys = coords[1];
+    PointIndex index;
+    if (randomBoolean()) {
+      index = new PointIndex(ctx, xs, ys);
+    } else {
+      List<Point> points = new ArrayList<>(size);
+      for (int i = 0; i < size; i++)
+        points.add(ctx.getShapeFactory().pointXY(xs[i], ys[i]));
+      index = new PointIndex(ctx, points);
+    }
+    assertEquals(size, index.size());
+
+    for (int q = 0; q < 20; q++) {
+      double[][] query = randomPoints(ctx, 1);
+      Point from = ctx.getShapeFactory().pointXY(query[0][0], query[1][0]);
+      final int k = randomBoolean() ? randomIntBetween(1, 10) : randomInt(size + 5);
+
+      // brute force, by distance then id
+      final double[] allDists = new double[size];
+      Integer[] order = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        allDists[i] = ctx.getDistCalc().distance(from, xs[i], ys[i]);
+        order[i] = i;
+      }
+      Arrays.sort(order, new java.util.Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+          int cmp = Double.compare(allDists[a], allDists[b]);
+          return cmp != 0 ? cmp : a.compareTo(b);
+        }
+      });
+      final int numExpected = Math.min(k, size);
+      int[] expected = new int[numExpected];
+      double[] expectedDists = new double[numExpected];
+      for (int i = 0; i < numExpected; i++) {
+        expected[i] = order[i];
+        expectedDists[i] = allDists[order[i]];
+      }
+
+      double[] dists = new double[numExpected];
+      int[] actual = index.nearest(from, k, dists);
+      assertArrayEquals(from + " k=" + k, expectedDists, dists, 0);
+      assertArrayEquals(from + " k=" + k, expected, actual);
+    }
+  }
+
+  @Test
+  public void testAcrossDatelineAndPole() {
+    SpatialContext ctx = SpatialContext.GEO;
+    double[] xs = {179.5, -179.5, 0, 90, -90, 179.9};
+    double[] ys = {0, 0, 80, 89.5, 88.5, 45};
+    PointIndex index = new PointIndex(ctx, xs, ys);
+    // across the dateline, the other side is nearest
+    assertArrayEquals(new int[]{1, 0}, index.nearest(ctx.getShapeFactory().pointXY(-179.9, 0), 2));
+    // across the pole
+    assertArrayEquals(new int[]{3, 4}, index.nearest(ctx.getShapeFactory().pointXY(-90, 89.9), 2));
+    assertEquals(0, index.nearest(ctx.getShapeFactory().pointXY(0, 0), 0).length);
+    assertEquals(0, new PointIndex(ctx, new double[0], new double[0]).nearest(ctx.getShapeFactory().pointXY(0, 0), 3).length);
+  }
+}
@@ -76,6 +76,128 @@ public class TestDistances extends RandomizedTest {
     }
   }
 
+  @Test
+  public void testFastHaversineError() {
+    DistanceCalculator fast = new GeodesicSphereDistCalc.FastHaversine();
+    final int TRIES = 100000 * (int)multiplier();
+    for (int i = 0; i < TRIES; i++) {
+      Point p1 = randomGeoPoint();
+      Point p2;
+      if (randomInt(3) == 0) {// nearly antipodal
+        Point antipode = ctx.makePoint(DistanceUtils.normLonDEG(p1.getX() + 180), -p1.getY());
+        p2 = DistanceUtils.pointOnBearingRAD(DistanceUtils.toRadians(antipode.getY()),
+            DistanceUtils.toRadians(antipode.getX()), DistanceUtils.toRadians(randomDouble()),
+            DistanceUtils.toRadians(randomDouble() * 360), ctx, null);
+        p2.reset(DistanceUtils.toDegrees(p2.getX()), DistanceUtils.toDegrees(p2.getY()));
+      } else {
+        p2 = randomGeoPointFrom(p1);
+      }
+      double expected = accurateDistance(p1, p2);
+      double actual = fast.distance(p1, p2);
+      if (expected == 0)
+        continue;
+      // see DistanceUtils.distHaversineFastRAD
+      double maxError = expected < 170 ? 1e-7 : 1e-4;
+      assertEquals(p1 + " " + p2, expected, actual, expected * maxError);
+    }
+  }
+
+  @Test
+  public void testEquirectangularError() {
+    DistanceCalculator equirectangular = new GeodesicSphereDistCalc.Equirectangular();
+    final int TRIES = 100000 * (int)multiplier();
+    for (int i = 0; i < TRIES; i++) {
+      Point p1 = ctx.makePoint(randomDouble() * 360 - 180, randomDouble() * 160 - 80);
+      Point p2 = ctx.makePoint(DistanceUtils.normLonDEG(p1.getX() + (randomDouble() * 2 - 1) * 3),
+          Math.max(-80, Math.min(80, p1.getY() + (randomDouble() * 2 - 1) * 3)));
+      double expected = accurateDistance(p1, p2);
+      double actual = equirectangular.distance(p1, p2);
+      // see DistanceUtils.distEquirectangularRAD
+      if (expected < 1)
+        assertEquals(p1 + " " + p2, expected, actual, expected * 0.001);
+      else if (expected < 3)
+        assertEquals(p1 + " " + p2, expected, actual, expected * 0.01);
+    }
+    // far apart, it's haversine; the planar distance between these antipodes would be about 240 degrees
+    assertEquals(180, equirectangular.distance(ctx.makePoint(0, -80), ctx.makePoint(180, 80)), 1e-4);
+    for (int i = 0; i < 1000; i++) {
+      Point p1 = ctx.makePoint(randomDouble() * 360 - 180, randomDouble() * 180 - 90);
+      Point p2 = ctx.makePoint(randomDouble() * 360 - 180, randomDouble() * 180 - 90);
+      assertTrue(p1 + " " + p2, equirectangular.distance(p1, p2) <= 180);
+    }
+  }
+
+  /** Haversine is accurate for small distances, Vincenty for large. */
+  private double accurateDistance(Point p1, Point p2) {
+    double vincenty = new GeodesicSphereDistCalc.Vincenty().distance(p1, p2);
+    return vincenty < 45 ? new GeodesicSphereDistCalc.Haversine().distance(p1, p2) : vincenty;
+  }
+
+  @Test
+  public void testBatchDistancesMatchSingle() {
+    DistanceCalculator[] calcs = {
+        new GeodesicSphereDistCalc.Haversine(),
+        new GeodesicSphereDistCalc.LawOfCosines(),
+        new GeodesicSphereDistCalc.Vincenty(),
+        new GeodesicSphereDistCalc.FastHaversine(),
+        new GeodesicSphereDistCalc.Equirectangular(),
+        CartesianDistCalc.INSTANCE,
+        CartesianDistCalc.INSTANCE_SQUARED
+    };
+    final int len = randomIntBetween(1, 200);
+    final int off = randomInt(5);
+    for (DistanceCalculator calc : calcs) {
+      Point from = randomGeoPoint();
+      double[] xs = new double[off + len];
+      double[] ys = new double[off + len];
+      for (int i = off; i < off + len; i++) {
+        Point p = randomInt(20) == 0 ? from : randomGeoPointFrom(from);
+        xs[i] = p.getX();
+        ys[i] = p.getY();
+      }
+      double[] out = new double[off + len];
+      calc.distances(from, xs, ys, out, off, len);
+      for (int i = off; i < off + len; i++) {
+        //batch is an optimization; the results must be identical for consistent sorting
+        assertEquals(calc.toString(), calc.distance(from, xs[i], ys[i]), out[i], 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testPreparedMatchesCalc() {
+    DistanceCalculator[] calcs = {
+        new GeodesicSphereDistCalc.Haversine(),
+        new GeodesicSphereDistCalc.LawOfCosines(),
+        new GeodesicSphereDistCalc.Vincenty(),
+        new GeodesicSphereDistCalc.FastHaversine(),
+        new GeodesicSphereDistCalc.Equirectangular(),
+        CartesianDistCalc.INSTANCE,
+        CartesianDistCalc.INSTANCE_SQUARED
+    };
+    for (DistanceCalculator calc : calcs) {
+      Point from = randomGeoPoint();
+      PreparedDistance prepared = calc.prepare(from);
+      assertEquals(from, prepared.getFrom());
+      double withinDist = randomDouble() * 200;
+      for (int i = 0; i < 100; i++) {
+        Point p = randomInt(20) == 0 ? from : randomGeoPointFrom(from);
+        double dist = calc.distance(from, p);
+        //the results must be identical for consistent sorting
+        assertEquals(calc.toString(), dist, prepared.distance(p.getX(), p.getY()), 0.0);
+
+        if (randomInt(3) == 0)// the same distance is usually reused
+          withinDist = randomBoolean() ? dist : randomDouble() * 200 - 10;
+        boolean within = prepared.within(p.getX(), p.getY(), withinDist);
+        //may differ within rounding error, which is large for some formulas near 0 or 180 degrees
+        if (Math.abs(dist - withinDist) > 1e-6 || dist == 0)
+          assertEquals(calc + " " + dist + " " + withinDist, calc.within(from, p.getX(), p.getY(), withinDist), within);
+      }
+      assertEquals(calc.within(from, from.getX(), from.getY(), -1), prepared.within(from.getX(), from.getY(), -1));
+      assertTrue(prepared.within(from.getX(), from.getY(), 0));
+    }
+  }
+
   private Point randomGeoPoint() {
     //not uniformly distributed but that's ok
     return ctx.makePoint(randomDouble()*360 + -180, randomDouble()*180 + -90);
@@ -8,15 +8,22 @@
 
 package org.locationtech.spatial4j.io;
 
+import org.locationtech.spatial4j.SpatialPredicate;
 import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeCollection;
+import org.locationtech.spatial4j.shape.SpatialRelation;
 import org.junit.Test;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class BinaryCodecTest extends BaseRoundTripTest<SpatialContext> {
 
@@ -47,12 +54,96 @@ public class BinaryCodecTest extends BaseRoundTripTest<SpatialContext> {
     assertRoundTrip(s);
   }
 
+  @Test
+  public void testShapeView() throws Exception {
+    // several shapes back to back, e.g. in a mapped file, read by one reused view
+    Shape[] shapes = new Shape[20];
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dataOutput = new DataOutputStream(baos);
+    int[] offsets = new int[shapes.length];
+    boolean[] headers = new boolean[shapes.length];
+    for (int i = 0; i < shapes.length; i++) {
+      shapes[i] = randomShape();
+      offsets[i] = dataOutput.size();
+      headers[i] = randomBoolean();
+      if (headers[i])
+        binaryCodec.writeShapeWithHeader(dataOutput, shapes[i]);
+      else
+        binaryCodec.writeShape(dataOutput, shapes[i]);
+    }
+    ByteBuffer byteBuffer = ByteBuffer.allocateDirect(baos.size());
+    byteBuffer.put(baos.toByteArray()).flip();
+
+    BinaryShapeView view = new BinaryShapeView(binaryCodec);
+    for (int i = 0; i < shapes.length; i++) {
+      byteBuffer.position(offsets[i]);
+      view.reset(byteBuffer);
+      assertEquals(headers[i], view.hasHeader());
+      Shape other = randomShape();
+      assertEquals(shapes[i].relate(other), view.relate(other));
+      assertEquals(shapes[i].getBoundingBox(), view.getBoundingBox());
+      if (headers[i] && shapes[i] instanceof Point)
+        assertEquals(1, view.getNumPoints());
+      assertEquals(shapes[i], view.getShape());
+      assertEquals(offsets[i], byteBuffer.position());//unchanged
+    }
+
+    // sequential reads advance
+    byteBuffer.position(0);
+    for (Shape shape : shapes) {
+      assertEquals(shape, binaryCodec.readShape(byteBuffer));
+    }
+    assertEquals(0, byteBuffer.remaining());
+  }
+
   @Override
   protected void assertRoundTrip(Shape shape, boolean andEquals) throws IOException {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     binaryCodec.writeShape(new DataOutputStream(baos), shape);
     ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
     assertEquals(shape, binaryCodec.readShape(new DataInputStream(bais)));
+
+    ByteBuffer byteBuffer = ByteBuffer.wrap(baos.toByteArray());
+    assertEquals(shape, new BinaryShapeView(binaryCodec).reset(byteBuffer).getShape());
+    assertEquals(shape, binaryCodec.readShape(byteBuffer));
+    assertEquals(0, byteBuffer.remaining());
+
+    // with a header
+    baos.reset();
+    binaryCodec.writeShapeWithHeader(new DataOutputStream(baos), shape);
+    assertEquals(shape, binaryCodec.readShape(new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))));
+    byteBuffer = ByteBuffer.wrap(baos.toByteArray());
+    BinaryShapeView view = new BinaryShapeView(binaryCodec).reset(byteBuffer);
+    assertEquals(shape.getBoundingBox(), view.getBoundingBox());
+    assertEquals(shape, view.getShape());
+    assertEquals(shape, binaryCodec.readShape(byteBuffer));
+    assertEquals(0, byteBuffer.remaining());
+  }
+
+  @Test
+  public void testHeaderEarlyRelate() throws Exception {
+    Shape shape = wkt("ENVELOPE(10, 20, 30, 0)");
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    binaryCodec.writeShapeWithHeader(new DataOutputStream(baos), shape);
+    BinaryShapeView view = new BinaryShapeView(binaryCodec);
+
+    view.reset(ByteBuffer.wrap(baos.toByteArray()));
+    assertEquals(SpatialRelation.DISJOINT, view.relate(wkt("POINT(50 50)")));
+    assertEquals(SpatialRelation.WITHIN, view.relate(wkt("ENVELOPE(0, 40, 40, -10)")));
+    assertTrue(SpatialPredicate.BBoxIntersects.evaluate(view, wkt("POINT(15 15)")));
+    assertFalse(SpatialPredicate.Intersects.evaluate(view, wkt("POINT(-15 15)")));
+
+    // decoded only if needed
+    byte[] bytes = baos.toByteArray();
+    bytes[BinaryCodec.HEADER_SIZE] = 99;//corrupt the shape's type
+    view.reset(ByteBuffer.wrap(bytes));
+    assertEquals(SpatialRelation.DISJOINT, view.relate(wkt("POINT(50 50)")));
+    try {
+      view.relate(wkt("POINT(15 15)"));
+      fail();
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
   }
 
 }
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.text.ParseException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FastDoubleParserTest extends RandomizedTest {
+
+  private final WKTReader wktReader = (WKTReader) SpatialContext.GEO.getFormats().getWktReader();
+
+  /** Parses with {@link WKTReader.State#nextDouble()} and asserts it's bit-for-bit what the JDK parses. */
+  private void assertParses(String str) throws ParseException {
+    double expected = Double.parseDouble(str);
+    String msg = str + " expected " + expected;
+    WKTReader.State state = wktReader.newState(str);
+    assertEquals(msg, Double.doubleToLongBits(expected), Double.doubleToLongBits(state.nextDouble()));
+    assertTrue(state.eof());
+    state = wktReader.newState(new StringReader(str));// streaming
+    assertEquals(msg, Double.doubleToLongBits(expected), Double.doubleToLongBits(state.nextDouble()));
+    // as GeoJSONReader does; NaN means fall back on the JDK
+    char[] chars = (" " + str + " ").toCharArray();
+    double parsed = FastDoubleParser.parse(chars, 1, chars.length - 1);
+    if (!Double.isNaN(parsed))
+      assertEquals(msg, Double.doubleToLongBits(expected), Double.doubleToLongBits(parsed));
+  }
+
+  @Test
+  public void testEdgeCases() throws ParseException {
+    String[] strs = {"0", "-0", "+0", "0.0", "-0.0", "00012", "1.", ".5", "-.5", "1e3", "1E3", "1e+3", "1e-3",
+        "-180", "180.0", "90", "-90.000000", "0.1", "0.3", "123456789012345678", "9999999999999999999",
+        "12345678901234567890", "0.000000000000000000000000000000000000000000001",
+        "1.7976931348623157e308", "1.7976931348623159e308", "1e309", "-1e309", "4.9e-324", "2.2250738585072014E-308",
+        "2.2250738585072011e-308", "1e-400", "1e23", "8.98846567431158e307", "9007199254740993",
+        "9007199254740992.5", "1e100000000", "1e-100000000", "0e100000000",
+        // halfway between two doubles; needs the tie broken to even
+        "9007199254740993.0", "2.0000000000000001110223024625156540423631668090820312500001"};
+    for (String str : strs) {
+      assertParses(str);
+    }
+  }
+
+  @Test
+  public void testInvalid() {
+    for (String str : new String[]{"-", "+", ".", "e5", "1e", "1e+", "1-2", "--1", "1.2.3", "1e5e5"}) {
+      assertTrue(str, Double.isNaN(FastDoubleParser.parse(str.toCharArray(), 0, str.length())));
+      WKTReader.State state = wktReader.newState(str);
+      try {
+        double d = state.nextDouble();
+        fail(str + " parsed as " + d);
+      } catch (ParseException e) {
+        //expected
+      }
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 10)
+  public void testRandom() throws ParseException {
+    for (int i = 0; i < 1000; i++) {
+      switch (randomInt(3)) {
+        case 0: // as printed, e.g. coordinates written by WKTWriter
+          assertParses(Double.toString(-180 + randomDouble() * 360));
+          break;
+        case 1: // any double
+          double d = Double.longBitsToDouble(randomLong());
+          if (!Double.isNaN(d) && !Double.isInfinite(d))
+            assertParses(Double.toString(d));
+          break;
+        case 2: // fixed precision
+          assertParses(String.format("%." + randomInt(17) + "f", -1000 + randomDouble() * 2000));
+          break;
+        default: // random digits & exponent
+          StringBuilder buf = new StringBuilder();
+          if (randomBoolean())
+            buf.append('-');
+          buf.append(randomIntBetween(0, Integer.MAX_VALUE));
+          if (randomBoolean())
+            buf.append('.').append((randomLong() & Long.MAX_VALUE));
+          if (randomBoolean())
+            buf.append('e').append(randomIntBetween(-350, 320));
+          assertParses(buf.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testRarelyFallsBack() {
+    int fallbacks = 0;
+    final int n = 10000;
+    for (int i = 0; i < n; i++) {
+      long significand = 1 + (randomLong() & Long.MAX_VALUE) % 999999999999999999L;
+      int exp10 = -290 + randomInt(580);// finite and normal
+      double d = FastDoubleParser.toDouble(significand, exp10, false);
+      if (Double.isNaN(d)) {
+        fallbacks++;
+      } else {
+        assertEquals(Double.doubleToLongBits(Double.parseDouble(significand + "e" + exp10)),
+            Double.doubleToLongBits(d));
+      }
+    }
+    assertTrue("fallbacks: " + fallbacks, fallbacks < n / 100);
+  }
+}
@@ -17,11 +17,21 @@
 
 package org.locationtech.spatial4j.io;
 
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.jts.JtsGeometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -161,4 +171,49 @@ public class GeneralGeoJSONTest extends GeneralReadWriteShapeTest {
     assertEquals(bufferedLineText(), strip(writer.toString(bufferedLine())));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testParseNumbers() throws Exception {
+    String[] strs = {"0", "-0", "-0.0", "12", "-18", "1.5", "-1.25e1", "1E-3", "0.30000000000000004",
+        "123456789012345678901234567890e-28", "1.7976931348623157e-300", "4.9e-324", "7e0"};
+    for (String str : strs) {
+      Point point = (Point) reader.read("{\"type\":\"Point\",\"coordinates\":[" + str + "," + str + "]}");
+      double expected = ctx.getShapeFactory().normX(Double.parseDouble(str));
+      assertEquals(str, Double.doubleToLongBits(expected), Double.doubleToLongBits(point.getX()));
+    }
+  }
+
+  @Test
+  public void testParsePackedCoordinates() throws Exception {
+    Map<String, String> args = new HashMap<>();
+    args.put("spatialContextFactory", JtsSpatialContextFactory.class.getName());
+    args.put("coordinateSequence", "packed");
+    JtsSpatialContext packedCtx = (JtsSpatialContext) JtsSpatialContextFactory.makeSpatialContext(args,
+        getClass().getClassLoader());
+    ShapeReader packedReader = packedCtx.getFormats().getReader(ShapeIO.GeoJSON);
+
+    JtsGeometry polygon = (JtsGeometry) packedReader.read(polygonText2());
+    assertEquals(polygon2(), polygon);
+    assertTrue(((Polygon) polygon.getGeom()).getExteriorRing().getCoordinateSequence()
+        instanceof PackedCoordinateSequence);
+    assertEquals(multiPolygon(), packedReader.read(multiPolygonText()));
+    assertEquals(multiLine(), packedReader.read(multiLineText()));
+    assertEquals(multiPoint(), packedReader.read(multiPointText()));
+
+    // across the dateline, thus shifted then cut
+    String text = "{\"type\":\"Polygon\",\"coordinates\":[[[170,0],[-170,0],[-170,10],[170,10],[170,0]]]}";
+    Shape expected = reader.read(text);
+    Shape actual = packedReader.read(text);
+    assertEquals(expected.getBoundingBox(), actual.getBoundingBox());
+    assertEquals(expected.getArea(ctx), actual.getArea(packedCtx), 0.0);
+
+    // z, after some points without
+    JtsGeometry line = (JtsGeometry) packedReader.read(
+        "{\"type\":\"LineString\",\"coordinates\":[[1,2],[3,4,5],[6,7,8]]}");
+    LineString lineString = (LineString) line.getGeom();
+    assertEquals(3, lineString.getCoordinateSequence().getDimension());
+    assertTrue(Double.isNaN(lineString.getCoordinateN(0).z));
+    assertEquals(5, lineString.getCoordinateN(1).z, 0.0);
+    assertEquals(6, lineString.getCoordinateN(2).x, 0.0);
+  }
+
+}
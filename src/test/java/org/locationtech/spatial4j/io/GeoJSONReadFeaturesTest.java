@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakScope;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+@ThreadLeakScope(ThreadLeakScope.Scope.NONE)//the pool's threads live on until afterClass
+public class GeoJSONReadFeaturesTest extends RandomizedTest {
+
+  private static ForkJoinPool pool;
+
+  private final JtsSpatialContext ctx = JtsSpatialContext.GEO;
+  private final GeoJSONReader reader = (GeoJSONReader) ctx.getFormats().getReader(ShapeIO.GeoJSON);
+
+  @BeforeClass
+  public static void beforeClass() {
+    pool = new ForkJoinPool(3);
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    pool.shutdown();
+    pool = null;
+  }
+
+  /** Collects the features, stopping after {@code limit} of them. */
+  private static class Collector implements GeoJSONReader.FeatureHandler {
+    final List<GeoJSONReader.Feature> features = new ArrayList<>();
+    final int limit;
+
+    Collector(int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public boolean feature(GeoJSONReader.Feature feature) {
+      features.add(feature);
+      return features.size() < limit;
+    }
+  }
+
+  private List<GeoJSONReader.Feature> readFeatures(String json, ForkJoinPool pool, int limit) throws Exception {
+    Collector collector = new Collector(limit);
+    long numHandled = reader.readFeatures(new StringReader(json), collector, pool);
+    assertEquals(collector.features.size(), numHandled);
+    return collector.features;
+  }
+
+  private void assertFeatureEquals(GeoJSONReader.Feature expected, GeoJSONReader.Feature actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getShape(), actual.getShape());
+    assertEquals(expected.getProperties(), actual.getProperties());
+  }
+
+  @Test
+  public void testReadFeatures() throws Exception {
+    String polygon = "{\"type\":\"Polygon\",\"coordinates\":[[[100,0],[101,0],[101,1],[100,1],[100,0]]]}";
+    String json = "{\"type\":\"FeatureCollection\",\"crs\":{\"type\":\"name\",\"properties\":{\"name\":\"x\"}},"
+        + "\"features\":["
+        + "{\"type\":\"Feature\",\"id\":\"a\",\"geometry\":" + polygon + ","
+        + "\"properties\":{\"name\":\"A\",\"pop\":12,\"tags\":[\"x\",{\"y\":true}]}},"
+        + "{\"properties\":{\"name\":\"B\"},\"id\":7,\"type\":\"Feature\","
+        + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[1.5,-2]}},"
+        + "{\"type\":\"Feature\",\"geometry\":null,\"properties\":null},"
+        // members after the coordinates, including an object
+        + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[0,0],[1,1]],"
+        + "\"bbox\":[0,0,1,1],\"crs\":{\"type\":\"name\"}},\"properties\":{}}"
+        + "],\"bbox\":[0,0,1,1]}";
+
+    Map<String, Object> propsA = new LinkedHashMap<>();
+    propsA.put("name", "A");
+    propsA.put("pop", 12L);
+    Map<String, Object> y = new LinkedHashMap<>();
+    y.put("y", true);
+    propsA.put("tags", Arrays.<Object>asList("x", y));
+    Map<String, Object> propsB = new LinkedHashMap<>();
+    propsB.put("name", "B");
+    List<GeoJSONReader.Feature> expected = Arrays.asList(
+        new GeoJSONReader.Feature("a", reader.read(polygon), propsA),
+        new GeoJSONReader.Feature(7L, ctx.getShapeFactory().pointXY(1.5, -2), propsB),
+        new GeoJSONReader.Feature(null, null, null),
+        new GeoJSONReader.Feature(null, reader.read("{\"type\":\"LineString\",\"coordinates\":[[0,0],[1,1]]}"),
+            new LinkedHashMap<String, Object>()));
+
+    for (ForkJoinPool p : new ForkJoinPool[]{null, pool}) {
+      List<GeoJSONReader.Feature> actual = readFeatures(json, p, Integer.MAX_VALUE);
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++)
+        assertFeatureEquals(expected.get(i), actual.get(i));
+
+      // stop early
+      actual = readFeatures(json, p, 2);
+      assertEquals(2, actual.size());
+      assertFeatureEquals(expected.get(1), actual.get(1));
+    }
+  }
+
+  @Test
+  public void testSingleFeature() throws Exception {
+    String json = "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[3,4]},"
+        + "\"properties\":{\"a\":1.5}}";
+    for (ForkJoinPool p : new ForkJoinPool[]{null, pool}) {
+      List<GeoJSONReader.Feature> features = readFeatures(json, p, Integer.MAX_VALUE);
+      assertEquals(1, features.size());
+      assertEquals(ctx.getShapeFactory().pointXY(3, 4), features.get(0).getShape());
+      assertEquals(1.5, features.get(0).getProperties().get("a"));
+      assertNull(features.get(0).getId());
+    }
+    assertEquals(0, readFeatures("{\"type\":\"FeatureCollection\",\"features\":[]}", pool, 1).size());
+  }
+
+  @Test
+  @Repeat(iterations = 5)
+  public void testParallelMatchesSequential() throws Exception {
+    // big enough for the parser's buffer to be refilled many times
+    final int numFeatures = randomIntBetween(1, 1000);
+    StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+    for (int i = 0; i < numFeatures; i++) {
+      if (i > 0)
+        json.append(',');
+      json.append("{\"type\":\"Feature\",\"id\":").append(i).append(",\"geometry\":");
+      double x = -170 + randomDouble() * 340, y = -80 + randomDouble() * 160, size = randomDouble() * 10;
+      switch (randomInt(2)) {
+        case 0:
+          json.append("{\"type\":\"Point\",\"coordinates\":[").append(x).append(',').append(y).append("]}");
+          break;
+        case 1:
+          json.append("{\"type\":\"LineString\",\"coordinates\":[[").append(x).append(',').append(y)
+              .append("],[").append(x + size).append(',').append(y).append("]]}");
+          break;
+        default: // crosses the dateline sometimes
+          double maxX = x + size > 180 ? x + size - 360 : x + size;
+          json.append("{\"type\":\"Polygon\",\"coordinates\":[[[").append(x).append(',').append(y)
+              .append("],[").append(maxX).append(',').append(y)
+              .append("],[").append(maxX).append(',').append(y + 1)
+              .append("],[").append(x).append(',').append(y + 1)
+              .append("],[").append(x).append(',').append(y).append("]]]}");
+      }
+      json.append(",\"properties\":{\"padding\":\"");
+      for (int j = randomInt(500); j > 0; j--)
+        json.append('x');
+      json.append("\"}}");
+    }
+    json.append("]}");
+
+    List<GeoJSONReader.Feature> expected = readFeatures(json.toString(), null, Integer.MAX_VALUE);
+    assertEquals(numFeatures, expected.size());
+    final int limit = randomBoolean() ? Integer.MAX_VALUE : randomIntBetween(1, numFeatures);
+    List<GeoJSONReader.Feature> actual = readFeatures(json.toString(), pool, limit);
+    assertEquals(Math.min(limit, numFeatures), actual.size());
+    for (int i = 0; i < actual.size(); i++) {
+      assertFeatureEquals(expected.get(i), actual.get(i));
+    }
+  }
+
+  @Test
+  public void testNotFeatures() throws Exception {
+    String[] jsons = {
+        "{\"type\":\"Point\",\"coordinates\":[3,4]}",// a bare geometry
+        "{\"type\":\"FeatureCollection\",\"feature\":[]}",// misspelled features
+        "{\"features\":[]}",// no type
+        "{\"type\":1,\"features\":[]}",
+        "{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Point\",\"coordinates\":[3,4]}]}"
+    };
+    for (String json : jsons) {
+      for (ForkJoinPool p : new ForkJoinPool[]{null, pool}) {
+        try {
+          readFeatures(json, p, Integer.MAX_VALUE);
+          fail(json);
+        } catch (ParseException e) {
+          //expected
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidGeometry() throws Exception {
+    String json = "{\"type\":\"FeatureCollection\",\"features\":["
+        + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[3,4]}},"
+        + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Pointy\",\"coordinates\":[3,4]}}]}";
+    for (ForkJoinPool p : new ForkJoinPool[]{null, pool}) {
+      Collector collector = new Collector(Integer.MAX_VALUE);
+      try {
+        reader.readFeatures(new StringReader(json), collector, p);
+        fail();
+      } catch (ParseException e) {
+        //expected
+      }
+    }
+  }
+}
@@ -16,12 +16,22 @@ import org.locationtech.spatial4j.shape.Shape;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.PrecisionModel;
+import com.vividsolutions.jts.io.WKTReader;
 import com.vividsolutions.jts.util.GeometricShapeFactory;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class JtsBinaryCodecTest extends BinaryCodecTest {
 
   @Override
@@ -37,6 +47,60 @@ public class JtsBinaryCodecTest extends BinaryCodecTest {
     ctx.makeShape(randomGeometry(randomIntBetween(3, 20)), false, false);
   }
 
+  @Test
+  public void testDeltaEncoding() throws Exception {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    factory.precisionModel = new PrecisionModel(1e6);
+    // a fixed precision model alone still writes WKB
+    assertEquals(5, toBytes(factory.newSpatialContext().getBinaryCodec(),
+        factory.newSpatialContext().makeShape(randomGeometry(10), false, false))[0]);//TYPE_GEOM
+    factory.binaryCodecDelta = true;
+    JtsSpatialContext fixedCtx = factory.newSpatialContext();
+    BinaryCodec fixedCodec = fixedCtx.getBinaryCodec();
+    BinaryCodec wkbCodec = new JtsSpatialContextFactory().newSpatialContext().getBinaryCodec();
+    String[] wkts = {
+        "POLYGON ((-10 0, 10 0.123456, 10.654321 10, -10 10, -10 0), (0 1, 1 1, 1 2, 0 1))",
+        "MULTIPOLYGON (((1 1, 2 1, 2 2, 1 1)), ((-1 -1, -2 -1, -2 -2, -1 -1)))",
+        "LINESTRING (-179.999999 -89.5, 179.999999 89.5, 0 0)",
+        "MULTILINESTRING ((1 2, 3 4), (5 6, 7 8))",
+        "MULTIPOINT ((1 2), (3 4))",
+        "POLYGON EMPTY"
+    };
+    WKTReader wktReader = new WKTReader(fixedCtx.getGeometryFactory());
+    for (String wkt : wkts) {
+      Geometry geom = wktReader.read(wkt);
+      Shape shape = fixedCtx.makeShape(geom, false, false);
+      byte[] bytes = toBytes(fixedCodec, shape);
+      assertEquals(7, bytes[0]);//TYPE_GEOM_DELTA
+      // read with the same codec, and with another precision model
+      assertEquals(shape, fixedCodec.readShape(new DataInputStream(new ByteArrayInputStream(bytes))));
+      assertEquals(shape, fixedCodec.readShape(ByteBuffer.wrap(bytes)));
+      assertEquals(shape, wkbCodec.readShape(ByteBuffer.wrap(bytes)));
+      if (geom.getNumPoints() > 3)
+        assertTrue(wkt, bytes.length < toBytes(wkbCodec, shape).length);
+    }
+
+    // random polygons, with a header
+    for (int i = 0; i < 20; i++) {
+      Shape shape = fixedCtx.makeShape(randomGeometry(fixedCtx, randomIntBetween(3, 200)), false, false);
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      fixedCodec.writeShapeWithHeader(new DataOutputStream(baos), shape);
+      BinaryShapeView view = new BinaryShapeView(fixedCodec).reset(ByteBuffer.wrap(baos.toByteArray()));
+      assertEquals(shape.getBoundingBox(), view.getBoundingBox());
+      assertEquals(shape, view.getShape());
+    }
+
+    // a dense polygon (the vertices are about 0.5 degrees apart) is much smaller
+    Shape shape = fixedCtx.makeShape(randomGeometry(fixedCtx, 1000), false, false);
+    assertTrue(toBytes(fixedCodec, shape).length < toBytes(wkbCodec, shape).length / 2);
+  }
+
+  private static byte[] toBytes(BinaryCodec codec, Shape shape) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    codec.writeShape(new DataOutputStream(baos), shape);
+    return baos.toByteArray();
+  }
+
   @Override
   protected Shape randomShape() {
     if (randomInt(3) == 0) {
@@ -48,8 +112,11 @@ public class JtsBinaryCodecTest extends BinaryCodecTest {
   }
 
   Geometry randomGeometry(int points) {
+    return randomGeometry((JtsSpatialContext)super.ctx, points);
+  }
+
+  Geometry randomGeometry(JtsSpatialContext ctx, int points) {
     //a circle
-    JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
     GeometricShapeFactory gsf = new GeometricShapeFactory(ctx.getGeometryFactory());
     gsf.setCentre(new Coordinate(0, 0));
     gsf.setSize(180);//diameter
@@ -20,6 +20,11 @@ import org.locationtech.spatial4j.shape.SpatialRelation;
 import org.locationtech.spatial4j.shape.jts.JtsGeometry;
 import org.junit.Test;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
 import java.text.ParseException;
 import java.util.Arrays;
 
@@ -45,6 +50,53 @@ public class JtsWktShapeParserTest extends WktShapeParserTest {
     return factory.newSpatialContext();
   }
 
+  @Test
+  public void testStreaming() throws IOException, ParseException {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    factory.normWrapLongitude = true;
+    factory.allowMultiOverlap = true;
+    JtsSpatialContext ctx = factory.newSpatialContext();
+    WKTReader wktReader = (WKTReader) ctx.getFormats().getWktReader();
+    // these are larger than the window
+    for (String resource : new String[]{"/russia.wkt.txt", "/fiji.wkt.txt"}) {
+      String wktStr = readResource(resource);
+      Shape expected = wktReader.parse(wktStr);
+      assertEquals(expected, wktReader.parse(new ChunkedReader(wktStr)));
+      assertEquals(expected, wktReader.read(new StringReader(wktStr)));
+      assertEquals(expected, wktReader.parse(CharBuffer.wrap(wktStr)));
+    }
+
+    // a word (or any token) longer than the window is okay
+    char[] longWord = new char[WKTReader.STREAM_WINDOW_SIZE * 2 + 1];
+    Arrays.fill(longWord, 'X');
+    try {
+      wktReader.parse(new ChunkedReader(new String(longWord)));
+      fail();
+    } catch (ParseException e) {
+      assertEquals(longWord.length, e.getErrorOffset());
+    }
+
+    // IOExceptions are propagated
+    try {
+      wktReader.read(new StringReader("POINT (1 2)") {
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+          throw new IOException("boom");
+        }
+      });
+      fail();
+    } catch (IOException e) {
+      assertEquals("boom", e.getMessage());
+    }
+  }
+
+  private String readResource(String resource) throws IOException {
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(getClass().getResourceAsStream(resource), "UTF-8"))) {
+      return reader.readLine();
+    }
+  }
+
   @Test
   public void testParsePolygon() throws ParseException {
     Shape polygonNoHoles = ctx.getShapeFactory().polygon()
@@ -9,10 +9,19 @@
 package org.locationtech.spatial4j.io;
 
 import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.Circle;
 import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for {@link GeohashUtils}
@@ -85,6 +94,185 @@ public class TestGeohashUtils {
     assertEquals(point.getX(), point2.getX(), 0.000001d);
   }
 
+  @Test
+  public void testLongEncodeMatchesString() {
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      int precision = 1 + random.nextInt(GeohashUtils.MAX_LONG_PRECISION);
+      double lat, lon;
+      if (i % 3 == 0) {//on a cell boundary (or the world's edge), which is sensitive to rounding
+        int len = 1 + random.nextInt(GeohashUtils.MAX_LONG_PRECISION);
+        double[] size = GeohashUtils.lookupDegreesSizeForHashLen(len);
+        lat = -90 + size[0] * random.nextInt((int) Math.min(Integer.MAX_VALUE, 180 / size[0]) + 1);
+        lon = -180 + size[1] * random.nextInt((int) Math.min(Integer.MAX_VALUE, 360 / size[1]) + 1);
+      } else {
+        lat = random.nextDouble() * 180 - 90;
+        lon = random.nextDouble() * 360 - 180;
+      }
+      String hash = encodeLatLonByBisection(lat, lon, precision);
+      long bits = GeohashUtils.encodeLatLonLong(lat, lon, precision);
+      assertEquals(hash, GeohashUtils.toGeohash(bits, precision));
+      assertEquals(hash, GeohashUtils.encodeLatLon(lat, lon, precision));
+      assertEquals(bits, GeohashUtils.toLong(hash));
+      assertEquals(GeohashUtils.decodeBoundary(hash, ctx),
+          GeohashUtils.decodeBoundary(bits, precision, ctx, null));
+      Point center = GeohashUtils.decode(hash, ctx);
+      Point reuse = ctx.makePoint(0, 0);
+      assertSame(reuse, GeohashUtils.decode(bits, precision, ctx, reuse));
+      assertEquals(center, reuse);
+    }
+  }
+
+  @Test
+  public void testEncodeToChars() {
+    char[] buf = new char[30];
+    int end = GeohashUtils.encodeLatLon(42.6, -5.6, 12, buf, 2);
+    assertEquals(14, end);
+    assertEquals("ezs42e44yx96", new String(buf, 2, 12));
+    //beyond the precision of a long
+    end = GeohashUtils.encodeLatLon(42.6, -5.6, 20, buf, 0);
+    assertEquals(20, end);
+    assertEquals(encodeLatLonByBisection(42.6, -5.6, 20), new String(buf, 0, 20));
+    //empty
+    assertEquals(3, GeohashUtils.encodeLatLon(42.6, -5.6, 0, buf, 3));
+    assertEquals("", GeohashUtils.encodeLatLon(42.6, -5.6, 0));
+  }
+
+  @Test
+  public void testAdjacentAndExpand() {
+    Random random = new Random(7);
+    long[] cells = new long[10];
+    for (int i = 0; i < 2000; i++) {
+      int precision = 1 + random.nextInt(GeohashUtils.MAX_LONG_PRECISION);
+      double lat = random.nextDouble() * 180 - 90;
+      double lon = random.nextDouble() * 360 - 180;
+      long hash = GeohashUtils.encodeLatLonLong(lat, lon, precision);
+      Rectangle cell = GeohashUtils.decodeBoundary(hash, precision, ctx, null);
+      assertEquals(10, GeohashUtils.expand(hash, precision, cells, 1));
+      assertEquals(hash, cells[1 + 4]);
+      int idx = 1;
+      for (int dy = 1; dy >= -1; dy--) {
+        for (int dx = -1; dx <= 1; dx++) {
+          long adjacent = GeohashUtils.adjacent(hash, precision, dx, dy);
+          assertEquals(adjacent, cells[idx++]);
+          double y = cell.getCenter().getY() + dy * cell.getHeight();
+          if (y < -90 || y > 90) {
+            assertEquals(-1, adjacent);
+            continue;
+          }
+          double x = DistanceUtils.normLonDEG(cell.getCenter().getX() + dx * cell.getWidth());
+          assertEquals(GeohashUtils.encodeLatLonLong(y, x, precision), adjacent);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testExpandStrings() {
+    String[] cells = GeohashUtils.expand("ezs42");
+    assertEquals("ezs42", cells[4]);
+    for (String cell : cells) {
+      assertEquals(5, cell.length());
+    }
+    assertEquals("ezs48", cells[1]);//north
+    assertEquals("ezs40", cells[7]);//south
+    assertEquals("ezs43", cells[5]);//east
+    assertEquals("ezefr", cells[3]);//west
+
+    //at the south pole & wrapping the dateline
+    cells = GeohashUtils.expand("0");
+    assertEquals("r", cells[0]);
+    assertEquals("2", cells[1]);
+    assertEquals("p", cells[3]);
+    assertEquals("1", cells[5]);
+    assertNull(cells[6]);
+    assertNull(cells[7]);
+    assertNull(cells[8]);
+  }
+
+  @Test
+  public void testCoverCell() {
+    Rectangle cell = GeohashUtils.decodeBoundary("ezs42", ctx);
+    //inset; a shape touching neighboring cells intersects them
+    double inset = 1e-9;
+    Rectangle rect = ctx.makeRectangle(cell.getMinX() + inset, cell.getMaxX() - inset,
+        cell.getMinY() + inset, cell.getMaxY() - inset);
+    long[] ranges = GeohashUtils.cover(rect, 10, 7, ctx);
+    assertEquals(2, ranges.length);
+    assertEquals(GeohashUtils.toLong("ezs4200"), ranges[0]);
+    assertEquals(GeohashUtils.toLong("ezs42zz"), ranges[1]);
+
+    ranges = GeohashUtils.cover(ctx.getWorldBounds(), 10, 3, ctx);
+    assertEquals(0, ranges[0]);
+    assertEquals(GeohashUtils.toLong("zzz"), ranges[1]);
+  }
+
+  @Test
+  public void testCoverCircle() {
+    Random random = new Random(11);
+    for (int i = 0; i < 20; i++) {
+      Point center = ctx.makePoint(random.nextDouble() * 360 - 180, random.nextDouble() * 160 - 80);
+      double radius = random.nextDouble() * 5;
+      Circle circle = ctx.makeCircle(center, radius);
+      int maxCells = 1 + random.nextInt(100);
+      int maxLevel = 1 + random.nextInt(GeohashUtils.MAX_LONG_PRECISION);
+      long[] ranges = GeohashUtils.cover(circle, maxCells, maxLevel, ctx);
+      assertTrue(ranges.length > 0 && ranges.length / 2 <= maxCells);
+      for (int r = 2; r < ranges.length; r += 2) {
+        assertTrue(ranges[r] > ranges[r - 1] + 1);//sorted & merged
+      }
+      //every point in the circle is in a range
+      for (int p = 0; p < 100; p++) {
+        Point pt = ctx.getDistCalc().pointOnBearing(center, random.nextDouble() * radius,
+            random.nextDouble() * 360, ctx, null);
+        long hash = GeohashUtils.encodeLatLonLong(pt.getY(), pt.getX(), maxLevel);
+        int idx = Arrays.binarySearch(ranges, hash);
+        assertTrue(idx >= 0 || (-idx - 1) % 2 == 1);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testToLongInvalidChar() {
+    GeohashUtils.toLong("ezs42a");
+  }
+
+  /** The original encoding algorithm; a reference for the bit-twiddling one. */
+  private static String encodeLatLonByBisection(double latitude, double longitude, int precision) {
+    double minY = -90, maxY = 90, minX = -180, maxX = 180;
+    StringBuilder geohash = new StringBuilder();
+    boolean isEven = true;
+    int bit = 0, ch = 0;
+    while (geohash.length() < precision) {
+      if (isEven) {
+        double mid = (minX + maxX) / 2D;
+        if (longitude > mid) {
+          ch |= 16 >> bit;
+          minX = mid;
+        } else {
+          maxX = mid;
+        }
+      } else {
+        double mid = (minY + maxY) / 2D;
+        if (latitude > mid) {
+          ch |= 16 >> bit;
+          minY = mid;
+        } else {
+          maxY = mid;
+        }
+      }
+      isEven = !isEven;
+      if (bit < 4) {
+        bit++;
+      } else {
+        geohash.append("0123456789bcdefghjkmnpqrstuvwxyz".charAt(ch));
+        bit = 0;
+        ch = 0;
+      }
+    }
+    return geohash.toString();
+  }
+
   /** see the table at http://en.wikipedia.org/wiki/Geohash */
   @Test
   public void testHashLenToWidth() {
@@ -19,11 +19,15 @@ import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeFactory;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class WktShapeParserTest extends RandomizedTest {
@@ -47,7 +51,26 @@ public class WktShapeParserTest extends RandomizedTest {
   }
 
   protected Shape wkt(SpatialContext ctx, String wkt) throws ParseException {
-    return ((WKTReader) ctx.getFormats().getWktReader()).parse(wkt);
+    WKTReader wktReader = (WKTReader) ctx.getFormats().getWktReader();
+    if (randomBoolean())
+      return wktReader.parse(wkt);
+    try {
+      return wktReader.parse(new ChunkedReader(wkt));// streaming
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Returns a few chars at a time to exercise streaming. */
+  protected static class ChunkedReader extends StringReader {
+    public ChunkedReader(String s) {
+      super(s);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      return super.read(cbuf, off, Math.min(len, 1 + randomInt(7)));
+    }
   }
 
   protected void assertFails(String wkt) {
@@ -165,4 +188,38 @@ public class WktShapeParserTest extends RandomizedTest {
   public void testBuffer() throws ParseException {
     assertParses("BUFFER(POINT(1 2), 3)", ctx.makePoint(1, 2).getBuffered(3, ctx));
   }
+
+  @Test
+  public void testUnknownShapeMessage() throws IOException {
+    WKTReader wktReader = (WKTReader) ctx.getFormats().getWktReader();
+    char[] longArgs = new char[300];
+    Arrays.fill(longArgs, '1');
+    for (String wkt : new String[]{"FOO(1 2)", "  FOO (" + new String(longArgs) + ")", "(1 2)"}) {
+      String expected = null;
+      try {
+        wktReader.parse(wkt);
+        fail();
+      } catch (ParseException e) {
+        expected = e.getMessage();
+      }
+      assertTrue(expected, expected.startsWith("Unknown Shape definition [" + wkt.trim().substring(0, 5)));
+      try {
+        wktReader.parse(new ChunkedReader(wkt));
+        fail();
+      } catch (ParseException e) {
+        assertEquals(expected, e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testReadWithSubclass() throws IOException, ParseException {
+    WKTReader wktReader = new WKTReader(ctx, null) {
+      @Override
+      public Shape parseIfSupported(String wktString) throws ParseException {
+        return super.parseIfSupported(wktString.replace("FOO", "POINT"));
+      }
+    };
+    assertEquals(ctx.makePoint(1, 2), wktReader.read(new StringReader("FOO (1 2)")));
+  }
 }
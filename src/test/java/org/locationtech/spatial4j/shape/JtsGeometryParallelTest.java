@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and MITRE
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakScope;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.shape.jts.JtsGeometry;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests {@link org.locationtech.spatial4j.shape.jts.JtsShapeFactory#getParallelThreshold()}. */
+@ThreadLeakScope(ThreadLeakScope.Scope.NONE)//the pool's threads live on until afterClass
+public class JtsGeometryParallelTest extends RandomizedTest {
+
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void beforeClass() {
+    pool = new ForkJoinPool(3);
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    pool.shutdown();
+    pool = null;
+  }
+
+  private JtsSpatialContext newContext(int parallelThreshold) {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    factory.allowMultiOverlap = true;
+    factory.parallelThreshold = parallelThreshold;
+    factory.parallelPool = pool;
+    return factory.newSpatialContext();
+  }
+
+  @Test
+  @Repeat(iterations = 10)
+  public void testMatchesSequential() {
+    final JtsSpatialContext sequentialCtx = newContext(0);
+    final JtsSpatialContext parallelCtx = newContext(1);
+    final GeometryFactory gf = sequentialCtx.getShapeFactory().getGeometryFactory();
+
+    // overlapping polygons, some crossing the dateline (x > 180)
+    final boolean nearDateline = randomBoolean();
+    Polygon[] polygons = new Polygon[randomIntBetween(2, 300)];
+    for (int i = 0; i < polygons.length; i++) {
+      double x = nearDateline ? 170 + randomDouble() * 20 : -170 + randomDouble() * 340;
+      double y = -80 + randomDouble() * 160;
+      polygons[i] = (Polygon) gf.createPoint(new Coordinate(x, y)).buffer(1 + randomDouble() * 7, 4);
+    }
+
+    Geometry multi = gf.createMultiPolygon(polygons);
+    JtsGeometry expected = sequentialCtx.getShapeFactory().makeShape((Geometry) multi.clone());
+    JtsGeometry actual = parallelCtx.getShapeFactory().makeShape((Geometry) multi.clone());
+
+    final double area = expected.getGeom().getArea();
+    assertEquals(area, actual.getGeom().getArea(), area * 1e-9);
+    assertTrue(expected.getGeom().symDifference(actual.getGeom()).getArea() <= area * 1e-9);
+    Rectangle expectedBBox = expected.getBoundingBox(), actualBBox = actual.getBoundingBox();
+    assertEquals(expectedBBox.getMinX(), actualBBox.getMinX(), 1e-9);
+    assertEquals(expectedBBox.getMaxX(), actualBBox.getMaxX(), 1e-9);
+    assertEquals(expectedBBox.getMinY(), actualBBox.getMinY(), 1e-9);
+    assertEquals(expectedBBox.getMaxY(), actualBBox.getMaxY(), 1e-9);
+  }
+
+  @Test
+  public void testInit() {
+    Map<String, String> args = new HashMap<>();
+    args.put("spatialContextFactory", JtsSpatialContextFactory.class.getName());
+    args.put("parallelThreshold", "5000");
+    JtsSpatialContext ctx = (JtsSpatialContext)
+        JtsSpatialContextFactory.makeSpatialContext(args, getClass().getClassLoader());
+    assertEquals(5000, ctx.getShapeFactory().getParallelThreshold());
+    assertTrue(ctx.getShapeFactory().getParallelPool() != null);
+  }
+}
@@ -13,10 +13,12 @@ import com.carrotsearch.randomizedtesting.annotations.Repeat;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.exception.InvalidShapeException;
 import org.locationtech.spatial4j.io.WKTReader;
 import org.locationtech.spatial4j.shape.impl.PointImpl;
 import org.locationtech.spatial4j.shape.impl.RectangleImpl;
 import org.locationtech.spatial4j.shape.jts.JtsGeometry;
+import org.locationtech.spatial4j.shape.jts.PreparedGeometryCache;
 import com.vividsolutions.jts.geom.*;
 import io.jeo.geom.Geom;
 import org.junit.Test;
@@ -26,11 +28,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.locationtech.spatial4j.shape.SpatialRelation.CONTAINS;
@@ -116,6 +121,142 @@ public class JtsGeometryTest extends AbstractTestShapes {
     assertRelation(CONTAINS, lineB, pointB);
   }
 
+  @Test
+  public void testAutoIndexThreshold() throws ParseException {
+    Map<String, String> args = new HashMap<>();
+    args.put("spatialContextFactory", JtsSpatialContextFactory.class.getName());
+    args.put("autoIndexThreshold", "2");
+    args.put("autoIndexCacheSize", "1");
+    JtsSpatialContext ctx = (JtsSpatialContext) JtsSpatialContextFactory.makeSpatialContext(args, getClass().getClassLoader());
+    PreparedGeometryCache cache = ctx.getShapeFactory().getPreparedGeometryCache();
+    assertNotNull(cache);
+    assertEquals(1, cache.getMaxSize());
+
+    JtsGeometry base = (JtsGeometry) wkt(ctx, "POLYGON((0 0, 10 0, 5 5, 0 0))");
+    JtsGeometry other = (JtsGeometry) wkt(ctx, "POLYGON((10 0, 20 0, 15 5, 10 0))");
+    Point inside = ctx.makePoint(5, 1);
+    Rectangle rect = ctx.makeRectangle(4, 6, 1, 2);
+    assertEquals(CONTAINS, base.relate(inside));
+    assertEquals(INTERSECTS, base.relate(other));
+    // only now has the threshold been reached; repeated relates hit the cache
+    assertEquals(0, cache.getMissCount());
+    assertEquals(CONTAINS, base.relate(inside));
+    assertEquals(CONTAINS, base.relate(rect));
+    assertEquals(INTERSECTS, base.relate(other));
+    assertEquals(1, cache.getMissCount());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.size());
+
+    // relating another shape beyond the threshold evicts the eldest (the cache size is 1)
+    for (int i = 0; i < 3; i++)
+      assertEquals(INTERSECTS, other.relate(base));
+    assertEquals(2, cache.getMissCount());
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(1, cache.size());
+    // the evicted shape must reach the threshold again before it's prepared again
+    assertEquals(CONTAINS, base.relate(inside));
+    assertEquals(CONTAINS, base.relate(inside));
+    assertEquals(2, cache.getMissCount());
+    assertEquals(CONTAINS, base.relate(inside));
+    assertEquals(3, cache.getMissCount());
+    assertEquals(2, cache.getEvictionCount());
+
+    // explicitly indexed shapes don't use the cache
+    JtsGeometry indexed = (JtsGeometry) wkt(ctx, "POLYGON((0 0, 10 0, 5 5, 0 0))");
+    indexed.index();
+    for (int i = 0; i < 5; i++)
+      assertEquals(CONTAINS, indexed.relate(inside));
+    assertEquals(3, cache.getMissCount());
+
+    // disabled by default
+    assertNull(((JtsSpatialContext) this.ctx).getShapeFactory().getPreparedGeometryCache());
+  }
+
+  @Test
+  public void testAutoIndexCacheTooSmall() throws ParseException {
+    Map<String, String> args = new HashMap<>();
+    args.put("spatialContextFactory", JtsSpatialContextFactory.class.getName());
+    args.put("autoIndexThreshold", "2");
+    args.put("autoIndexCacheSize", "10");
+    JtsSpatialContext ctx = (JtsSpatialContext) JtsSpatialContextFactory.makeSpatialContext(args, getClass().getClassLoader());
+    PreparedGeometryCache cache = ctx.getShapeFactory().getPreparedGeometryCache();
+    JtsGeometry[] hot = new JtsGeometry[5];
+    JtsGeometry[] cold = new JtsGeometry[200];
+    for (int i = 0; i < hot.length; i++)
+      hot[i] = (JtsGeometry) wkt(ctx, "POLYGON((" + i + " 0, " + (i + 1) + " 0, " + i + " 1, " + i + " 0))");
+    for (int i = 0; i < cold.length; i++)
+      cold[i] = (JtsGeometry) wkt(ctx, "POLYGON((0 " + (i * 0.25) + ", 1 " + (i * 0.25) + ", 0 " + (i * 0.25 + 1)
+          + ", 0 " + (i * 0.25) + "))");
+
+    // each round uses every hot geometry, and a few cold ones long enough to be prepared
+    final int rounds = 100;
+    int coldPrepared = 0;
+    for (int round = 0; round < rounds; round++) {
+      for (JtsGeometry geom : hot)
+        assertEquals(DISJOINT, geom.relate(nearCorner(ctx, geom)));
+      for (int c = 0; c < 3; c++) {
+        JtsGeometry geom = cold[(round * 3 + c) % cold.length];
+        for (int r = 0; r < 4; r++)
+          assertEquals(DISJOINT, geom.relate(nearCorner(ctx, geom)));
+        coldPrepared++;
+      }
+    }
+    // the hot geometries were prepared once each; the cold ones only once per time they were wanted
+    assertEquals(hot.length + coldPrepared, cache.getMissCount());
+    assertEquals(10, cache.size());
+    // ... instead of every relate after the threshold preparing one geometry and evicting another
+    assertTrue(cache.getMissCount() < rounds * (hot.length + 3) / 2);
+  }
+
+  /** A point in the bounding box of a triangle like those above, but not in the triangle. */
+  private static Point nearCorner(JtsSpatialContext ctx, JtsGeometry triangle) {
+    Rectangle bbox = triangle.getBoundingBox();
+    return ctx.makePoint(bbox.getMinX() + 0.9, bbox.getMinY() + 0.9);
+  }
+
+  @Test
+  public void testIndexPointGrid() throws IOException, ParseException {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    factory.normWrapLongitude = true;
+    JtsSpatialContext ctx = factory.newSpatialContext();
+    assertPointGridConsistent(ctx, (JtsGeometry) wkt(ctx, readFirstLineFromRsrc("/fiji.wkt.txt")));
+    factory.allowMultiOverlap = true;
+    JtsSpatialContext ctxMulti = factory.newSpatialContext();
+    assertPointGridConsistent(ctxMulti, (JtsGeometry) wkt(ctxMulti, readFirstLineFromRsrc("/russia.wkt.txt")));
+    assertPointGridConsistent(ctx, POLY_SHAPE);
+    assertPointGridConsistent(ctx, (JtsGeometry) wkt(ctx,
+        "POLYGON((0 0, 20 0, 20 20, 0 20, 0 0), (5 5, 15 5, 10 15, 5 5))"));
+  }
+
+  private void assertPointGridConsistent(JtsSpatialContext ctx, JtsGeometry unindexedShape) {
+    JtsGeometry shape = ctx.makeShape(unindexedShape.getGeom(), false, false);
+    shape.index();//for speed; it's the reference
+    JtsGeometry gridShape = ctx.makeShape(shape.getGeom(), false, false);
+    gridShape.indexPointGrid();
+    Envelope env = shape.getGeom().getEnvelopeInternal();
+    // the vertices and segment midpoints exercise the boundary
+    Coordinate[] coords = shape.getGeom().getCoordinates();
+    for (int i = 0; i < coords.length; i++) {
+      assertEquals(CONTAINS, gridShape.relate(ctx.makePoint(coords[i].x, coords[i].y)));
+      if (i > 0) {
+        Point mid = ctx.makePoint((coords[i - 1].x + coords[i].x) / 2, (coords[i - 1].y + coords[i].y) / 2);
+        assertEquals(mid.toString(), shape.relate(mid), gridShape.relate(mid));
+      }
+    }
+    for (int i = 0; i < 1000; i++) {
+      Point pt = ctx.makePoint(
+          env.getMinX() + randomDouble() * env.getWidth(), env.getMinY() + randomDouble() * env.getHeight());
+      assertEquals(pt.toString(), shape.relate(pt), gridShape.relate(pt));
+      // and near a vertex
+      Coordinate coord = coords[randomInt(coords.length - 1)];
+      double offset = env.getWidth() / 1000;
+      pt = ctx.makePoint(
+          Math.max(env.getMinX(), Math.min(env.getMaxX(), coord.x + (randomDouble() - 0.5) * offset)),
+          Math.max(env.getMinY(), Math.min(env.getMaxY(), coord.y + (randomDouble() - 0.5) * offset)));
+      assertEquals(pt.toString(), shape.relate(pt), gridShape.relate(pt));
+    }
+  }
+
   @Test
   public void testEmpty() throws ParseException {
     Shape emptyGeom = wkt(ctx, "POLYGON EMPTY");
@@ -240,6 +381,43 @@ public class JtsGeometryTest extends AbstractTestShapes {
     System.out.println("Fiji Area: "+shape.getArea(ctx));
   }
 
+  @Test
+  public void testMakeShapeTrusted() throws IOException, ParseException {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    factory.normWrapLongitude = true;
+    JtsSpatialContext ctx = factory.newSpatialContext();
+    JtsGeometry fiji = (JtsGeometry) wkt(ctx, readFirstLineFromRsrc("/fiji.wkt.txt"));
+    for (JtsGeometry expected : new JtsGeometry[]{fiji, POLY_SHAPE, POLY_SHAPE_DL,
+        (JtsGeometry) wkt(ctx, "LINESTRING(170 0, -170 5)"),
+        (JtsGeometry) wkt(ctxNotGeo, "POLYGON((500 500, 600 500, 600 600, 500 500))")}) {
+      JtsSpatialContext expectedCtx = expected.getContext();
+      for (Rectangle bbox : new Rectangle[]{expected.getBoundingBox(), null}) {
+        JtsGeometry actual = expectedCtx.getShapeFactory().makeShapeTrusted(
+            expected.getGeom(), bbox, expected.hasArea(), true);
+        assertEquals(expected, actual);
+        assertEquals(expected.getBoundingBox(), actual.getBoundingBox());
+        assertEquals(expected.hasArea(), actual.hasArea());
+        for (int i = 0; i < 20; i++) {
+          Point pt = expectedCtx.isGeo() ? randomPointIn(expected.getBoundingBox())
+              : expectedCtx.makePoint(randomIntBetween(400, 700), randomIntBetween(400, 700));
+          assertEquals(expected.relate(pt), actual.relate(pt));
+        }
+      }
+    }
+
+    // a bow-tie; the caller vouched for it so it isn't validated again
+    Geometry bowTie = ctx.getGeometryFactory().createPolygon(new Coordinate[]{
+        new Coordinate(0, 0), new Coordinate(10, 10), new Coordinate(10, 0), new Coordinate(0, 10),
+        new Coordinate(0, 0)});
+    ctx.getShapeFactory().makeShapeTrusted(bowTie, null, true, true).validate();
+    try {
+      ctx.getShapeFactory().makeShapeTrusted(bowTie, null, true, false).validate();
+      fail();
+    } catch (InvalidShapeException e) {
+      //expected; thrown by the constructor's assertion or by validate()
+    }
+  }
+
   private String readFirstLineFromRsrc(String wktRsrcPath) throws IOException {
     InputStream is = getClass().getResourceAsStream(wktRsrcPath);
     assertNotNull(is);
@@ -318,6 +496,163 @@ public class JtsGeometryTest extends AbstractTestShapes {
     assertRelation(INTERSECTS, poly, ctxNotGeo.makeCircle(12, 12, 10)); // encloses the hole but otherwise inside the triangle
   }
 
+  @Test
+  @Repeat(iterations = 10)
+  public void testRandomPolyRelatesToCircle() {
+    // Two star-shaped polygons with holes; compare to what JTS's distances imply
+    final GeometryFactory gf = ctxNotGeo.getGeometryFactory();
+    final int numVertices = randomIntBetween(3, 200);
+    Polygon[] polys = {
+        randomStarPolygon(gf, -50, 0, numVertices),
+        randomStarPolygon(gf, 50, 0, randomIntBetween(3, 200))};
+    Geometry geom = randomBoolean() ? polys[0] : gf.createMultiPolygon(polys);
+    Shape shape = ctxNotGeo.makeShape(geom);
+    Geometry boundary = geom.getBoundary();
+
+    for (int i = 0; i < 100; i++) {
+      double x = -100 + randomDouble() * 200, y = -60 + randomDouble() * 120;
+      double radius = randomDouble() * (randomBoolean() ? 20 : 150);
+      com.vividsolutions.jts.geom.Point center = gf.createPoint(new Coordinate(x, y));
+      double distance = geom.distance(center);
+      double boundaryDistance = boundary.distance(center);
+      double farthestVertex = 0;
+      for (Coordinate coord : geom.getCoordinates())
+        farthestVertex = Math.max(farthestVertex, coord.distance(center.getCoordinate()));
+      if (Math.abs(distance - radius) < 1e-6 || Math.abs(boundaryDistance - radius) < 1e-6
+          || Math.abs(farthestVertex - radius) < 1e-6)
+        continue;// too close to call
+      SpatialRelation expected;
+      if (distance > radius)
+        expected = DISJOINT;
+      else if (farthestVertex <= radius)
+        expected = WITHIN;
+      else if (boundaryDistance > radius && geom.contains(center))
+        expected = CONTAINS;
+      else
+        expected = INTERSECTS;
+      assertRelation(expected, shape, ctxNotGeo.makeCircle(x, y, radius));
+    }
+  }
+
+  @Test
+  public void testRelateToPreparedQuery() {
+    // a prepared query is used by the shape it's related to; the result is the same
+    final GeometryFactory gf = ctxNotGeo.getGeometryFactory();
+    for (int i = 0; i < 20; i++) {
+      JtsGeometry query = ctxNotGeo.getShapeFactory().makeShape(
+          randomStarPolygon(gf, randomInt(60) - 30, randomInt(60) - 30, randomIntBetween(3, 20)));
+      JtsGeometry preparedQuery = ctxNotGeo.getShapeFactory().makeShape(query.getGeom());
+      preparedQuery.index();
+      JtsGeometry shape = ctxNotGeo.getShapeFactory().makeShape(
+          randomStarPolygon(gf, randomInt(60) - 30, randomInt(60) - 30, randomIntBetween(3, 20)));
+      assertEquals(shape.relate(query), shape.relate(preparedQuery));
+      JtsGeometry preparedShape = ctxNotGeo.getShapeFactory().makeShape(shape.getGeom());
+      preparedShape.index();
+      assertEquals(CONTAINS, shape.relate(preparedShape));//equal
+    }
+  }
+
+  @Test
+  public void testGeoRelatesToCircle() throws ParseException {
+    // At 60 degrees latitude, a degree of longitude is about half a degree of arc; cartesian math would say DISJOINT
+    Shape line = wkt(ctx, "LINESTRING(1.9 60, 1.9 60.1)");
+    assertRelation(WITHIN, line, ctx.getShapeFactory().circle(0, 60, 1));
+    assertRelation(DISJOINT, line, ctx.getShapeFactory().circle(0, 60, 0.9));
+    // the closest point is mid-edge; the arc bulges north of its vertices' latitude
+    line = wkt(ctx, "LINESTRING(-10 70, 10 70)");
+    assertRelation(INTERSECTS, line, ctx.getShapeFactory().circle(0, 71, 1));
+    // a radius so small that its cosine rounds to 1; the line's bbox overlaps the circle but the line doesn't
+    line = wkt(ctx, "LINESTRING(0.00000009 0.00000005, 0.00000009 0.00000009, 0.00000005 0.00000009)");
+    assertRelation(DISJOINT, line, ctx.getShapeFactory().circle(0, 0, 0.0000001));
+    assertRelation(INTERSECTS, line, ctx.getShapeFactory().circle(0, 0, 0.00000011));
+  }
+
+  @Test
+  @Repeat(iterations = 10)
+  public void testRandomGeoPolyRelatesToCircle() {
+    final GeometryFactory gf = ((JtsSpatialContext) ctx).getGeometryFactory();
+    final double lon = -150 + randomDouble() * 300, lat = -70 + randomDouble() * 140;
+    Polygon poly = randomStarPolygon(gf, lon, lat, randomIntBetween(3, 50), 0.25);
+    Shape shape = ((JtsSpatialContext) ctx).getShapeFactory().makeShape(poly);
+
+    for (int i = 0; i < 100; i++) {
+      double x = lon - 15 + randomDouble() * 30, y = Math.max(-90, Math.min(90, lat - 15 + randomDouble() * 30));
+      double radius = 0.5 + randomDouble() * 15;
+      double[] center = unitVector(x, y);
+      // the distance to the boundary as great circle arcs, by sampling them
+      double boundaryDistance = Double.POSITIVE_INFINITY, farthestVertex = 0;
+      for (LineString ring : rings(poly)) {
+        Coordinate[] coords = ring.getCoordinates();
+        for (int v = 1; v < coords.length; v++) {
+          double[] a = unitVector(coords[v - 1].x, coords[v - 1].y), b = unitVector(coords[v].x, coords[v].y);
+          farthestVertex = Math.max(farthestVertex, angleDEG(center, b));
+          double omega = Math.acos(Math.min(1, a[0] * b[0] + a[1] * b[1] + a[2] * b[2]));
+          for (int step = 0; step <= 200; step++) {
+            double t = step / 200.0;
+            double wa = Math.sin((1 - t) * omega) / Math.sin(omega), wb = Math.sin(t * omega) / Math.sin(omega);
+            double[] p = {wa * a[0] + wb * b[0], wa * a[1] + wb * b[1], wa * a[2] + wb * b[2]};
+            boundaryDistance = Math.min(boundaryDistance, angleDEG(center, p));
+          }
+        }
+      }
+      if (Math.abs(boundaryDistance - radius) < 0.05 || Math.abs(farthestVertex - radius) < 1e-6)
+        continue;// too close to call
+      final boolean containsCenter = poly.contains(gf.createPoint(new Coordinate(x, y)));
+      SpatialRelation expected;
+      if (farthestVertex <= radius)
+        expected = WITHIN;
+      else if (boundaryDistance <= radius)
+        expected = INTERSECTS;
+      else
+        expected = containsCenter ? CONTAINS : DISJOINT;
+      assertRelation(expected, shape, ctx.getShapeFactory().circle(x, y, radius));
+    }
+  }
+
+  private static LineString[] rings(Polygon poly) {
+    LineString[] rings = new LineString[1 + poly.getNumInteriorRing()];
+    rings[0] = poly.getExteriorRing();
+    for (int i = 0; i < poly.getNumInteriorRing(); i++)
+      rings[i + 1] = poly.getInteriorRingN(i);
+    return rings;
+  }
+
+  private static double[] unitVector(double lon, double lat) {
+    double lonRad = Math.toRadians(lon), latRad = Math.toRadians(lat);
+    return new double[]{Math.cos(latRad) * Math.cos(lonRad), Math.cos(latRad) * Math.sin(lonRad), Math.sin(latRad)};
+  }
+
+  private static double angleDEG(double[] a, double[] b) {
+    double cross = Math.sqrt(Math.pow(a[1] * b[2] - a[2] * b[1], 2) + Math.pow(a[2] * b[0] - a[0] * b[2], 2)
+        + Math.pow(a[0] * b[1] - a[1] * b[0], 2));
+    return Math.toDegrees(Math.atan2(cross, a[0] * b[0] + a[1] * b[1] + a[2] * b[2]));
+  }
+
+  private Polygon randomStarPolygon(GeometryFactory gf, double x, double y, int numVertices) {
+    return randomStarPolygon(gf, x, y, numVertices, 1);
+  }
+
+  /** A star around x,y up to 80 * scale wide, maybe with a star-shaped hole. */
+  private Polygon randomStarPolygon(GeometryFactory gf, double x, double y, int numVertices, double scale) {
+    LinearRing shell = randomStarRing(gf, x, y, 20 * scale, 40 * scale, numVertices);
+    LinearRing[] holes = {};
+    if (randomBoolean())
+      holes = new LinearRing[]{randomStarRing(gf, x, y, 2 * scale, 8 * scale, randomIntBetween(3, 20))};
+    return gf.createPolygon(shell, holes);
+  }
+
+  private LinearRing randomStarRing(GeometryFactory gf, double x, double y,
+                                    double minRadius, double maxRadius, int numVertices) {
+    Coordinate[] coords = new Coordinate[numVertices + 1];
+    for (int i = 0; i < numVertices; i++) {
+      double angle = 2 * Math.PI * i / numVertices;
+      double radius = minRadius + randomDouble() * (maxRadius - minRadius);
+      coords[i] = new Coordinate(x + radius * Math.cos(angle), y + radius * Math.sin(angle));
+    }
+    coords[numVertices] = coords[0];
+    return gf.createLinearRing(coords);
+  }
+
   @Test
   public void testMultiLineStringRelatesToCircle() throws com.vividsolutions.jts.io.ParseException {
     // use JTS WKTReader to ensure we get one Geometry in the end
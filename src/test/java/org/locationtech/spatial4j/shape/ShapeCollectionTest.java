@@ -8,6 +8,7 @@
 
 package org.locationtech.spatial4j.shape;
 
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
 import org.locationtech.spatial4j.TestLog;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.SpatialContextFactory;
@@ -20,6 +21,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.locationtech.spatial4j.shape.SpatialRelation.CONTAINS;
 
@@ -81,6 +84,71 @@ public class ShapeCollectionTest extends RandomizedShapeTest {
     new ShapeCollectionRectIntersectionTestHelper(ctx).testRelateWithRectangle();
   }
 
+  @Test
+  @Repeat(iterations = 20)
+  public void testIndexedRelate() {
+    ctx = randomBoolean() ? SpatialContext.GEO : new SpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-100, 100, -50, 50, null);}}.newSpatialContext();
+    List<Shape> shapes = new ArrayList<>();
+    int count = randomIntBetween(ShapeCollection.INDEX_THRESHOLD, 200);
+    for (int i = 0; i < count; i++) {
+      Rectangle r = randomRectangle(null);
+      // (circles would need to stay within the world bounds if not geo)
+      shapes.add(ctx.isGeo() && randomBoolean() ? ctx.makeCircle(r.getCenter(), r.getHeight() / 2) : r);
+    }
+    // relate all shapes (no short-circuit) to compare against
+    ShapeCollection<Shape> collection = new ShapeCollection<Shape>(shapes, ctx) {
+      @Override
+      protected boolean relateContainsShortCircuits() {
+        return false;
+      }
+    };
+    for (int i = 0; i < 50; i++) {
+      Shape query = randomBoolean() ? randomRectangle(null) : randomPoint();
+      SpatialRelation expected = null;
+      for (Shape shape : shapes)
+        expected = shape.relate(query).combine(expected);
+      assertEquals(query.toString(), expected, collection.relate(query));
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testComputeMutualDisjoint() {
+    ctx = SpatialContext.GEO;
+    List<Rectangle> shapes = new ArrayList<>();
+    int count = randomIntBetween(1, 100);
+    for (int i = 0; i < count; i++) {
+      // small rectangles, sometimes crossing the dateline, so that it's a toss-up if they're all disjoint
+      double x = randomIntBetween(-180, 180), y = randomIntBetween(-90, 80);
+      double w = randomIntBetween(0, 10), h = randomIntBetween(0, 10);
+      shapes.add(makeNormRect(x, x + w, y, y + h));
+    }
+    boolean expected = true;
+    for (int i = 1; i < shapes.size() && expected; i++) {
+      for (int j = 0; j < i; j++) {
+        if (shapes.get(j).relate(shapes.get(i)).intersects()) {
+          expected = false;
+          break;
+        }
+      }
+    }
+    assertEquals(shapes.toString(), expected, ShapeCollection.computeMutualDisjoint(shapes));
+  }
+
+  @Test
+  public void testComputeMutualDisjointAcrossDateline() {
+    ctx = SpatialContext.GEO;
+    // one ends at 180, the other starts at -180; the same meridian
+    Rectangle east = ctx.makeRectangle(170, 180, 0, 10);
+    Rectangle west = ctx.makeRectangle(-180, -170, 5, 15);
+    assertTrue(east.relate(west).intersects());
+    assertFalse(ShapeCollection.computeMutualDisjoint(Arrays.asList(east, west)));
+    assertFalse(ShapeCollection.computeMutualDisjoint(Arrays.asList(west, east)));
+    // but not if they don't overlap in Y
+    assertTrue(ShapeCollection.computeMutualDisjoint(Arrays.asList(east, ctx.makeRectangle(-180, -170, 20, 30))));
+  }
+
   private class ShapeCollectionRectIntersectionTestHelper extends RectIntersectionTestHelper<ShapeCollection> {
 
     private ShapeCollectionRectIntersectionTestHelper(SpatialContext ctx) {
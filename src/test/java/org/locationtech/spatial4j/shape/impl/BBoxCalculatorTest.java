@@ -89,6 +89,61 @@ public class BBoxCalculatorTest extends RandomizedShapeTest {
     }
   }
 
+  @Test @Repeat(iterations = 20)
+  public void testExpandXRanges() {
+    final int n = randomIntBetween(0, 2000);
+    double[] mins = new double[n], maxs = new double[n];
+    for (int i = 0; i < n; i++) {
+      if (randomBoolean()) {// a point
+        mins[i] = maxs[i] = randomIntBetween(-180, 180);
+      } else {
+        Rectangle rect = randomRectangle(randomBoolean() ? 1 : 30);
+        mins[i] = rect.getMinX();
+        maxs[i] = rect.getMaxX();
+      }
+    }
+    BBoxCalculator batchCalc = new BBoxCalculator(ctx);
+    batchCalc.expandXRanges(mins, maxs, n);
+    // one at a time, sometimes asking along the way
+    BBoxCalculator calc = new BBoxCalculator(ctx);
+    for (int i = 0; i < n; i++) {
+      calc.expandXRange(mins[i], maxs[i]);
+      if (randomInt(100) == 0) {
+        calc.getMinX();
+        calc.doesXWorldWrap();
+      }
+    }
+    assertEquals(calc.getMinX(), batchCalc.getMinX(), 0.0);
+    assertEquals(calc.getMaxX(), batchCalc.getMaxX(), 0.0);
+    assertEquals(calc.doesXWorldWrap(), batchCalc.doesXWorldWrap());
+    if (n == 0)
+      return;
+
+    // contains every range, and the gap opposite is empty
+    Rectangle boundary = ctx.makeRectangle(batchCalc.getMinX(), batchCalc.getMaxX(), -90, 90);
+    for (int i = 0; i < n; i++) {
+      assertRelation(SpatialRelation.CONTAINS, boundary, ctx.makeRectangle(mins[i], maxs[i], -90, 90));
+    }
+  }
+
+  @Test
+  public void testExpandXRangesExamples() {
+    BBoxCalculator calc = new BBoxCalculator(ctx);
+    calc.expandXRanges(new double[]{170, -175, 10}, new double[]{-170, 160, 20}, 2);// not the third
+    assertEquals(170, calc.getMinX(), 0.0);
+    assertEquals(160, calc.getMaxX(), 0.0);
+    assertFalse(calc.doesXWorldWrap());
+    calc.expandXRange(160, 170);// touches both
+    assertTrue(calc.doesXWorldWrap());
+    assertEquals(-180, calc.getMinX(), 0.0);
+    assertEquals(180, calc.getMaxX(), 0.0);
+
+    calc = new BBoxCalculator(ctx);
+    calc.expandXRanges(new double[]{175, -180}, new double[]{180, -175}, 2);// touching at the dateline
+    assertEquals(175, calc.getMinX(), 0.0);
+    assertEquals(-175, calc.getMaxX(), 0.0);
+  }
+
   private boolean atLeastOneRectHasLon(List<Rectangle> rects, double lon) {
     for (Rectangle rect : rects) {
       if (rect.relateXRange(lon, lon).intersects()) {